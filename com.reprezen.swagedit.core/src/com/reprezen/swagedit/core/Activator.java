@@ -10,12 +10,27 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core;
 
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.ALL_REMOTE_PREFS;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_AGE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_SIZE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_OFFLINE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIMEOUT;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIME_TO_LIVE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PlatformUI;
@@ -23,6 +38,11 @@ import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 
+import com.reprezen.swagedit.core.editor.DependencyRevalidator;
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager;
+import com.reprezen.swagedit.core.json.references.ReferenceGraph;
+import com.reprezen.swagedit.core.json.references.RemoteDocumentLoader;
+
 public class Activator extends AbstractUIPlugin {
 
 	// The plug-in ID
@@ -30,6 +50,14 @@ public class Activator extends AbstractUIPlugin {
 
 	// The shared instance
 	private static Activator plugin;
+
+    // the loader of remote documents follows the changes of its preferences
+    private final IPropertyChangeListener remotePreferencesListener = event -> {
+        RemoteDocumentLoader loader = JsonDocumentManager.getInstance().getRemoteLoader();
+        if (loader != null && ALL_REMOTE_PREFS.contains(event.getProperty())) {
+            configureRemoteLoader(loader);
+        }
+    };
 	
     /**
      * Bundle icons
@@ -49,6 +77,11 @@ public class Activator extends AbstractUIPlugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        JsonDocumentManager.getInstance().startListening(ResourcesPlugin.getWorkspace());
+        JsonDocumentManager.getInstance().setRemoteLoader(createRemoteLoader());
+        getPreferenceStore().addPropertyChangeListener(remotePreferencesListener);
+        ReferenceGraph.getInstance().load(getReferenceGraphFile());
+        DependencyRevalidator.getInstance().startListening(ResourcesPlugin.getWorkspace());
 
         if (Display.getCurrent() != null && PlatformUI.isWorkbenchRunning()) {
             Bundle bundle = Platform.getBundle(PLUGIN_ID);
@@ -88,10 +121,50 @@ public class Activator extends AbstractUIPlugin {
      * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework. BundleContext)
      */
     public void stop(BundleContext context) throws Exception {
+        JsonDocumentManager.getInstance().stopListening();
+        getPreferenceStore().removePropertyChangeListener(remotePreferencesListener);
+        RemoteDocumentLoader remoteLoader = JsonDocumentManager.getInstance().getRemoteLoader();
+        if (remoteLoader != null) {
+            JsonDocumentManager.getInstance().setRemoteLoader(null);
+            remoteLoader.dispose();
+        }
+        DependencyRevalidator.getInstance().stopListening();
+        try {
+            ReferenceGraph.getInstance().save(getReferenceGraphFile());
+        } catch (IOException e) {
+            logError("Cannot save the references between documents", e);
+        }
         plugin = null;
         super.stop(context);
     }
 
+    /*
+     * Copies of remote documents are kept in the state location, documents that change on the server are validated
+     * again with the documents that reference them.
+     */
+    private RemoteDocumentLoader createRemoteLoader() {
+        RemoteDocumentLoader loader = new RemoteDocumentLoader(getStateLocation().append("remote").toFile());
+        configureRemoteLoader(loader);
+        loader.addListener(uri -> DependencyRevalidator.getInstance().revalidate(Collections.singleton(uri)));
+        return loader;
+    }
+
+    /*
+     * Applies the preferences of remote documents, see CorePreferenceInitializer for their units.
+     */
+    private void configureRemoteLoader(RemoteDocumentLoader loader) {
+        IPreferenceStore store = getPreferenceStore();
+        loader.setOffline(store.getBoolean(REMOTE_OFFLINE));
+        loader.setTimeToLive(TimeUnit.MINUTES.toMillis(Math.max(0, store.getInt(REMOTE_TIME_TO_LIVE))));
+        loader.setTimeout((int) TimeUnit.SECONDS.toMillis(Math.max(0, store.getInt(REMOTE_TIMEOUT))));
+        loader.setMaximumSize(Math.max(0, store.getInt(REMOTE_MAXIMUM_SIZE)) * 1024L * 1024L);
+        loader.setMaximumAge(TimeUnit.DAYS.toMillis(Math.max(0, store.getInt(REMOTE_MAXIMUM_AGE))));
+    }
+
+    private File getReferenceGraphFile() {
+        return getStateLocation().append("references.json").toFile();
+    }
+
     private ImageDescriptor getImageDescriptor(Bundle bundle, String pathName) {
         Path path = new Path(pathName);
         return ImageDescriptor.createFromURL(FileLocator.find(bundle, path, null));
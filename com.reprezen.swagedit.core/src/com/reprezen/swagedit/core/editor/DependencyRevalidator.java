@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.editor;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.reprezen.swagedit.core.json.references.ReferenceGraph;
+
+/**
+ * Validates the open editors whose documents reference a file that changed in the workspace.
+ *
+ * Dependent documents are found in the {@link ReferenceGraph}, directly or through other documents, and are validated
+ * one after the other in the order of their dependencies. Documents that are not open in an editor are validated when
+ * they are opened.
+ *
+ * The jobs validating the dependent documents belong to the family of the revalidator.
+ */
+public class DependencyRevalidator {
+
+    private static final DependencyRevalidator INSTANCE = new DependencyRevalidator(ReferenceGraph.getInstance());
+
+    public static DependencyRevalidator getInstance() {
+        return INSTANCE;
+    }
+
+    private final ReferenceGraph graph;
+    // location of the document validated by each scheduler
+    private final Map<ValidationScheduler, URI> schedulers = new ConcurrentHashMap<>();
+    private final IResourceChangeListener listener = this::resourceChanged;
+
+    private IWorkspace workspace;
+
+    // for tests
+    public DependencyRevalidator(ReferenceGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Registers the scheduler of an editor, so that it is used when a document referenced by the editor's document
+     * changes.
+     *
+     * @param location
+     *            location URI of the document of the editor
+     * @param scheduler
+     */
+    public void register(URI location, ValidationScheduler scheduler) {
+        schedulers.put(scheduler, location);
+    }
+
+    public void unregister(ValidationScheduler scheduler) {
+        schedulers.remove(scheduler);
+    }
+
+    public synchronized void startListening(IWorkspace workspace) {
+        stopListening();
+        workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+        this.workspace = workspace;
+    }
+
+    public synchronized void stopListening() {
+        if (workspace != null) {
+            workspace.removeResourceChangeListener(listener);
+            workspace = null;
+        }
+    }
+
+    /**
+     * Schedules the validation of the open documents that depend on the changed documents.
+     *
+     * @param changedDocuments
+     *            location URIs of the documents that changed
+     * @return the job validating the dependent documents, or null if none is open
+     */
+    public Job revalidate(Set<URI> changedDocuments) {
+        final List<ValidationScheduler> dependents = new ArrayList<>();
+        for (URI dependent : graph.getDependents(changedDocuments)) {
+            for (Map.Entry<ValidationScheduler, URI> entry : schedulers.entrySet()) {
+                if (dependent.equals(entry.getValue())) {
+                    dependents.add(entry.getKey());
+                }
+            }
+        }
+
+        if (dependents.isEmpty()) {
+            return null;
+        }
+
+        final Job job = new RevalidationJob(dependents);
+        job.schedule();
+        return job;
+    }
+
+    private void resourceChanged(IResourceChangeEvent event) {
+        final IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+
+        final Set<URI> changed = new LinkedHashSet<>();
+        try {
+            delta.accept(current -> {
+                IResource resource = current.getResource();
+                if (resource.getType() != IResource.FILE) {
+                    return true;
+                }
+
+                // changes of markers are ignored
+                if (current.getKind() != IResourceDelta.CHANGED
+                        || (current.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+                    URI location = resource.getLocationURI();
+                    if (location != null) {
+                        changed.add(location);
+                        if (current.getKind() == IResourceDelta.REMOVED) {
+                            graph.remove(location);
+                        }
+                    }
+                }
+                return false;
+            });
+        } catch (CoreException e) {
+            return;
+        }
+
+        if (!changed.isEmpty()) {
+            revalidate(changed);
+        }
+    }
+
+    /*
+     * Runs the validations one after the other, a validation starts once the previous one is done.
+     */
+    private class RevalidationJob extends Job {
+
+        private final List<ValidationScheduler> schedulers;
+
+        RevalidationJob(List<ValidationScheduler> schedulers) {
+            super("Validate dependent KaiZen Editor documents");
+            this.schedulers = schedulers;
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            final SubMonitor subMonitor = SubMonitor.convert(monitor, schedulers.size());
+            try {
+                for (ValidationScheduler scheduler : schedulers) {
+                    scheduler.schedule(false);
+                    Job.getJobManager().join(scheduler, subMonitor.newChild(1));
+                }
+            } catch (InterruptedException | OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            }
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == DependencyRevalidator.this;
+        }
+    }
+
+}
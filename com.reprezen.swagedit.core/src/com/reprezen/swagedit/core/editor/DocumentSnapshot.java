@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.editor;
+
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.yaml.snakeyaml.nodes.Node;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reprezen.swagedit.core.model.DocumentIndex;
+import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.YamlNodeReader;
+
+/**
+ * Immutable view of the parsed content of a {@link JsonDocument}.
+ *
+ * A snapshot holds the text of one version of the document together with the model, the YAML tree and the JSON tree
+ * created from that text. All of them are published at once, so that readers holding a snapshot always see
+ * representations of the same content, and can read them from any thread without locking the document.
+ *
+ * The YAML tree of a snapshot created by an incremental parse is composed on first access, validation and folding
+ * only read the model and the JSON tree. Snapshots of large documents only hold an index of the content and a model of
+ * its first levels, other nodes being created on demand for a region of the text, see {@link #getModel(int, int)}.
+ */
+public final class DocumentSnapshot {
+
+    private final long version;
+    private final String text;
+    private final Model model;
+    private final JsonNode json;
+    private final Exception jsonError;
+    private final DocumentIndex index;
+
+    private boolean composed;
+    private Node yaml;
+    private Exception yamlError;
+
+    DocumentSnapshot(long version, String text, Model model, Node yaml, Exception yamlError, JsonNode json,
+            Exception jsonError) {
+        this.version = version;
+        this.text = text;
+        this.model = model;
+        this.yaml = yaml;
+        this.yamlError = yamlError;
+        this.json = json;
+        this.jsonError = jsonError;
+        this.index = null;
+        this.composed = true;
+    }
+
+    DocumentSnapshot(long version, String text, Model model, JsonNode json) {
+        this.version = version;
+        this.text = text;
+        this.model = model;
+        this.json = json;
+        this.jsonError = null;
+        this.index = null;
+        this.composed = false;
+    }
+
+    DocumentSnapshot(long version, String text, DocumentIndex index, Model model) {
+        this.version = version;
+        this.text = text;
+        this.model = model;
+        this.yamlError = index.getError();
+        this.json = null;
+        this.jsonError = null;
+        this.index = index;
+        this.composed = true;
+    }
+
+    static DocumentSnapshot empty() {
+        return new DocumentSnapshot(IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, "", null, null, null, null, null);
+    }
+
+    /**
+     * Returns the modification stamp of the document content from which this snapshot was created.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the document content
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the model, or null if the content is invalid YAML
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Returns a model that contains the nodes of the given region of the text.
+     * 
+     * For large documents, the model is created from the index and only contains these nodes and their parents,
+     * otherwise the model of the snapshot is returned.
+     * 
+     * @param offset
+     * @param length
+     * @return the model, or null if the content is invalid YAML
+     */
+    public Model getModel(int offset, int length) {
+        if (index == null || model == null) {
+            return model;
+        }
+        return index.getModel(model.getSchema(), offset, length);
+    }
+
+    /**
+     * Returns the index of the content if the document is read as a large document, see
+     * {@link JsonDocument#LARGE_DOCUMENT_SIZE}.
+     * 
+     * @return the index, or null
+     */
+    public DocumentIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the YAML tree, or null if the content is invalid YAML or if the document is large
+     */
+    public Node getYaml() {
+        compose();
+        return yaml;
+    }
+
+    /**
+     * @return the JSON tree, or null if the content cannot be represented as JSON or if the document is large
+     */
+    public JsonNode getJson() {
+        return json;
+    }
+
+    public Exception getYamlError() {
+        compose();
+        return yamlError;
+    }
+
+    public Exception getJsonError() {
+        return jsonError;
+    }
+
+    /**
+     * Returns true if the YAML tree has been created, either by the parse or by a call to {@link #getYaml()}.
+     * 
+     * @return true if the content has been composed
+     */
+    public synchronized boolean isComposed() {
+        return composed;
+    }
+
+    private synchronized void compose() {
+        if (!composed) {
+            try {
+                yaml = YamlNodeReader.compose(text);
+            } catch (Exception e) {
+                yamlError = e;
+            }
+            composed = true;
+        }
+    }
+}
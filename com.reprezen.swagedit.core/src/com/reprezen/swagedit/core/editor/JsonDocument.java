@@ -11,24 +11,31 @@
 package com.reprezen.swagedit.core.editor;
 
 import java.io.IOException;
-import java.io.StringReader;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
-import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.parser.ParserException;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.reprezen.swagedit.core.model.AbstractNode;
+import com.reprezen.swagedit.core.model.BlockReparser;
+import com.reprezen.swagedit.core.model.DocumentIndex;
+import com.reprezen.swagedit.core.model.JsonNodeReader;
 import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.YamlNodeReader;
 import com.reprezen.swagedit.core.schema.CompositeSchema;
 
 /**
@@ -37,32 +44,134 @@ import com.reprezen.swagedit.core.schema.CompositeSchema;
  */
 public abstract class JsonDocument extends Document {
 
-    private final ObjectMapper mapper;
     private CompositeSchema schema;
 
     public enum Version {
         SWAGGER, OPENAPI;
     }
 
-    private final Yaml yaml = new Yaml();
+    /**
+     * Delay in milliseconds before a scheduled parse starts, changes made during this delay are parsed together.
+     */
+    public static final long PARSE_DELAY = 100;
+
+    /**
+     * Number of characters from which a document is read as a large document.
+     * 
+     * The content of a large document is only indexed when it is parsed, see {@link DocumentIndex}. Its model contains
+     * the nodes up to {@link #LARGE_DOCUMENT_DEPTH}, other nodes being created on demand for a region of the text. The
+     * YAML and JSON trees are not created, so that only the model rules are validated, on the visible region of the
+     * document.
+     */
+    public static final int LARGE_DOCUMENT_SIZE = 10 * 1024 * 1024;
 
-    private AtomicReference<Result<JsonNode>> jsonContent = new AtomicReference<>(new Failure<>(null));
-    private AtomicReference<Result<Node>> yamlContent = new AtomicReference<>(new Failure<>(null));
-    private AtomicReference<Model> model = new AtomicReference<>();
+    /**
+     * Depth of the nodes in the model of a large document, enough for the outline to show paths, operations and
+     * definitions.
+     */
+    public static final int LARGE_DOCUMENT_DEPTH = 3;
+
+    private volatile DocumentSnapshot snapshot = DocumentSnapshot.empty();
+
+    private final Object parseLock = new Object();
+    // Held while the text is modified or read, as the text store is not thread safe and the
+    // content is parsed outside of the UI thread. It is acquired before the change lock.
+    private final Object contentLock = new Object();
+    private final Object changeLock = new Object();
+    // Region changed since the last parse, given by the offset of its first character
+    // and by the number of characters left unchanged after it.
+    private int changeOffset = Integer.MAX_VALUE;
+    private int unchangedSuffix = Integer.MAX_VALUE;
+    private long changeCount = 0;
+    private BlockReparser reparser;
+    private int largeDocumentSize = LARGE_DOCUMENT_SIZE;
+    private volatile IRegion viewport;
+
+    private final ParseJob parseJob = new ParseJob();
+    private final List<ParseListener> parseListeners = new CopyOnWriteArrayList<>();
 
     public JsonDocument(CompositeSchema schema) {
-        this.mapper = new ObjectMapper(new YAMLFactory());
         this.schema = schema;
+
+        addPrenotifiedDocumentListener(new IDocumentListener() {
+            @Override
+            public void documentAboutToBeChanged(DocumentEvent event) {
+            }
+
+            @Override
+            public void documentChanged(DocumentEvent event) {
+                trackChange(event);
+            }
+        });
     }
 
     public abstract Version getVersion();
 
+    /**
+     * Sets the number of characters from which the document is read as a large document, see
+     * {@link #LARGE_DOCUMENT_SIZE}.
+     * 
+     * @param size
+     */
+    public void setLargeDocumentSize(int size) {
+        this.largeDocumentSize = size;
+    }
+
+    /**
+     * Returns true if the last parsed content was read as a large document.
+     * 
+     * @return true if large
+     */
+    public boolean isLarge() {
+        return snapshot.getIndex() != null;
+    }
+
+    /**
+     * Returns the region of the document that is visible in the editor.
+     * 
+     * @return region, or null if unknown
+     */
+    public IRegion getViewport() {
+        return viewport;
+    }
+
+    public void setViewport(IRegion viewport) {
+        this.viewport = viewport;
+    }
+
     public Exception getYamlError() {
-        return yamlContent.get().getError();
+        return snapshot.getYamlError();
     }
 
     public Exception getJsonError() {
-        return jsonContent.get().getError();
+        return snapshot.getJsonError();
+    }
+
+    /**
+     * Returns the modification stamp of the content from which the model, the YAML tree and the JSON tree were
+     * created.
+     * 
+     * @return modification stamp
+     */
+    public long getParsedModificationStamp() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Returns the parsed content of the document.
+     * 
+     * The content is parsed first if it changed since the last parse and no parse is scheduled. Otherwise the last
+     * published snapshot is returned, which may be older than the document when a parse is pending.
+     * 
+     * Callers reading more than one representation of the document should read them from the same snapshot.
+     * 
+     * @return snapshot
+     */
+    public DocumentSnapshot getSnapshot() {
+        if (snapshot.getVersion() != getModificationStamp() && parseJob.getState() == Job.NONE) {
+            onChange();
+        }
+        return snapshot;
     }
 
     /**
@@ -71,10 +180,10 @@ public abstract class JsonDocument extends Document {
      * @return Node
      */
     public Node getYaml() {
-        if (yamlContent.get() == null || yamlContent.get().getResult() == null) {
-            updateYaml(get());
+        if (snapshot.getYaml() == null && !isIndexed()) {
+            onChange();
         }
-        return yamlContent.get().getResult();
+        return snapshot.getYaml();
     }
 
     /**
@@ -87,10 +196,10 @@ public abstract class JsonDocument extends Document {
      * @throws IOException
      */
     public JsonNode asJson() {
-        if (jsonContent.get() == null || jsonContent.get().getResult() == null) {
-            updateJson(get());
+        if (snapshot.getJson() == null && !isIndexed()) {
+            onChange();
         }
-        return jsonContent.get().getResult();
+        return snapshot.getJson();
     }
 
     public CompositeSchema getSchema() {
@@ -127,91 +236,277 @@ public abstract class JsonDocument extends Document {
         }
     }
 
+    @Override
+    public void replace(int pos, int length, String text, long modificationStamp) throws BadLocationException {
+        synchronized (contentLock) {
+            super.replace(pos, length, text, modificationStamp);
+        }
+    }
+
+    @Override
+    public void set(String text, long modificationStamp) {
+        synchronized (contentLock) {
+            super.set(text, modificationStamp);
+        }
+    }
+
+    @Override
+    public String get() {
+        synchronized (contentLock) {
+            return super.get();
+        }
+    }
+
+    @Override
+    public String get(int offset, int length) throws BadLocationException {
+        synchronized (contentLock) {
+            return super.get(offset, length);
+        }
+    }
+
+    /*
+     * Called while the content lock is held by the modification.
+     */
+    private void trackChange(DocumentEvent event) {
+        final int length = event.getText() != null ? event.getText().length() : 0;
+
+        synchronized (changeLock) {
+            changeOffset = Math.min(changeOffset, event.getOffset());
+            unchangedSuffix = Math.min(unchangedSuffix, getLength() - event.getOffset() - length);
+            changeCount++;
+        }
+    }
+
+    /**
+     * Parses the content of the document.
+     * 
+     * If possible, only the part of the document that changed since the last parse is parsed again and the result is
+     * merged into the previous model and JSON tree, see {@link BlockReparser}. In that case, the YAML tree is only
+     * created when requested.
+     * 
+     * Otherwise the content is composed only once, the YAML tree, the JSON tree and the model are all created from the
+     * result of this composition.
+     * 
+     * When called by a listener during a modification of the document, the parse is scheduled instead.
+     */
     public void onChange() {
-        final String content = get();
+        if (Thread.holdsLock(contentLock)) {
+            // called by a listener of a modification, waiting for a parse in progress
+            // could block that parse, which waits for the modification to read the content
+            scheduleParse();
+            return;
+        }
 
-        updateModel();
-        updateYaml(content);
+        synchronized (parseLock) {
+            // the document may be modified by another thread while it is parsed,
+            // in which case the result is discarded and the content parsed again.
+            for (int attempt = 0; attempt < 3; attempt++) {
+                if (parse()) {
+                    break;
+                }
+            }
+        }
+    }
 
-        // No need to parse json if
-        // there is already a yaml parsing error.
-        if (!yamlContent.get().isSuccess()) {
-            jsonContent.getAndSet(new Failure<>(null));
+    /**
+     * Schedules a parse of the document in the background.
+     * 
+     * Changes made until the parse starts are parsed together. The result of the parse is discarded if the document
+     * changes while it is parsed, the change being expected to schedule another parse. Otherwise, parse listeners are
+     * notified once the result is available.
+     */
+    public void scheduleParse() {
+        parseJob.cancel();
+        parseJob.schedule(PARSE_DELAY);
+    }
+
+    public void addParseListener(ParseListener listener) {
+        parseListeners.add(listener);
+    }
+
+    public void removeParseListener(ParseListener listener) {
+        parseListeners.remove(listener);
+    }
+
+    /*
+     * Parses the current content and publishes the result. Returns false if the document changed during the parse, in
+     * which case nothing is published.
+     */
+    private boolean parse() {
+        final String content;
+        final long stamp;
+        final long changes;
+        final int offset;
+        final int suffix;
+        // the content is read in the same state as the changes tracked so far
+        synchronized (contentLock) {
+            synchronized (changeLock) {
+                stamp = getModificationStamp();
+                content = get();
+                changes = changeCount;
+                offset = changeOffset;
+                suffix = unchangedSuffix;
+                changeOffset = Integer.MAX_VALUE;
+                unchangedSuffix = Integer.MAX_VALUE;
+            }
+        }
+
+        final DocumentSnapshot result;
+        final BlockReparser base;
+        if (content.length() >= largeDocumentSize) {
+            final DocumentIndex index = DocumentIndex.build(content);
+            result = new DocumentSnapshot(stamp, content, index, index.getModel(schema, LARGE_DOCUMENT_DEPTH));
+            base = null;
         } else {
-            updateJson(content);
+            // the content is copied so that it can be read safely outside of the UI thread
+            final Document copy = new Document(content);
+            final BlockReparser next = reparser != null && offset != Integer.MAX_VALUE
+                    ? reparser.reparse(copy, offset, suffix)
+                    : null;
+
+            // JSON content is always read entirely, as it is not made of block mappings.
+            final DocumentSnapshot json = next == null ? parseJson(stamp, content) : null;
+
+            if (next != null) {
+                result = new DocumentSnapshot(stamp, content, next.getModel(), next.getJson());
+                base = next;
+            } else if (json != null) {
+                result = json;
+                base = null;
+            } else {
+                final YamlNodeReader reader = new YamlNodeReader();
+                result = parse(stamp, content, reader);
+                base = BlockReparser.create(result.getModel(), result.getJson(), reader, copy.getNumberOfLines());
+            }
+        }
+
+        synchronized (changeLock) {
+            if (changes != changeCount) {
+                // keep the changed region for the next parse
+                changeOffset = Math.min(changeOffset, offset);
+                unchangedSuffix = Math.min(unchangedSuffix, suffix);
+                return false;
+            }
+
+            reparser = base;
+            snapshot = result;
+            return true;
         }
     }
 
-    private void updateYaml(String content) {
-        yamlContent.getAndSet(parseYaml(content));
+    private DocumentSnapshot parse(long stamp, String content, YamlNodeReader reader) {
+        final Result<Node> yamlResult = parseYaml(content);
+
+        Result<JsonNode> jsonResult;
+        Model modelResult;
+        // No need to create json if there is already a yaml parsing error,
+        // the model is created from the lines that can be parsed.
+        if (!yamlResult.isSuccess()) {
+            jsonResult = new Failure<>(null);
+            modelResult = Model.recoverYaml(schema, content);
+        } else {
+            jsonResult = parseJson(reader, yamlResult.getResult());
+            modelResult = parseModel(reader, yamlResult.getResult());
+        }
+
+        return new DocumentSnapshot(stamp, content, modelResult, yamlResult.getResult(), yamlResult.getError(),
+                jsonResult.getResult(), jsonResult.getError());
+    }
+
+    /*
+     * Reads a content written in JSON with the JSON parser, the YAML tree is only composed when requested. Returns null
+     * if the content is not JSON or not valid JSON, in which case it is parsed as YAML.
+     */
+    private DocumentSnapshot parseJson(long stamp, String content) {
+        if (!JsonNodeReader.isJson(content)) {
+            return null;
+        }
+
+        final JsonNodeReader reader = new JsonNodeReader();
+        final Model model = Model.parseJson(schema, content, reader);
+
+        return model != null ? new DocumentSnapshot(stamp, content, model, reader.getJson()) : null;
     }
 
     private Result<Node> parseYaml(String content) {
         try {
-            return new Success<>(yaml.compose(new StringReader(content)));
+            return new Success<>(YamlNodeReader.compose(content));
         } catch (Exception e) {
             return new Failure<>(e);
         }
     }
 
-    private void updateJson(String content) {
-        jsonContent.getAndSet(parseJson(content));
-    }
-
-    private Result<JsonNode> parseJson(String content) {
+    private Result<JsonNode> parseJson(YamlNodeReader reader, Node yaml) {
         try {
-            Object expandedYamlObject = new Yaml().load(content);
-            return new Success<>(mapper.valueToTree(expandedYamlObject));
+            return new Success<>(yaml != null ? reader.toJson(yaml) : null);
         } catch (Exception e) {
             return new Failure<>(e);
         }
     }
 
-    private void updateModel() {
-        model.getAndSet(parseModel());
-    }
+    private Model parseModel(YamlNodeReader reader, Node yaml) {
+        if (yaml == null) {
+            return Model.empty(schema);
+        }
 
-    private Model parseModel() {
         try {
-            return Model.parseYaml(schema, get());
+            return Model.parseYaml(schema, yaml, reader);
         } catch (Exception e) {
             return null;
         }
     }
 
     /**
-     * @return the Model, or null if the spec is invalid YAML
+     * Returns the model of the document. If the document is not valid YAML, the model only contains the nodes that
+     * could be parsed, see {@link Model#recoverYaml(CompositeSchema, String)}.
+     * 
+     * @return the Model
      */
     public Model getModel() {
-        if (model.get() == null) {
-            model.getAndSet(parseModel());
+        if (snapshot.getModel() == null) {
+            onChange();
         }
-        return model.get();
+        return snapshot.getModel();
     }
 
     /*
      * Used by code-assist
      */
     public Model getModel(int offset) {
-        // no parse errors
-        final Model modelValue = model.get();
-        if (modelValue != null) {
+        // code-assist needs a model of the current content
+        if (getParsedModificationStamp() != getModificationStamp()) {
+            onChange();
+        }
+
+        final DocumentSnapshot current = snapshot;
+        final Model modelValue = current.getModel();
+        if (modelValue == null || 0 > offset || offset > current.getText().length()) {
             return modelValue;
         }
-        // parse errors -> return the model at offset, do NOT update the `model` field
+
+        if (current.getIndex() != null) {
+            try {
+                return getLineModel(current, getLineOfOffset(offset));
+            } catch (BadLocationException e) {
+                return modelValue;
+            }
+        }
+
+        // the line being edited could not be parsed, the model is created
+        // again from this line up to the offset and from the rest of the document.
         try {
-            if (0 > offset || offset > getLength()) {
-                return Model.parseYaml(schema, get());
-            } else {
-                return Model.parseYaml(schema, get(0, offset));
+            if (modelValue.getErrorLines().contains(getLineOfOffset(offset))) {
+                return Model.recoverYaml(schema, current.getText(), offset);
             }
         } catch (BadLocationException e) {
-            return null;
+            // the document changed since the snapshot was taken
         }
+        return modelValue;
     }
 
     public JsonPointer getPath(int line, int column) {
-        return getModel().getPath(line, column);
+        getModel();
+        return getLineModel(snapshot, line).getPath(line, column);
     }
 
     public JsonPointer getPath(IRegion region) {
@@ -222,7 +517,33 @@ public abstract class JsonDocument extends Document {
             return null;
         }
 
-        return getModel().getPath(lineOfOffset, getColumnOfOffset(lineOfOffset, region));
+        getModel();
+        return getLineModel(snapshot, lineOfOffset).getPath(lineOfOffset, getColumnOfOffset(lineOfOffset, region));
+    }
+
+    /*
+     * Returns a model that contains the nodes of the line, only these nodes are created for large documents.
+     */
+    private Model getLineModel(DocumentSnapshot current, int line) {
+        if (current.getIndex() == null) {
+            return current.getModel();
+        }
+
+        try {
+            final IRegion region = getLineInformation(line);
+            return current.getModel(region.getOffset(), region.getLength());
+        } catch (BadLocationException e) {
+            return current.getModel();
+        }
+    }
+
+    /*
+     * Returns true if the current content is read as a large document, in which case the YAML and JSON trees are not
+     * created.
+     */
+    private boolean isIndexed() {
+        final DocumentSnapshot current = snapshot;
+        return current.getIndex() != null && current.getVersion() == getModificationStamp();
     }
 
     public int getColumnOfOffset(int line, IRegion region) {
@@ -242,6 +563,14 @@ public abstract class JsonDocument extends Document {
             return null;
         }
 
+        final DocumentSnapshot current = snapshot;
+        if (current.getIndex() != null) {
+            final int offset = current.getIndex().getOffset(pointer);
+            if (offset >= 0) {
+                model = current.getModel(offset, 0);
+            }
+        }
+
         AbstractNode node = model.find(pointer);
         if (node == null) {
             return new Region(0, 0);
@@ -252,6 +581,47 @@ public abstract class JsonDocument extends Document {
         return new Region(position.getOffset(), position.getLength());
     }
 
+    /**
+     * Listener notified when the result of a scheduled parse is available.
+     */
+    public interface ParseListener {
+
+        void documentParsed(JsonDocument document);
+    }
+
+    private class ParseJob extends Job {
+
+        public ParseJob() {
+            super("Parse document");
+            setSystem(true);
+            setPriority(Job.SHORT);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            if (monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+
+            final boolean published;
+            synchronized (parseLock) {
+                published = parse();
+            }
+
+            if (published) {
+                for (ParseListener listener : parseListeners) {
+                    listener.documentParsed(JsonDocument.this);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == JsonDocument.this;
+        }
+    }
+
     public interface Result<T> {
         boolean isSuccess();
 
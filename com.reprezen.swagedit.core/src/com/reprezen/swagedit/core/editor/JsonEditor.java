@@ -10,6 +10,7 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.editor;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,22 +21,23 @@ import org.dadacoalition.yedit.editor.IDocumentIdleListener;
 import org.dadacoalition.yedit.editor.YEdit;
 import org.dadacoalition.yedit.editor.YEditSourceViewerConfiguration;
 import org.dadacoalition.yedit.preferences.PreferenceConstants;
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.information.IInformationPresenter;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.ISourceViewer;
@@ -63,6 +65,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorSite;
+import org.eclipse.ui.IFileEditorInput;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.contexts.IContextService;
@@ -101,24 +104,38 @@ public abstract class JsonEditor extends YEdit implements IShowInSource, IShowIn
         @Override
         public void documentChanged(DocumentEvent event) {
             if (event.getDocument() instanceof JsonDocument) {
-                final JsonDocument document = (JsonDocument) event.getDocument();
-
-                document.onChange();
-                Display.getCurrent().asyncExec(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (contentOutline != null) {
-                            // depends on the results of document.onChange()
-                            contentOutline.setInput(getEditorInput());
-                        }
-                    }
-                });
-                // depends on the results of document.onChange()
-                runValidate(false);
+                // parsing is done in the background, the outline and the
+                // validation are updated once the parse result is available
+                ((JsonDocument) event.getDocument()).scheduleParse();
             }
         }
     };
 
+    private final JsonDocument.ParseListener parseListener = new JsonDocument.ParseListener() {
+        @Override
+        public void documentParsed(JsonDocument document) {
+            Display.getDefault().asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    if (contentOutline != null) {
+                        contentOutline.setInput(getEditorInput());
+                    }
+                }
+            });
+            runValidate(false);
+        }
+    };
+
+    /*
+     * Large documents are only validated on their visible region, they are validated again when that region changes.
+     */
+    private final IViewportListener viewportListener = new IViewportListener() {
+        @Override
+        public void viewportChanged(int verticalOffset) {
+            updateViewport();
+        }
+    };
+
     /*
      * This listener is added to the preference store when the editor is initialized. It listens to changes to color
      * preferences. Once a color change happens, the editor is re-initialized. It also handles changes in validation
@@ -128,6 +145,8 @@ public abstract class JsonEditor extends YEdit implements IShowInSource, IShowIn
 
     private JsonContentOutlinePage contentOutline;
 
+    private volatile ValidationScheduler validationScheduler;
+
     public JsonEditor(JsonDocumentProvider documentProvider, IPreferenceStore preferenceStore) {
         super();
         setPreferenceStore(preferenceStore);
@@ -155,9 +174,15 @@ public abstract class JsonEditor extends YEdit implements IShowInSource, IShowIn
         if (input != null) {
             super.doSetInput(input);
 
+            // the scheduler locks the file of the input, the input changes on save as
+            resetValidationScheduler();
+
             IDocument document = getDocumentProvider().getDocument(getEditorInput());
             if (document != null) {
                 document.addDocumentListener(changeListener);
+                if (document instanceof JsonDocument) {
+                    ((JsonDocument) document).addParseListener(parseListener);
+                }
                 // validate content before editor opens
                 runValidate(true);
             }
@@ -199,12 +224,51 @@ public abstract class JsonEditor extends YEdit implements IShowInSource, IShowIn
 
         annotationModel = viewer.getProjectionAnnotationModel();
         getPreferenceStore().addPropertyChangeListener(preferenceChangeListener);
+
+        viewer.addViewportListener(viewportListener);
+        updateViewport();
+    }
+
+    private void updateViewport() {
+        final ISourceViewer viewer = getSourceViewer();
+        final IDocument document = getDocumentProvider() != null
+                ? getDocumentProvider().getDocument(getEditorInput())
+                : null;
+        if (viewer == null || !(document instanceof JsonDocument)) {
+            return;
+        }
+
+        final int top = viewer.getTopIndexStartOffset();
+        final IRegion viewport = new Region(top, Math.max(0, viewer.getBottomIndexEndOffset() - top));
+        final JsonDocument jsonDocument = (JsonDocument) document;
+        if (!viewport.equals(jsonDocument.getViewport())) {
+            jsonDocument.setViewport(viewport);
+            if (jsonDocument.isLarge()) {
+                runValidate(false);
+            }
+        }
     }
 
     @Override
     public void dispose() {
+        if (validationScheduler != null) {
+            validationScheduler.cancel();
+            DependencyRevalidator.getInstance().unregister(validationScheduler);
+        }
         // preference store is removed in AbstractTextEditor.dispose()
         getPreferenceStore().removePropertyChangeListener(preferenceChangeListener);
+        if (getSourceViewer() != null) {
+            getSourceViewer().removeViewportListener(viewportListener);
+        }
+        if (getDocumentProvider() != null) {
+            IDocument document = getDocumentProvider().getDocument(getEditorInput());
+            if (document != null) {
+                document.removeDocumentListener(changeListener);
+                if (document instanceof JsonDocument) {
+                    ((JsonDocument) document).removeParseListener(parseListener);
+                }
+            }
+        }
         super.dispose();
     }
 
@@ -420,35 +484,60 @@ public abstract class JsonEditor extends YEdit implements IShowInSource, IShowIn
         return new ValidationOperation(createValidator(), this, parseFileContents);
     }
 
-    protected void runValidate(final boolean onOpen) {
-        ValidationOperation validationOperation = createValidationOperation(onOpen);
-        SafeWorkspaceJob validationJob = new SafeWorkspaceJob("Update KaiZen Editor validation markers") {
-            @Override
-            public IStatus doRunInWorkspace(IProgressMonitor monitor) throws CoreException {
-                validationOperation.run(monitor);
-                return Status.OK_STATUS;
-            }
+    /**
+     * Creates the scheduler that runs the validations of the current input, subclasses can override it to change the
+     * debounce delay.
+     * 
+     * @return validation scheduler
+     */
+    protected ValidationScheduler createValidationScheduler() {
+        IEditorInput editorInput = getEditorInput();
+        ISchedulingRule rule = editorInput instanceof FileEditorInput ? ((FileEditorInput) editorInput).getFile()
+                : null;
+        return new ValidationScheduler("Update KaiZen Editor validation markers", rule,
+                (parseFileContents, monitor) -> createValidationOperation(parseFileContents).run(monitor));
+    }
 
-            @Override
-            public boolean belongsTo(Object family) {
-                if (family instanceof ValidationOperation) {
-                    return getEditorInput().equals(((ValidationOperation) family).getEditorInput());
-                }
-                return false;
-            }
-        };
-        Job.getJobManager().cancel(validationOperation);
-        validationJob.schedule();
+    /**
+     * Returns the scheduler of the validations of the current input, or null if the editor has no input.
+     * 
+     * @return validation scheduler
+     */
+    public ValidationScheduler getValidationScheduler() {
+        return validationScheduler;
     }
 
-    protected static void clearMarkers(IFile file) {
-        int depth = IResource.DEPTH_INFINITE;
-        try {
-            file.deleteMarkers(IMarker.PROBLEM, true, depth);
-        } catch (CoreException e) {
-            YEditLog.logException(e);
-            YEditLog.logger.warning("Failed to delete markers:\n" + e.toString());
+    /*
+     * Requests a validation, requests made while a validation is pending or running are coalesced.
+     */
+    protected void runValidate(final boolean onOpen) {
+        ValidationScheduler scheduler = validationScheduler;
+        if (scheduler == null) {
+            scheduler = resetValidationScheduler();
+        }
+        scheduler.schedule(onOpen);
+    }
+
+    /*
+     * Replaces the scheduler by one for the current input. The scheduler is registered so that the input is validated
+     * again when a document it references changes.
+     */
+    private ValidationScheduler resetValidationScheduler() {
+        final ValidationScheduler previous = validationScheduler;
+        if (previous != null) {
+            previous.cancel();
+            DependencyRevalidator.getInstance().unregister(previous);
+        }
+
+        final ValidationScheduler scheduler = validationScheduler = createValidationScheduler();
+        final IEditorInput editorInput = getEditorInput();
+        if (editorInput instanceof IFileEditorInput) {
+            URI location = ((IFileEditorInput) editorInput).getFile().getLocationURI();
+            if (location != null) {
+                DependencyRevalidator.getInstance().register(location, scheduler);
+            }
         }
+        return scheduler;
     }
 
     public void redrawViewer() {
@@ -22,9 +22,10 @@ import org.eclipse.jface.text.reconciler.DirtyRegion;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
 import org.eclipse.swt.widgets.Display;
-import org.yaml.snakeyaml.nodes.MappingNode;
-import org.yaml.snakeyaml.nodes.Node;
-import org.yaml.snakeyaml.nodes.NodeTuple;
+
+import com.reprezen.swagedit.core.model.AbstractNode;
+import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.ObjectNode;
 
 public class JsonReconcilingStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension {
 
@@ -62,26 +63,28 @@ public class JsonReconcilingStrategy implements IReconcilingStrategy, IReconcili
         if (!(document instanceof JsonDocument))
             return;
 
-        final Node yaml = ((JsonDocument) document).getYaml();
-        if (!(yaml instanceof MappingNode)) {
+        // folding follows the model, so that the YAML tree of the document is not composed
+        final DocumentSnapshot snapshot = ((JsonDocument) document).getSnapshot();
+        final Model model = snapshot.getModel();
+        if (snapshot.getJson() == null || model == null || !(model.getRoot() instanceof ObjectNode)) {
             return;
         }
 
         Display.getDefault().asyncExec(new Runnable() {
             public void run() {
-                editor.updateFoldingStructure(calculatePositions((MappingNode) yaml));
+                editor.updateFoldingStructure(calculatePositions((ObjectNode) model.getRoot()));
             }
         });
     }
 
-    protected List<Position> calculatePositions(MappingNode mapping) {
+    protected List<Position> calculatePositions(ObjectNode object) {
         List<Position> positions = new ArrayList<>();
         int start;
         int end = -1;
 
-        for (NodeTuple tuple : mapping.getValue()) {
-            start = tuple.getKeyNode().getStartMark().getLine();
-            end = tuple.getValueNode().getEndMark().getLine();
+        for (AbstractNode member : object.elements()) {
+            start = member.getStart().getLine();
+            end = member.getEnd().getLine();
 
             if ((end - start) > 0) {
                 try {
@@ -93,8 +96,8 @@ public class JsonReconcilingStrategy implements IReconcilingStrategy, IReconcili
                 }
             }
 
-            if (tuple.getValueNode() instanceof MappingNode) {
-                positions.addAll(calculatePositions((MappingNode) tuple.getValueNode()));
+            if (member instanceof ObjectNode) {
+                positions.addAll(calculatePositions((ObjectNode) member));
             }
         }
 
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.editor;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import org.dadacoalition.yedit.YEditLog;
@@ -37,10 +38,8 @@ public class ValidationOperation implements IWorkspaceRunnable {
     private final IEditorInput editorInput;
     private final IDocumentProvider documentProvider;
     private final boolean parseFileContents;
-    private final JsonEditor editor;
 
     public ValidationOperation(Validator validator, JsonEditor editor, boolean parseFileContents) {
-        this.editor = editor;
         this.validator = validator;
         this.editorInput = editor.getEditorInput();
         this.documentProvider = editor.getDocumentProvider();
@@ -77,43 +76,39 @@ public class ValidationOperation implements IWorkspaceRunnable {
             }
             subMonitor.newChild(20);
 
-            JsonEditor.clearMarkers(file);
-            if (subMonitor.isCanceled()) {
-                throw new OperationCanceledException();
-            }
-            subMonitor.newChild(30);
-
-            validateYaml(file, (JsonDocument) document);
+            // errors are computed from a single version of the document
+            final DocumentSnapshot snapshot = ((JsonDocument) document).getSnapshot();
+            final Set<SwaggerError> errors = new HashSet<>(validateYaml(snapshot));
             if (subMonitor.isCanceled()) {
                 throw new OperationCanceledException();
             }
             subMonitor.newChild(20);
 
-            validateSwagger(file, (JsonDocument) document, fileEditorInput);
+            errors.addAll(validateSwagger((JsonDocument) document, snapshot, fileEditorInput, subMonitor.newChild(50)));
             if (subMonitor.isCanceled()) {
                 throw new OperationCanceledException();
             }
-            subMonitor.newChild(30);
+
+            // markers are only changed once all errors are known, markers of a canceled validation are kept
+            Markers.updateMarkers(file, (JsonDocument) document, errors);
+            subMonitor.newChild(10);
         }
     }
 
-    protected void validateYaml(IFile file, JsonDocument document) {
+    protected Set<SwaggerError> validateYaml(DocumentSnapshot document) {
+        final Set<SwaggerError> errors = new HashSet<>();
         if (document.getYamlError() instanceof YAMLException) {
-            Markers.addMarker(editor, file, //
-                    SwaggerError.newYamlError((YAMLException) document.getYamlError()));
+            errors.add(SwaggerError.newYamlError((YAMLException) document.getYamlError()));
         }
         if (document.getJsonError() instanceof JsonProcessingException) {
-            Markers.addMarker(editor, file, //
-                    SwaggerError.newJsonError((JsonProcessingException) document.getJsonError()));
+            errors.add(SwaggerError.newJsonError((JsonProcessingException) document.getJsonError()));
         }
+        return errors;
     }
 
-    protected void validateSwagger(IFile file, JsonDocument document, IFileEditorInput editorInput) {
-        final Set<SwaggerError> errors = validator.validate(document, editorInput);
-
-        for (SwaggerError error : errors) {
-            Markers.addMarker(editor, file, error);
-        }
+    protected Set<SwaggerError> validateSwagger(JsonDocument document, DocumentSnapshot snapshot,
+            IFileEditorInput editorInput, IProgressMonitor monitor) {
+        return validator.validate(document, snapshot, editorInput, monitor);
     }
 
     public IEditorInput getEditorInput() {
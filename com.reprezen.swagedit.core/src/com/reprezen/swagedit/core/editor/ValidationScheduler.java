@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.editor;
+
+import org.dadacoalition.yedit.YEditLog;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Schedules the validations of an editor.
+ *
+ * Requests made during the debounce delay are coalesced into a single validation. At most one validation runs at a
+ * time and at most one is pending, a request made while a validation is running cancels it and runs a new validation
+ * once the canceled one stops.
+ *
+ * The job of the scheduler belongs to the family of the scheduler. The validation must check its monitor for
+ * cancellation, see
+ * {@link com.reprezen.swagedit.core.validation.Validator#validate(JsonDocument, DocumentSnapshot, java.net.URI, IProgressMonitor)}.
+ */
+public class ValidationScheduler {
+
+    /**
+     * Default delay in milliseconds between a request and the start of the validation.
+     */
+    public static final long DEFAULT_DELAY = 200;
+
+    /**
+     * Validation run by the scheduler.
+     */
+    public interface Validation {
+
+        /**
+         * Validates the document of the editor.
+         *
+         * @param parseFileContents
+         *            true if the document must be parsed before being validated
+         * @param monitor
+         * @throws CoreException
+         * @throws OperationCanceledException
+         *             if the monitor is canceled
+         */
+        void run(boolean parseFileContents, IProgressMonitor monitor) throws CoreException;
+    }
+
+    private final Validation validation;
+    private final ValidationJob job;
+
+    // requests not yet taken by the job, guarded by this
+    private boolean pending = false;
+    private boolean parseFileContents = false;
+    private int coalescedCount = 0;
+    private int canceledCount = 0;
+
+    private volatile long delay = DEFAULT_DELAY;
+
+    /**
+     * Creates a scheduler whose validations run as a workspace job, so that all their marker changes are reported in a
+     * single delta.
+     *
+     * @param name
+     *            name of the job
+     * @param rule
+     *            scheduling rule of the job, usually the validated file, may be null
+     * @param validation
+     */
+    public ValidationScheduler(String name, ISchedulingRule rule, Validation validation) {
+        this.validation = validation;
+        this.job = new ValidationJob(name);
+        this.job.setRule(rule);
+    }
+
+    /**
+     * Requests a validation. The validation starts after the debounce delay, unless another request is made in the
+     * meantime.
+     *
+     * @param parseFileContents
+     *            true if the document must be parsed before being validated, this is kept when the request is
+     *            coalesced with others
+     */
+    public void schedule(boolean parseFileContents) {
+        synchronized (this) {
+            if (pending) {
+                coalescedCount++;
+            }
+            pending = true;
+            this.parseFileContents |= parseFileContents;
+        }
+        // cancels the waiting job to restart the delay, or the running job which is then scheduled again
+        job.cancel();
+        job.schedule(delay);
+    }
+
+    /**
+     * Drops the pending request and cancels the running validation.
+     */
+    public void cancel() {
+        synchronized (this) {
+            pending = false;
+            parseFileContents = false;
+        }
+        job.cancel();
+    }
+
+    /**
+     * Sets the debounce delay of the following requests.
+     *
+     * @param delay
+     *            delay in milliseconds
+     */
+    public void setDelay(long delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay: " + delay);
+        }
+        this.delay = delay;
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * Returns the number of requests that were merged into another request instead of running their own validation.
+     *
+     * @return number of coalesced requests
+     */
+    public synchronized int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Returns the number of validations that were stopped by a newer request.
+     *
+     * @return number of canceled validations
+     */
+    public synchronized int getCanceledCount() {
+        return canceledCount;
+    }
+
+    private class ValidationJob extends WorkspaceJob {
+
+        ValidationJob(String name) {
+            super(name);
+            setPriority(Job.INTERACTIVE);
+        }
+
+        @Override
+        public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+            final boolean parse;
+            synchronized (ValidationScheduler.this) {
+                if (!pending) {
+                    return Status.OK_STATUS;
+                }
+                parse = parseFileContents;
+                pending = false;
+                parseFileContents = false;
+            }
+
+            try {
+                validation.run(parse, monitor);
+                return Status.OK_STATUS;
+            } catch (CoreException e) {
+                return e.getStatus();
+            } catch (OperationCanceledException e) {
+                onCanceled(parse);
+                return Status.CANCEL_STATUS;
+            } catch (Exception e) {
+                // in case of an exception the Worker treats it with
+                // an ERROR status in org.eclipse.core.internal.jobs.Worker.handleException(InternalJob, Throwable)
+                // and shows a modal dialog by WorkbenchStatusDialogManagerImpl
+                YEditLog.logException(e);
+                return Status.CANCEL_STATUS;
+            } finally {
+                monitor.done();
+            }
+        }
+
+        /*
+         * The newer request replacing a canceled validation must still parse the document if the canceled one had to.
+         */
+        private void onCanceled(boolean parse) {
+            synchronized (ValidationScheduler.this) {
+                canceledCount++;
+                if (pending) {
+                    parseFileContents |= parse;
+                }
+            }
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == ValidationScheduler.this;
+        }
+    }
+
+}
@@ -13,8 +13,6 @@ package com.reprezen.swagedit.core.hyperlinks;
 import static com.reprezen.swagedit.core.utils.StringUtils.emptyToNull;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -27,8 +25,6 @@ import org.eclipse.jface.text.hyperlink.IHyperlink;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.reprezen.swagedit.core.editor.JsonDocument;
-import com.reprezen.swagedit.core.json.references.JsonReference;
-import com.reprezen.swagedit.core.model.AbstractNode;
 
 /**
  * Hyperlink detector that detects links from path parameters.
@@ -38,9 +34,6 @@ public class PathParamHyperlinkDetector extends AbstractJsonHyperlinkDetector {
 
     public static final Pattern PARAMETER_PATTERN = Pattern.compile("\\{(\\w+)\\}");
 
-    private final List<String> methods = Arrays.asList(//
-            "get", "post", "put", "delete", "options", "head", "patch", "trace");
-
     @Override
     protected boolean canDetect(JsonPointer pointer) {
         return pointer != null && pointer.toString().startsWith("/paths");
@@ -67,7 +60,8 @@ public class PathParamHyperlinkDetector extends AbstractJsonHyperlinkDetector {
 
         IRegion linkRegion = new Region(info.getOffset() + start, end - start);
 
-        Map<String, JsonPointer> paths = findParameterPath(doc, pointer, parameter);
+        // pointers of the parameters by method
+        Map<String, JsonPointer> paths = doc.getModel().getSymbols().getPathParameters(pointer, parameter);
         List<IHyperlink> links = new ArrayList<>();
         for (String key : paths.keySet()) {
             IRegion target = doc.getRegion(paths.get(key));
@@ -80,49 +74,4 @@ public class PathParamHyperlinkDetector extends AbstractJsonHyperlinkDetector {
         return links.isEmpty() ? null : links.toArray(new IHyperlink[links.size()]);
     }
 
-    /*
-     * Returns a Map having for keys a method name and for value the pointer to the parameter.
-     */
-    private Map<String, JsonPointer> findParameterPath(JsonDocument doc, JsonPointer basePath, String parameter) {
-        Map<String, JsonPointer> paths = new HashMap<>();
-
-        AbstractNode parent = doc.getModel().find(basePath);
-        if (parent == null || !parent.isObject()) {
-            return paths;
-        }
-
-        for (String method : methods) {
-            if (parent.get(method) == null) {
-                continue;
-            }
-
-            AbstractNode parameters = parent.get(method).get("parameters");
-
-            if (parameters != null && parameters.isArray()) {
-                for (int i = 0; i < parameters.size(); i++) {
-                    AbstractNode current = parameters.get(i);
-
-                    if (JsonReference.isReference(current)) {
-                        JsonPointer ptr = JsonReference.getPointer(current.asObject());
-                        AbstractNode resolved = doc.getModel().find(ptr);
-
-                        if (resolved != null && resolved.isObject() && resolved.get("name") != null) {
-                            if (parameter.equals(resolved.get("name").asValue().getValue())) {
-                                paths.put(method, ptr);
-                            }
-                        }
-
-                    } else if (current.isObject() && current.get("name") != null) {
-
-                        if (parameter.equals(current.get("name").asValue().getValue())) {
-                            paths.put(method, JsonPointer.compile(basePath + "/" + method + "/parameters/" + i));
-                        }
-                    }
-                }
-            }
-        }
-
-        return paths;
-    }
-
 }
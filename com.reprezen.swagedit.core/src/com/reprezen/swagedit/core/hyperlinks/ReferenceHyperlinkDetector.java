@@ -19,6 +19,7 @@ import org.eclipse.jface.text.hyperlink.IHyperlink;
 import org.eclipse.ui.part.FileEditorInput;
 
 import com.fasterxml.jackson.core.JsonPointer;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.editor.JsonDocument;
 import com.reprezen.swagedit.core.json.references.JsonReference;
 import com.reprezen.swagedit.core.json.references.JsonReferenceFactory;
@@ -39,13 +40,18 @@ public abstract class ReferenceHyperlinkDetector extends AbstractJsonHyperlinkDe
     protected IHyperlink[] doDetect(JsonDocument doc, ITextViewer viewer, HyperlinkInfo info, JsonPointer pointer) {
         URI baseURI = getBaseURI();
 
-        AbstractNode node = doc.getModel().find(pointer);
+        DocumentSnapshot snapshot = doc.getSnapshot();
+        if (snapshot.getModel() == null) {
+            return null;
+        }
+
+        AbstractNode node = snapshot.getModel().find(pointer);
         JsonReference reference = getFactory().createSimpleReference(getBaseURI(), node);
         if (reference == null) {
             reference = getFactory().create(node);
         }
 
-        if (reference.isInvalid() || reference.isMissing(doc, getBaseURI())) {
+        if (reference.isInvalid() || reference.isMissing(snapshot, getBaseURI())) {
             return null;
         }
 
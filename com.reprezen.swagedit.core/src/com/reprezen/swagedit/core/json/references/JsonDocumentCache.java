@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.json.references;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Cache of parsed documents, bounded by the number of documents and by their total weight, usually the size in bytes
+ * of their content.
+ *
+ * The cache is divided in segments, each one with its own lock and its own share of the bounds. The least recently
+ * used documents of a segment are evicted first.
+ *
+ * Each document is cached with the timestamp of its file, it is dropped by {@link #get(URI, LongSupplier)} if the file
+ * has a different timestamp. Documents cached with {@link #WATCHED} are never checked and must be invalidated by the
+ * caller when their file changes.
+ */
+public class JsonDocumentCache {
+
+    /**
+     * Timestamp of documents whose changes are tracked by the caller.
+     */
+    public static final long WATCHED = -1L;
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final Segment[] segments;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public JsonDocumentCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a cache with the given bounds.
+     *
+     * @param maximumSize
+     *            maximum number of documents
+     * @param maximumWeight
+     *            maximum total weight of the documents
+     * @param concurrencyLevel
+     *            number of segments, reduced if larger than the maximum size
+     */
+    public JsonDocumentCache(int maximumSize, long maximumWeight, int concurrencyLevel) {
+        if (maximumSize < 1 || maximumWeight < 1 || concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Cache bounds and concurrency level must be positive");
+        }
+
+        final int count = Math.min(concurrencyLevel, maximumSize);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // spreads the remainders so that the segments add up to the maximum
+            int size = maximumSize / count + (i < maximumSize % count ? 1 : 0);
+            long weight = Math.max(1L, maximumWeight / count);
+            segments[i] = new Segment(size, weight);
+        }
+    }
+
+    /**
+     * Returns the document cached for the given URI, or null if the document is not present or if its file has a
+     * different timestamp than the one it was cached with.
+     *
+     * @param uri
+     *            normalized URI of the document
+     * @param timestamp
+     *            current timestamp of the file, only computed for documents that are not {@link #WATCHED}
+     * @return document or null
+     */
+    public JsonNode get(URI uri, LongSupplier timestamp) {
+        final Segment segment = segmentFor(uri);
+        final Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(uri);
+        }
+
+        if (entry != null && (entry.timestamp == WATCHED || entry.timestamp == timestamp.getAsLong())) {
+            hitCount.incrementAndGet();
+            return entry.document;
+        }
+
+        if (entry != null) {
+            synchronized (segment) {
+                segment.remove(uri, entry);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds a document to the cache, evicting the least recently used documents of its segment if the bounds are
+     * exceeded.
+     *
+     * @param uri
+     *            normalized URI of the document
+     * @param document
+     * @param weight
+     *            weight of the document
+     * @param timestamp
+     *            timestamp of the file when it was read, or {@link #WATCHED}
+     */
+    public void put(URI uri, JsonNode document, long weight, long timestamp) {
+        final Segment segment = segmentFor(uri);
+        synchronized (segment) {
+            segment.remove(uri, segment.entries.get(uri));
+            segment.entries.put(uri, new Entry(document, weight, timestamp));
+            segment.weight += weight;
+            evictionCount.addAndGet(segment.evict());
+        }
+    }
+
+    /**
+     * Removes the document of the given URI.
+     *
+     * @param uri
+     *            normalized URI of the document
+     */
+    public void invalidate(URI uri) {
+        final Segment segment = segmentFor(uri);
+        synchronized (segment) {
+            segment.remove(uri, segment.entries.get(uri));
+        }
+    }
+
+    /**
+     * Removes all documents.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached documents.
+     *
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total weight of the cached documents.
+     *
+     * @return weight
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of documents removed to keep the cache within its bounds. Invalidated documents are not
+     * counted.
+     *
+     * @return number of evicted documents
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private Segment segmentFor(URI uri) {
+        int hash = uri.hashCode();
+        hash ^= hash >>> 16;
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static class Entry {
+        final JsonNode document;
+        final long weight;
+        final long timestamp;
+
+        Entry(JsonNode document, long weight, long timestamp) {
+            this.document = document;
+            this.weight = weight;
+            this.timestamp = timestamp;
+        }
+    }
+
+    // fields are guarded by the segment
+    private static class Segment {
+        final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final int maximumSize;
+        final long maximumWeight;
+        long weight = 0;
+
+        Segment(int maximumSize, long maximumWeight) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+        }
+
+        void remove(URI uri, Entry entry) {
+            if (entry != null && entries.remove(uri, entry)) {
+                weight -= entry.weight;
+            }
+        }
+
+        int evict() {
+            int evicted = 0;
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext() && (entries.size() > maximumSize || weight > maximumWeight)) {
+                weight -= it.next().weight;
+                it.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+    }
+
+}
@@ -10,19 +10,40 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.json.references;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.reprezen.swagedit.core.utils.DocumentUtils;
 
@@ -37,6 +58,11 @@ public class JsonDocumentManager {
         return INSTANCE;
     }
 
+    /**
+     * Default size in bytes from which a document is no longer parsed as a whole to read the nodes referenced in it.
+     */
+    public static final long DEFAULT_LARGE_DOCUMENT_SIZE = 1024 * 1024;
+
     // for tests
     public JsonDocumentManager() {
     }
@@ -44,8 +70,19 @@ public class JsonDocumentManager {
     private final ObjectMapper mapper = new ObjectMapper();
     private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
 
-    private final Map<URL, JsonNode> documents = Collections.synchronizedMap(new WeakHashMap<URL, JsonNode>());
-    private final Map<URL, Long> documentVersions = Collections.synchronizedMap(new WeakHashMap<URL, Long>());
+    private final JsonDocumentCache cache = new JsonDocumentCache();
+    private final IResourceChangeListener listener = this::resourceChanged;
+
+    // nodes read from large documents, the weight of a node is the number of nodes in its tree
+    private final JsonDocumentCache nodes = new JsonDocumentCache(1024, 1024 * 1024,
+            JsonDocumentCache.DEFAULT_CONCURRENCY_LEVEL);
+    private final JsonPointerReader pointerReader = new JsonPointerReader();
+    private volatile long largeDocumentSize = DEFAULT_LARGE_DOCUMENT_SIZE;
+
+    // set while workspace files are invalidated by resource changes
+    private volatile IWorkspace workspace;
+    // set to keep copies of remote documents, otherwise they are downloaded each time
+    private volatile RemoteDocumentLoader remoteLoader;
 
     /**
      * Returns the JSON representation of the document located at the given URL. If the document is not found or the
@@ -56,35 +93,228 @@ public class JsonDocumentManager {
      * @return JSON tree
      */
     public JsonNode getDocument(URL url) {
-        URL normalized = normalize(url);
-        Long currentTime = getTimestamp(normalized);
-
-        Long previousTime = -1L;
-        if (documentVersions.containsKey(normalized)) {
-             previousTime = documentVersions.get(normalized);
+        try {
+            return getDocument(url.toURI());
+        } catch (URISyntaxException e) {
+            // not a valid URI, the document is read without being cached
+            byte[] content = read(url);
+            return content != null ? parse(url.getPath(), content) : null;
         }
+    }
 
-        if (documents.containsKey(normalized) && previousTime >= currentTime) {
-            return documents.get(normalized);
+    /**
+     * Returns the JSON representation of the document located at the given URI. If the document is not found or the
+     * document is not a valid JSON nor a valid YAML document, this method returns null.
+     * 
+     * Documents of local files are cached. Files of the workspace are parsed again after a change of their resource,
+     * other files after a change of their timestamp. Documents of http(s) URIs are loaded by the remote loader if one is
+     * set, and are parsed again after their copy changed.
+     * 
+     * @param uri
+     *            of the document
+     * @return JSON tree
+     */
+    public JsonNode getDocument(URI uri) {
+        final URI normalized = normalize(uri);
+        if (normalized == null) {
+            return null;
         }
 
-        JsonNode document = parse(normalized);
+        JsonNode document = cache.get(normalized, () -> getTimestamp(normalized));
         if (document != null) {
-            documents.put(normalized, document);
-            if (currentTime > 0) {
-                documentVersions.put(normalized, currentTime);
+            return document;
+        }
+
+        final RemoteDocumentLoader loader = isRemote(normalized) ? remoteLoader : null;
+        final long timestamp;
+        final byte[] content;
+        try {
+            if (loader != null) {
+                // the copy may be created by the load, so its timestamp is taken after
+                content = load(loader, normalized.toURL());
+                timestamp = loader.getTimestamp(normalized.toURL());
+            } else {
+                // the timestamp is taken before reading the file, a change made while reading is seen by the next call
+                timestamp = isWatched(normalized) ? JsonDocumentCache.WATCHED : getTimestamp(normalized);
+                content = read(normalized.toURL());
             }
+        } catch (IllegalArgumentException | MalformedURLException e) {
+            return null;
+        }
+
+        document = content != null ? parse(normalized.getPath(), content) : null;
+        if (document != null && timestamp != 0) {
+            cache.put(normalized, document, content.length, timestamp);
         }
 
         return document;
     }
 
-    public JsonNode getDocument(URI uri) {
+    /**
+     * Returns the node located at the given pointer in a large local document, see
+     * {@link #getNodes(URI, Collection)}.
+     * 
+     * Returns null for other documents, their nodes must be taken from {@link #getDocument(URI)}.
+     * 
+     * @param uri
+     *            of the document
+     * @param pointer
+     *            pointer of the node in the document
+     * @return node, missing node if the document has no such node, or null
+     */
+    public JsonNode getNode(URI uri, JsonPointer pointer) {
+        if (pointer == null) {
+            return null;
+        }
+
+        final Map<JsonPointer, JsonNode> result = getNodes(uri, Collections.singleton(pointer));
+        return result != null ? result.get(pointer) : null;
+    }
+
+    /**
+     * Returns the nodes located at the given pointers in a large local document. The nodes that are not cached are all
+     * read in a single pass over the file, without parsing the rest of the document. Nodes are cached until the
+     * timestamp of their file changes. If the whole document is already cached, the nodes are taken from it.
+     * 
+     * Files of the workspace are read as streams. Other files are read from a memory mapped view, which is only released
+     * once garbage collected. On Windows, such a file cannot be replaced or deleted until then.
+     * 
+     * Returns null for other documents, their nodes must be taken from {@link #getDocument(URI)}.
+     * 
+     * @param uri
+     *            of the document
+     * @param pointers
+     *            pointers of the nodes in the document
+     * @return map of each pointer to its node or to a missing node if the document has no such node, or null
+     */
+    public Map<JsonPointer, JsonNode> getNodes(URI uri, Collection<JsonPointer> pointers) {
+        final URI normalized = normalize(uri);
+        if (normalized == null || !"file".equals(normalized.getScheme())) {
+            return null;
+        }
+
+        final Path path;
         try {
-            return getDocument(uri.toURL());
-        } catch (IllegalArgumentException | MalformedURLException e) {
+            path = Paths.get(normalized);
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+
+        if (path.toFile().length() < largeDocumentSize) {
+            return null;
+        }
+
+        final Map<JsonPointer, JsonNode> result = new HashMap<>();
+        final JsonNode document = cache.get(normalized, () -> getTimestamp(normalized));
+        if (document != null) {
+            for (JsonPointer pointer : pointers) {
+                result.put(pointer, document.at(pointer));
+            }
+            return result;
+        }
+
+        final Map<JsonPointer, URI> keys = new HashMap<>();
+        for (JsonPointer pointer : pointers) {
+            final URI key;
+            try {
+                key = new URI(normalized.getScheme(), normalized.getAuthority(), normalized.getPath(), null,
+                        pointer.toString());
+            } catch (URISyntaxException e) {
+                return null;
+            }
+
+            JsonNode node = nodes.get(key, () -> getTimestamp(normalized));
+            if (node != null) {
+                result.put(pointer, node);
+            } else {
+                keys.put(pointer, key);
+            }
+        }
+
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        final long timestamp = getTimestamp(normalized);
+        final Map<JsonPointer, JsonNode> read;
+        if (isWatched(normalized)) {
+            read = read(normalized.getPath(), () -> Files.newInputStream(path), keys.keySet());
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final ByteBuffer content = channel.map(MapMode.READ_ONLY, 0, channel.size());
+                read = read(normalized.getPath(), () -> new ByteBufferBackedInputStream(content.duplicate()),
+                        keys.keySet());
+            } catch (IOException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        if (read == null) {
             return null;
         }
+
+        read.forEach((pointer, node) -> {
+            result.put(pointer, node);
+            if (timestamp != 0) {
+                nodes.put(keys.get(pointer), node, size(node), timestamp);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sets the loader of the documents of http(s) URIs, or null to download them each time they are not in the cache.
+     * 
+     * @param loader
+     */
+    public void setRemoteLoader(RemoteDocumentLoader loader) {
+        this.remoteLoader = loader;
+    }
+
+    public RemoteDocumentLoader getRemoteLoader() {
+        return remoteLoader;
+    }
+
+    /**
+     * Sets the size in bytes from which documents are considered as large by {@link #getNode(URI, JsonPointer)}.
+     * 
+     * @param size
+     */
+    public void setLargeDocumentSize(long size) {
+        this.largeDocumentSize = size;
+    }
+
+    /**
+     * Returns the cache of parsed documents.
+     * 
+     * @return cache
+     */
+    public JsonDocumentCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Starts invalidating the documents of workspace files when their resources change. The timestamps of these files
+     * are not checked anymore.
+     * 
+     * @param workspace
+     */
+    public synchronized void startListening(IWorkspace workspace) {
+        stopListening();
+        workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+        this.workspace = workspace;
+        cache.invalidateAll();
+    }
+
+    /**
+     * Stops invalidating documents on resource changes.
+     */
+    public synchronized void stopListening() {
+        if (workspace != null) {
+            workspace.removeResourceChangeListener(listener);
+            workspace = null;
+            cache.invalidateAll();
+        }
     }
 
     /**
@@ -98,9 +328,72 @@ public class JsonDocumentManager {
         return uri != null ? DocumentUtils.getWorkspaceFile(uri) : null;
     }
 
-    private Long getTimestamp(URL url) {
+    private void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+
         try {
-            File file = Paths.get(url.toURI()).toFile();
+            delta.accept(current -> {
+                IResource resource = current.getResource();
+                switch (resource.getType()) {
+                case IResource.FILE:
+                    // changes of markers are ignored
+                    if (current.getKind() != IResourceDelta.CHANGED || (current.getFlags()
+                            & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+                        URI location = normalize(resource.getLocationURI());
+                        if (location != null) {
+                            cache.invalidate(location);
+                        }
+                    }
+                    return false;
+                case IResource.PROJECT:
+                    // files of closed or removed projects are no longer watched
+                    if (current.getKind() != IResourceDelta.CHANGED
+                            || (current.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+                        cache.invalidateAll();
+                        return false;
+                    }
+                    return true;
+                default:
+                    return true;
+                }
+            });
+        } catch (CoreException e) {
+            cache.invalidateAll();
+        }
+    }
+
+    private boolean isWatched(URI uri) {
+        IWorkspace current = workspace;
+        if (current == null || !"file".equals(uri.getScheme())) {
+            return false;
+        }
+
+        try {
+            return current.getRoot().findFilesForLocationURI(uri).length > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean isRemote(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    private long getTimestamp(URI uri) {
+        final RemoteDocumentLoader loader = remoteLoader;
+        if (loader != null && isRemote(uri)) {
+            try {
+                return loader.getTimestamp(uri.toURL());
+            } catch (IllegalArgumentException | MalformedURLException e) {
+                return 0L;
+            }
+        }
+
+        try {
+            File file = Paths.get(uri).toFile();
 
             return file != null ? file.lastModified() : 0L;
         } catch (Exception e) {
@@ -108,26 +401,52 @@ public class JsonDocumentManager {
         }
     }
 
-    private JsonNode parse(URL url) {
-        if (url.getFile().endsWith("json")) {
+    private byte[] load(RemoteDocumentLoader loader, URL url) {
+        try {
+            return loader.load(url);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] read(URL url) {
+        try (InputStream input = url.openStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonNode parse(String path, byte[] content) {
+        if (path == null) {
+            path = "";
+        }
+
+        if (path.endsWith("json")) {
             try {
-                return mapper.readTree(url);
+                return mapper.readTree(content);
             } catch (Exception e) {
                 return null;
             }
-        } else if (url.getFile().endsWith("yaml") || url.getFile().endsWith("yml")) {
+        } else if (path.endsWith("yaml") || path.endsWith("yml")) {
             try {
-                return yamlMapper.readTree(url);
+                return yamlMapper.readTree(content);
             } catch (Exception e) {
                 return null;
             }
         } else {
             // cannot decide which format, so we try both parsers
             try {
-                return mapper.readTree(url);
+                return mapper.readTree(content);
             } catch (Exception e) {
                 try {
-                    return yamlMapper.readTree(url);
+                    return yamlMapper.readTree(content);
                 } catch (Exception ee) {
                     return null;
                 }
@@ -135,14 +454,58 @@ public class JsonDocumentManager {
         }
     }
 
+    private Map<JsonPointer, JsonNode> read(String path, Content content, Collection<JsonPointer> pointers) {
+        if (path == null) {
+            path = "";
+        }
+
+        if (path.endsWith("json")) {
+            return read(mapper, content, pointers);
+        } else if (path.endsWith("yaml") || path.endsWith("yml")) {
+            return read(yamlMapper, content, pointers);
+        } else {
+            // cannot decide which format, so we try both parsers
+            Map<JsonPointer, JsonNode> result = read(mapper, content, pointers);
+            return result != null ? result : read(yamlMapper, content, pointers);
+        }
+    }
+
+    private Map<JsonPointer, JsonNode> read(ObjectMapper mapper, Content content, Collection<JsonPointer> pointers) {
+        try (JsonParser parser = mapper.getFactory().createParser(content.open())) {
+            return pointerReader.read(parser, pointers);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long size(JsonNode node) {
+        long size = 1;
+        for (JsonNode child : node) {
+            size += size(child);
+        }
+        return size;
+    }
+
     /*
-     * Returns a copy of the URL parameter without the fragment or query.
+     * Content of a file, opened once for each parser that reads it.
      */
-    private URL normalize(URL url) {
+    private interface Content {
+
+        InputStream open() throws IOException;
+    }
+
+    /*
+     * Returns a copy of the URI parameter without the fragment or query.
+     */
+    private URI normalize(URI uri) {
+        if (uri == null || uri.isOpaque()) {
+            return uri;
+        }
+
         try {
-            return new URL(url.getProtocol(), url.getHost(), url.getPort(), url.getFile());
-        } catch (MalformedURLException e) {
-            return url;
+            return new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null).normalize();
+        } catch (URISyntaxException e) {
+            return uri;
         }
     }
 
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.json.references;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/**
+ * Reads the nodes located at JSON pointers from a stream of tokens, without building the nodes that are not on the
+ * paths of the pointers. All pointers are read in a single pass over the tokens.
+ *
+ * Members and items that are not on a path are skipped. If an object has the same member more than once, the last
+ * one is read, as when the whole document is read into a tree, so the members following the paths are scanned until
+ * the end of the root.
+ */
+public class JsonPointerReader {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Returns the node located at the given pointer, or a missing node if there is no such node.
+     *
+     * @param parser
+     *            parser positioned before the root of the document
+     * @param pointer
+     * @return node or missing node
+     * @throws IOException
+     *             if the document cannot be read or parsed
+     */
+    public JsonNode read(JsonParser parser, JsonPointer pointer) throws IOException {
+        return read(parser, Collections.singleton(pointer)).get(pointer);
+    }
+
+    /**
+     * Returns the nodes located at the given pointers, with a missing node for the pointers that have no such node.
+     *
+     * @param parser
+     *            parser positioned before the root of the document
+     * @param pointers
+     * @return map of each pointer to its node or missing node
+     * @throws IOException
+     *             if the document cannot be read or parsed
+     */
+    public Map<JsonPointer, JsonNode> read(JsonParser parser, Collection<JsonPointer> pointers) throws IOException {
+        final Map<JsonPointer, JsonNode> nodes = new HashMap<>();
+        final Map<JsonPointer, JsonPointer> paths = new HashMap<>();
+        for (JsonPointer pointer : pointers) {
+            nodes.put(pointer, MissingNode.getInstance());
+            paths.put(pointer, pointer);
+        }
+
+        if (parser.nextToken() != null) {
+            readValue(parser, paths, nodes);
+        }
+        return nodes;
+    }
+
+    /*
+     * Reads the nodes inside the current value, the parser is positioned on the first token of the value and is left
+     * after its last token. The paths map each pointer to the part of it that remains to be read in the value, the nodes
+     * of all these pointers are replaced.
+     */
+    private void readValue(JsonParser parser, Map<JsonPointer, JsonPointer> paths, Map<JsonPointer, JsonNode> nodes)
+            throws IOException {
+        for (JsonPointer pointer : paths.keySet()) {
+            nodes.put(pointer, MissingNode.getInstance());
+        }
+
+        if (paths.values().stream().anyMatch(JsonPointer::matches)) {
+            // the value is read anyway, the nodes of longer paths are taken from it
+            final JsonNode value = mapper.readTree(parser);
+            paths.forEach((pointer, path) -> nodes.put(pointer, value.at(path)));
+            return;
+        }
+
+        final JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            readMembers(parser, paths, nodes);
+        } else if (token == JsonToken.START_ARRAY) {
+            readItems(parser, paths, nodes);
+        }
+    }
+
+    /*
+     * Reads the nodes inside the members of the object, the parser is positioned on the start of the object. The last
+     * member having a name replaces the previous ones.
+     */
+    private void readMembers(JsonParser parser, Map<JsonPointer, JsonPointer> paths, Map<JsonPointer, JsonNode> nodes)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+
+            final Map<JsonPointer, JsonPointer> matching = new HashMap<>();
+            for (Map.Entry<JsonPointer, JsonPointer> entry : paths.entrySet()) {
+                if (name.equals(entry.getValue().getMatchingProperty())) {
+                    matching.put(entry.getKey(), entry.getValue().tail());
+                }
+            }
+
+            if (matching.isEmpty()) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, matching, nodes);
+            }
+        }
+    }
+
+    /*
+     * Reads the nodes inside the items of the array, the parser is positioned on the start of the array.
+     */
+    private void readItems(JsonParser parser, Map<JsonPointer, JsonPointer> paths, Map<JsonPointer, JsonNode> nodes)
+            throws IOException {
+        JsonToken token;
+        for (int i = 0; (token = parser.nextToken()) != JsonToken.END_ARRAY; i++) {
+            if (token == null) {
+                throw new IOException("Unexpected end of content in array");
+            }
+
+            final Map<JsonPointer, JsonPointer> matching = new HashMap<>();
+            for (Map.Entry<JsonPointer, JsonPointer> entry : paths.entrySet()) {
+                if (entry.getValue().getMatchingIndex() == i) {
+                    matching.put(entry.getKey(), entry.getValue().tail());
+                }
+            }
+
+            if (matching.isEmpty()) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, matching, nodes);
+            }
+        }
+    }
+
+}
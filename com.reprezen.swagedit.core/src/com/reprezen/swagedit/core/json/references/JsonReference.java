@@ -11,6 +11,11 @@
 package com.reprezen.swagedit.core.json.references;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.yaml.snakeyaml.nodes.NodeId;
 import org.yaml.snakeyaml.nodes.NodeTuple;
@@ -19,7 +24,7 @@ import org.yaml.snakeyaml.nodes.ScalarNode;
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.reprezen.swagedit.core.utils.StringUtils;
-import com.reprezen.swagedit.core.editor.JsonDocument;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.ObjectNode;
 import com.reprezen.swagedit.core.model.ValueNode;
@@ -82,10 +87,11 @@ public class JsonReference {
      * Returns true if the reference cannot be resolved and the pointer points to an inexistent element.
      * 
      * @param document
+     *            snapshot of the document containing the reference
      * @param baseURI
      * @return true if the reference can be resolved.
      */
-    public boolean isMissing(JsonDocument document, URI baseURI) {
+    public boolean isMissing(DocumentSnapshot document, URI baseURI) {
         if (isInvalid()) {
             return false;
         }
@@ -101,10 +107,15 @@ public class JsonReference {
      * existing node, this method will return a missing node (see JsonNode.isMissingNode()).
      * 
      * @param document
+     *            snapshot of the document containing the reference
      * @param baseURI
      * @return referenced node
      */
-    public JsonNode resolve(JsonDocument document, URI baseURI) {
+    public JsonNode resolve(DocumentSnapshot document, URI baseURI) {
+        if (resolved == null && !isLocal()) {
+            // nodes of large documents are read without parsing the whole document
+            resolved = manager.getNode(resolveURI(baseURI), pointer);
+        }
         if (resolved == null) {
             JsonNode doc = getDocument(document, baseURI);
             if (doc != null) {
@@ -119,6 +130,40 @@ public class JsonReference {
         return resolved;
     }
 
+    /**
+     * Resolves references to the same external document. The nodes of a large document are read in a single pass over
+     * it, see {@link JsonDocumentManager#getNodes(URI, Collection)}, other references are resolved one after the other.
+     * 
+     * @param document
+     *            snapshot of the document containing the references
+     * @param baseURI
+     * @param references
+     *            references to the same external document
+     */
+    public static void resolveAll(DocumentSnapshot document, URI baseURI, List<JsonReference> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+
+        final Set<JsonPointer> pointers = new HashSet<>();
+        for (JsonReference reference : references) {
+            if (reference.resolved == null && reference.pointer != null) {
+                pointers.add(reference.pointer);
+            }
+        }
+
+        final JsonReference first = references.get(0);
+        final Map<JsonPointer, JsonNode> nodes = pointers.size() > 1
+                ? first.manager.getNodes(first.resolveURI(baseURI), pointers)
+                : null;
+        for (JsonReference reference : references) {
+            if (reference.resolved == null && nodes != null) {
+                reference.resolved = nodes.get(reference.pointer);
+            }
+            reference.resolve(document, baseURI);
+        }
+    }
+
     protected URI resolveURI(URI baseURI) {
         if (baseURI == null || absolute) {
             return getUri();
@@ -221,12 +266,13 @@ public class JsonReference {
      * Returns the JSON document that contains the node referenced by this reference.
      * 
      * @param document
+     *            snapshot of the document containing the reference
      * @param baseURI
      * @return referenced node
      */
-    public JsonNode getDocument(JsonDocument document, URI baseURI) {
+    public JsonNode getDocument(DocumentSnapshot document, URI baseURI) {
         if (isLocal()) {
-            return document.asJson();
+            return document.getJson();
         } else {
             return manager.getDocument(resolveURI(baseURI));
         }
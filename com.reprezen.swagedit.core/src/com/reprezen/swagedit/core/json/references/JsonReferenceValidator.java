@@ -18,15 +18,28 @@ import static org.eclipse.core.resources.IMarker.SEVERITY_ERROR;
 import static org.eclipse.core.resources.IMarker.SEVERITY_WARNING;
 
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.editor.JsonDocument;
 import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.Location;
@@ -39,9 +52,24 @@ import com.reprezen.swagedit.core.validation.SwaggerError;
  */
 public class JsonReferenceValidator {
 
+    /**
+     * Pool shared by all validators to load external documents, loads wait for reads so that at least two of them run
+     * at the same time.
+     */
+    private static final ForkJoinPool PREFETCH = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    // delay in milliseconds between two checks of the monitor while waiting for a document
+    private static final long CANCELLATION_CHECK_DELAY = 50;
+
     private final JsonReferenceCollector collector;
     private final JsonReferenceFactory referenceFactory;
     private final JsonSchemaValidator schemaValidator;
+    private ReferenceGraph referenceGraph = ReferenceGraph.getInstance();
+
+    // results of the type validations of the current and of the previous validation of references
+    private volatile Map<TypeValidation, Boolean> typeValidations = new ConcurrentHashMap<>();
+    private volatile Map<TypeValidation, Boolean> previousTypeValidations = new ConcurrentHashMap<>();
 
     public JsonReferenceValidator(JsonSchemaValidator validator, JsonReferenceFactory factory) {
         this.referenceFactory = factory;
@@ -53,15 +81,148 @@ public class JsonReferenceValidator {
         return schemaValidator;
     }
 
+    // for tests
+    public void setReferenceGraph(ReferenceGraph referenceGraph) {
+        this.referenceGraph = referenceGraph;
+    }
+
     /**
      * Returns a collection containing all errors being invalid JSON references present in the Swagger document.
      * 
      * @param baseURI
-     * @param document
+     * @param doc
+     * @param model
+     *            model of the document, references are collected from it
      * @return collection of errors
+     * @deprecated use {@link #validate(URI, DocumentSnapshot)}, which reads the model and the JSON tree from the same
+     *             version of the document
      */
+    @Deprecated
     public Collection<? extends SwaggerError> validate(URI baseURI, JsonDocument doc, Model model) {
-        return doValidate(baseURI, doc, collector.collect(baseURI, model));
+        return doValidate(baseURI, doc.getSnapshot(), collector.collect(baseURI, model), new NullProgressMonitor());
+    }
+
+    /**
+     * Returns a collection containing all errors being invalid JSON references present in the Swagger document.
+     * 
+     * @param baseURI
+     * @param doc
+     *            snapshot of the document, references are collected from its model
+     * @return collection of errors
+     */
+    public Collection<? extends SwaggerError> validate(URI baseURI, DocumentSnapshot doc) {
+        return validate(baseURI, doc, new NullProgressMonitor());
+    }
+
+    /**
+     * Returns a collection containing all errors being invalid JSON references present in the Swagger document.
+     * 
+     * The documents referenced by the document are recorded in the {@link ReferenceGraph}.
+     * 
+     * @param baseURI
+     * @param doc
+     *            snapshot of the document, references are collected from its model
+     * @param monitor
+     *            checked for cancellation before each reference
+     * @return collection of errors
+     * @throws OperationCanceledException
+     *             if the monitor is canceled
+     */
+    public Collection<? extends SwaggerError> validate(URI baseURI, DocumentSnapshot doc, IProgressMonitor monitor) {
+        final Map<JsonReference, List<AbstractNode>> references = collector.collect(baseURI, doc.getModel());
+        final Map<URI, List<JsonReference>> documents = getExternalDocuments(baseURI, references.keySet());
+
+        prefetch(baseURI, doc, documents.values(), monitor);
+        final Collection<? extends SwaggerError> errors = doValidate(baseURI, doc, references, monitor);
+
+        if (baseURI != null && referenceGraph != null) {
+            referenceGraph.setReferences(baseURI, documents.keySet());
+        }
+        return errors;
+    }
+
+    /*
+     * Returns the URIs of the external documents referenced by the document, without fragments, each one with the
+     * references to it.
+     */
+    protected Map<URI, List<JsonReference>> getExternalDocuments(URI baseURI, Collection<JsonReference> references) {
+        final Map<URI, List<JsonReference>> documents = new HashMap<>();
+        for (JsonReference reference : references) {
+            if (reference.isLocal() || reference.isInvalid()) {
+                continue;
+            }
+
+            URI uri = reference.resolveURI(baseURI);
+            if (uri != null && !uri.isOpaque()) {
+                try {
+                    documents.computeIfAbsent(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null),
+                            key -> new ArrayList<>()).add(reference);
+                } catch (URISyntaxException e) {
+                    // not recorded
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Loads the external documents in parallel, so that the validation of the references finds them in the cache of
+     * the document manager instead of reading them one after the other. The references to a large document are
+     * resolved together, see {@link JsonReference#resolveAll(DocumentSnapshot, URI, List)}.
+     * 
+     * Failures are ignored, they are reported by the validation of the references.
+     * 
+     * @param baseURI
+     * @param doc
+     *            snapshot of the document
+     * @param references
+     *            references to each external document
+     * @param monitor
+     *            checked for cancellation while waiting for the documents
+     * @throws OperationCanceledException
+     *             if the monitor is canceled
+     */
+    protected void prefetch(URI baseURI, DocumentSnapshot doc, Collection<List<JsonReference>> references,
+            IProgressMonitor monitor) {
+        // a single document is not worth loading on the pool
+        if (references.size() < 2) {
+            for (List<JsonReference> document : references) {
+                JsonReference.resolveAll(doc, baseURI, document);
+            }
+            return;
+        }
+
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (List<JsonReference> document : references) {
+            tasks.add(PREFETCH.submit(() -> JsonReference.resolveAll(doc, baseURI, document)));
+        }
+
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                boolean done = false;
+                while (!done) {
+                    if (monitor.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    try {
+                        task.get(CANCELLATION_CHECK_DELAY, TimeUnit.MILLISECONDS);
+                        done = true;
+                    } catch (TimeoutException e) {
+                        // checks the monitor again
+                    } catch (ExecutionException e) {
+                        done = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new OperationCanceledException();
+                    }
+                }
+            }
+        } catch (OperationCanceledException e) {
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
+            }
+            throw e;
+        }
     }
 
     /*
@@ -72,12 +233,17 @@ public class JsonReferenceValidator {
      * Having a set of reference that does not contain duplicates allow us to reduce the time validation takes. If a
      * validation fails, then an error is added to each of the reference sources.
      */
-    protected Collection<? extends SwaggerError> doValidate(URI baseURI, JsonDocument doc,
-            Map<JsonReference, List<AbstractNode>> references) {
+    protected Collection<? extends SwaggerError> doValidate(URI baseURI, DocumentSnapshot doc,
+            Map<JsonReference, List<AbstractNode>> references, IProgressMonitor monitor) {
 
         Set<SwaggerError> errors = new HashSet<>();
+        previousTypeValidations = typeValidations;
+        typeValidations = new ConcurrentHashMap<>();
 
         for (JsonReference reference : references.keySet()) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
             if (reference instanceof JsonReference.SimpleReference) {
                 errors.addAll(
                         createReferenceError(SEVERITY_WARNING, warning_simple_reference, references.get(reference)));
@@ -101,7 +267,7 @@ public class JsonReferenceValidator {
      * This method checks that referenced objects are of expected type as defined in the schema.
      * 
      * @param doc
-     *            current document
+     *            snapshot of the current document
      * @param baseURI
      *            document base URI
      * @param reference
@@ -113,7 +279,7 @@ public class JsonReferenceValidator {
      * @param errors
      *            current set of errors
      */
-    protected Set<SwaggerError> validateType(JsonDocument doc, URI baseURI, JsonReference reference,
+    protected Set<SwaggerError> validateType(DocumentSnapshot doc, URI baseURI, JsonReference reference,
             Collection<AbstractNode> sources) {
 
         Set<SwaggerError> errors = new HashSet<>();
@@ -125,8 +291,7 @@ public class JsonReferenceValidator {
         Map<String, List<AbstractNode>> sourceTypes = groupSourcesByType(sources);
 
         for (String type : sourceTypes.keySet()) {
-            Set<JsonNode> report = schemaValidator.validate(target, type);
-            if (!report.isEmpty()) {
+            if (!isValidType(target, type)) {
                 errors.addAll(createReferenceError(SEVERITY_WARNING, error_invalid_reference_type, sources));
             }
         }
@@ -134,6 +299,34 @@ public class JsonReferenceValidator {
         return errors;
     }
 
+    /**
+     * Returns true if the target of a reference is valid against the schema found at the given pointer.
+     * 
+     * Results are reused by the next validation of references for targets whose content does not change.
+     * 
+     * @param target
+     *            referenced node
+     * @param type
+     *            pointer of the schema
+     * @return true if valid
+     */
+    protected boolean isValidType(JsonNode target, String type) {
+        if (target == null) {
+            return schemaValidator.validate(target, type).isEmpty();
+        }
+
+        final TypeValidation key = new TypeValidation(schemaValidator.getSchemaVersion(), type, target);
+        Boolean valid = typeValidations.get(key);
+        if (valid == null) {
+            valid = previousTypeValidations.get(key);
+            if (valid == null) {
+                valid = schemaValidator.validate(target, type).isEmpty();
+            }
+            typeValidations.put(key, valid);
+        }
+        return valid;
+    }
+
     /*
      * Groups all source nodes by their JSON type.
      */
@@ -157,22 +350,14 @@ public class JsonReferenceValidator {
         return result;
     }
 
-    protected JsonNode findTarget(JsonDocument doc, URI baseURI, JsonReference reference) {
+    protected JsonNode findTarget(DocumentSnapshot doc, URI baseURI, JsonReference reference) {
         JsonNode valueNode = null;
 
         if (!reference.getUri().equals(baseURI)) {
             // Try to load the referenced node from an external document
-            JsonNode externalDoc = reference.getDocument(doc, baseURI);
-
-            if (externalDoc != null) {
-                try {
-                    valueNode = externalDoc.at(reference.getPointer());
-                } catch (Exception e) {
-                    // fail to parse the model or the pointer
-                }
-            }
+            valueNode = reference.resolve(doc, baseURI);
         } else {
-            valueNode = doc.asJson().at(reference.getPointer());
+            valueNode = doc.getJson().at(reference.getPointer());
         }
 
         return valueNode;
@@ -199,4 +384,37 @@ public class JsonReferenceValidator {
         return new SwaggerError(line, severity, message);
     }
 
+    /*
+     * Validation of the content of a node against a schema, for a version of the schema.
+     */
+    private static class TypeValidation {
+        final int version;
+        final String type;
+        final JsonNode target;
+
+        TypeValidation(int version, String type, JsonNode target) {
+            this.version = version;
+            this.type = type;
+            this.target = target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(version, type, target);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TypeValidation)) {
+                return false;
+            }
+            TypeValidation other = (TypeValidation) obj;
+            return version == other.version && Objects.equals(type, other.type)
+                    && Objects.equals(target, other.target);
+        }
+    }
+
 }
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.json.references;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Graph of the external references between documents.
+ *
+ * Each document is identified by its URI, without fragment. The references of a document are replaced each time the
+ * document is validated, see {@link JsonReferenceValidator}, so that the graph tells which documents must be validated
+ * again after another document changes.
+ */
+public class ReferenceGraph {
+
+    private static final ReferenceGraph INSTANCE = new ReferenceGraph();
+
+    public static ReferenceGraph getInstance() {
+        return INSTANCE;
+    }
+
+    // for tests
+    public ReferenceGraph() {
+    }
+
+    // edges in both directions, guarded by this
+    private final Map<URI, Set<URI>> references = new HashMap<>();
+    private final Map<URI, Set<URI>> dependents = new HashMap<>();
+    private boolean changed = false;
+
+    /**
+     * Replaces the documents referenced by a document.
+     *
+     * @param source
+     *            URI of the document
+     * @param targets
+     *            URIs of the documents it references, references to itself are ignored
+     */
+    public synchronized void setReferences(URI source, Collection<URI> targets) {
+        final Set<URI> values = new LinkedHashSet<>(targets);
+        values.remove(source);
+        values.remove(null);
+
+        final Set<URI> previous = references.getOrDefault(source, Collections.emptySet());
+        if (previous.equals(values)) {
+            return;
+        }
+
+        for (URI target : previous) {
+            if (!values.contains(target)) {
+                removeEdge(dependents, target, source);
+            }
+        }
+        for (URI target : values) {
+            dependents.computeIfAbsent(target, key -> new LinkedHashSet<>()).add(source);
+        }
+
+        if (values.isEmpty()) {
+            references.remove(source);
+        } else {
+            references.put(source, values);
+        }
+        changed = true;
+    }
+
+    /**
+     * Removes the references of a document, for example after it is deleted. References to the document are kept.
+     *
+     * @param source
+     *            URI of the document
+     */
+    public void remove(URI source) {
+        setReferences(source, Collections.emptySet());
+    }
+
+    /**
+     * Returns the documents referenced by a document.
+     *
+     * @param source
+     * @return unmodifiable set of URIs
+     */
+    public synchronized Set<URI> getReferences(URI source) {
+        Set<URI> values = references.get(source);
+        return values != null ? Collections.unmodifiableSet(new LinkedHashSet<>(values)) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the documents that reference, directly or not, one of the changed documents.
+     *
+     * The documents are sorted so that each one comes after the documents it references, except in case of cycles.
+     * A changed document is only returned if it references, directly or not, a changed document.
+     *
+     * @param changedDocuments
+     *            URIs of the documents that changed
+     * @return list of dependent documents
+     */
+    public synchronized List<URI> getDependents(Collection<URI> changedDocuments) {
+        // documents reached from the changed ones, closest first
+        final Set<URI> affected = new LinkedHashSet<>();
+        final Queue<URI> queue = new ArrayDeque<>(changedDocuments);
+        while (!queue.isEmpty()) {
+            for (URI dependent : dependents.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (affected.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        // a document is ready once the affected documents it references are sorted
+        final List<URI> sorted = new ArrayList<>();
+        final Set<URI> remaining = new LinkedHashSet<>(affected);
+        while (!remaining.isEmpty()) {
+            URI next = null;
+            for (URI candidate : remaining) {
+                if (Collections.disjoint(references.getOrDefault(candidate, Collections.emptySet()), remaining)) {
+                    next = candidate;
+                    break;
+                }
+            }
+            // cycle, the closest document is taken first
+            if (next == null) {
+                next = remaining.iterator().next();
+            }
+            remaining.remove(next);
+            sorted.add(next);
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Writes the graph in the given file, if it changed since it was last written or read.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public synchronized void save(File file) throws IOException {
+        if (!changed) {
+            return;
+        }
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode content = mapper.createObjectNode();
+        for (Map.Entry<URI, Set<URI>> entry : references.entrySet()) {
+            content.putArray(entry.getKey().toString()).addAll(toJson(mapper, entry.getValue()));
+        }
+
+        mapper.writeValue(file, content);
+        changed = false;
+    }
+
+    /**
+     * Replaces the graph by the one written in the given file. The graph is left empty if the file does not exist or
+     * cannot be read.
+     *
+     * @param file
+     */
+    public synchronized void load(File file) {
+        references.clear();
+        dependents.clear();
+        changed = false;
+
+        if (file == null || !file.isFile()) {
+            return;
+        }
+
+        final JsonNode content;
+        try {
+            content = new ObjectMapper().readTree(file);
+        } catch (IOException e) {
+            return;
+        }
+
+        try {
+            for (Iterator<String> it = content.fieldNames(); it.hasNext();) {
+                String source = it.next();
+                List<URI> targets = new ArrayList<>();
+                for (JsonNode target : content.get(source)) {
+                    targets.add(URI.create(target.asText()));
+                }
+                setReferences(URI.create(source), targets);
+            }
+        } catch (IllegalArgumentException e) {
+            // malformed file, the graph is built again by the next validations
+            references.clear();
+            dependents.clear();
+        }
+        changed = false;
+    }
+
+    private Collection<JsonNode> toJson(ObjectMapper mapper, Collection<URI> uris) {
+        final List<JsonNode> values = new ArrayList<>();
+        for (URI uri : uris) {
+            values.add(mapper.getNodeFactory().textNode(uri.toString()));
+        }
+        return values;
+    }
+
+    private static void removeEdge(Map<URI, Set<URI>> edges, URI from, URI to) {
+        Set<URI> values = edges.get(from);
+        if (values != null && values.remove(to) && values.isEmpty()) {
+            edges.remove(from);
+        }
+    }
+
+}
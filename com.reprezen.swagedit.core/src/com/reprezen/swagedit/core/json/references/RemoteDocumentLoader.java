@@ -0,0 +1,569 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.json.references;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Loads documents referenced by http(s) URLs and keeps a copy of each one in a directory, so that the copies are
+ * available in the next sessions.
+ *
+ * A copy is used until it expires, after its time to live or after the max-age given by the server. An expired copy is
+ * still returned by {@link #load(URL)}, and is revalidated in the background with a conditional request using its
+ * ETag and Last-Modified headers. Listeners are notified when the revalidation gives a new content.
+ *
+ * The network is only used to load documents that have no copy. In offline mode, the network is never used.
+ *
+ * Copies that were not used for longer than the maximum age are deleted, as well as the least recently used copies
+ * once the copies take more space than the maximum size. All copies can be deleted with {@link #clear()}.
+ */
+public class RemoteDocumentLoader {
+
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(1);
+    public static final int DEFAULT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_MAXIMUM_SIZE = 50L * 1024 * 1024;
+    public static final long DEFAULT_MAXIMUM_AGE = TimeUnit.DAYS.toMillis(30);
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+
+    private final File directory;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService executor;
+
+    // copies read or written in this session, by URL
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // requests being sent, by URL
+    private final Map<String, CompletableFuture<byte[]>> pending = new ConcurrentHashMap<>();
+    private final List<Consumer<URI>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private volatile int timeout = DEFAULT_TIMEOUT;
+    private volatile boolean offline = false;
+    private volatile long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private volatile long maximumAge = DEFAULT_MAXIMUM_AGE;
+
+    /**
+     * Creates a loader that keeps the copies of the documents in the given directory.
+     *
+     * @param directory
+     */
+    public RemoteDocumentLoader(File directory) {
+        this.directory = directory;
+
+        final AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "KaiZen remote document loader " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the content of the document located at the given URL.
+     *
+     * The copy of the document is returned if there is one, the copy is revalidated in the background if it expired.
+     * Otherwise the document is downloaded, unless the loader is offline.
+     *
+     * @param url
+     *            http(s) URL of the document
+     * @return content of the document
+     * @throws IOException
+     *             if the document has no copy and cannot be downloaded
+     */
+    public byte[] load(URL url) throws IOException {
+        final Entry entry = getEntry(url);
+        final byte[] content = entry != null ? readContent(url) : null;
+        if (content != null) {
+            if (!offline && entry.isExpired()) {
+                revalidate(url);
+            }
+            return content;
+        }
+
+        if (offline) {
+            throw new IOException("No copy of " + url + " is available offline");
+        }
+
+        try {
+            return revalidate(url).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + url);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Cannot load " + url, e.getCause());
+        }
+    }
+
+    /**
+     * Sends a request for the document located at the given URL, conditional if the document has a copy. A single
+     * request is sent at a time for each URL.
+     *
+     * @param url
+     *            http(s) URL of the document
+     * @return future content of the document
+     */
+    public CompletableFuture<byte[]> revalidate(URL url) {
+        final String key = url.toString();
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        final CompletableFuture<byte[]> previous = pending.putIfAbsent(key, future);
+        if (previous != null) {
+            return previous;
+        }
+
+        // the request is removed before completing, so that callers waiting for it can send the next one
+        final Runnable request = () -> {
+            byte[] content = null;
+            Exception error = null;
+            try {
+                content = download(url);
+            } catch (Exception e) {
+                // the copy is used until the next revalidation instead of sending a request on each access
+                entries.computeIfPresent(key, (k, entry) -> entry.withExpiration(getExpiration(null)));
+                error = e;
+            }
+
+            pending.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(content);
+            }
+        };
+
+        try {
+            executor.execute(request);
+        } catch (RejectedExecutionException e) {
+            // the loader is disposed
+            pending.remove(key, future);
+            future.completeExceptionally(new IOException("Cannot load " + url + " after the loader is disposed", e));
+        }
+        return future;
+    }
+
+    /**
+     * Returns the time at which the content of the copy of the document was last changed, or 0 if the document has no
+     * copy. This time changes when a revalidation gives a new content.
+     *
+     * Like {@link #load(URL)}, this method revalidates an expired copy in the background, so that callers keeping the
+     * content in memory see the changes of the document.
+     *
+     * @param url
+     * @return timestamp of the copy
+     */
+    public long getTimestamp(URL url) {
+        final Entry entry = getEntry(url);
+        if (entry == null) {
+            return 0L;
+        }
+
+        if (!offline && entry.isExpired()) {
+            revalidate(url);
+        }
+        return entry.modified;
+    }
+
+    /**
+     * Adds a listener that is called with the URI of a document after a revalidation changed its copy.
+     *
+     * @param listener
+     */
+    public void addListener(Consumer<URI> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<URI> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the time during which a copy is used without revalidation, unless the server gives a max-age.
+     *
+     * @param timeToLive
+     *            time in milliseconds, 0 to revalidate a copy each time it is loaded
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Sets the connect and read timeouts of the requests.
+     *
+     * @param timeout
+     *            time in milliseconds
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets whether the network must not be used, in which case only the copies of the documents are loaded.
+     *
+     * @param offline
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Sets the space that the copies can take in the directory, the least recently used copies are deleted above this
+     * size. The copy of the last used document is always kept.
+     *
+     * @param maximumSize
+     *            size in bytes
+     */
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        prune();
+    }
+
+    /**
+     * Sets the time after which a copy that is not used is deleted.
+     *
+     * @param maximumAge
+     *            time in milliseconds
+     */
+    public void setMaximumAge(long maximumAge) {
+        this.maximumAge = maximumAge;
+        prune();
+    }
+
+    /**
+     * Deletes the copies of all documents, documents are downloaded again when they are next loaded.
+     */
+    public synchronized void clear() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        entries.clear();
+    }
+
+    /**
+     * Deletes the copies that were not used for longer than the maximum age, then the least recently used copies until
+     * the copies take less space than the maximum size.
+     */
+    public synchronized void prune() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return;
+        }
+
+        // the file of an entry is written or touched each time the copy is used in a session
+        final Map<File, Long> used = new HashMap<>();
+        for (File file : files) {
+            used.put(file, file.lastModified());
+        }
+        final List<File> entryFiles = new ArrayList<>(used.keySet());
+        entryFiles.sort(Comparator.comparing(used::get, Comparator.reverseOrder()));
+
+        final long oldest = System.currentTimeMillis() - maximumAge;
+        long size = 0;
+        for (int i = 0; i < entryFiles.size(); i++) {
+            final File entryFile = entryFiles.get(i);
+            final File contentFile = new File(directory, entryFile.getName().replaceFirst("\\.json$", ".content"));
+            size += entryFile.length() + contentFile.length();
+
+            if (i > 0 && (used.get(entryFile) < oldest || size > maximumSize)) {
+                remove(entryFile);
+                contentFile.delete();
+                entryFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Stops the requests that are being sent.
+     */
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    private byte[] download(URL url) throws IOException {
+        final Entry cached = getEntry(url);
+        final byte[] cachedContent = cached != null ? readContent(url) : null;
+
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.setUseCaches(false);
+
+        if (connection instanceof HttpURLConnection) {
+            final HttpURLConnection http = (HttpURLConnection) connection;
+            if (cachedContent != null) {
+                if (cached.etag != null) {
+                    http.setRequestProperty("If-None-Match", cached.etag);
+                }
+                if (cached.lastModified != null) {
+                    http.setRequestProperty("If-Modified-Since", cached.lastModified);
+                }
+            }
+
+            final int status = http.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cachedContent != null) {
+                write(url, new Entry(cached.etag, cached.lastModified, getExpiration(http), cached.modified),
+                        cachedContent);
+                return cachedContent;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Server returned " + status + " for " + url);
+            }
+        }
+
+        final byte[] content;
+        try (InputStream input = connection.getInputStream()) {
+            content = read(input);
+        }
+
+        final boolean changed = cachedContent != null && !Arrays.equals(cachedContent, content);
+        long modified = System.currentTimeMillis();
+        if (cachedContent != null) {
+            // the timestamp must change with the content, even within the same millisecond
+            modified = changed ? Math.max(modified, cached.modified + 1) : cached.modified;
+        }
+        write(url, new Entry(connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"),
+                getExpiration(connection), modified), content);
+
+        if (changed) {
+            notifyListeners(url);
+        }
+        return content;
+    }
+
+    private long getExpiration(URLConnection connection) {
+        long maxAge = timeToLive;
+
+        final String cacheControl = connection != null ? connection.getHeaderField("Cache-Control") : null;
+        if (cacheControl != null) {
+            Matcher matcher = MAX_AGE.matcher(cacheControl);
+            if (cacheControl.contains("no-cache")) {
+                maxAge = 0;
+            } else if (matcher.find()) {
+                try {
+                    maxAge = TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1)));
+                } catch (NumberFormatException e) {
+                    // keeps the time to live
+                }
+            }
+        }
+
+        return System.currentTimeMillis() + maxAge;
+    }
+
+    private void notifyListeners(URL url) {
+        final URI uri;
+        try {
+            uri = url.toURI();
+        } catch (URISyntaxException e) {
+            return;
+        }
+
+        for (Consumer<URI> listener : listeners) {
+            listener.accept(uri);
+        }
+    }
+
+    /*
+     * Forgets the entry stored in the file, if it was read in this session.
+     */
+    private void remove(File entryFile) {
+        for (String key : entries.keySet()) {
+            try {
+                if (entryFile.equals(getFile(new URL(key), ".json"))) {
+                    entries.remove(key);
+                }
+            } catch (MalformedURLException e) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /*
+     * Returns the entry of the copy of the document, read from the directory the first time. The file of the entry is
+     * touched when it is read, so that the copies used in each session are kept, see prune().
+     */
+    private Entry getEntry(URL url) {
+        final String key = url.toString();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+
+        final File file = getFile(url, ".json");
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            JsonNode node = mapper.readTree(file);
+            if (!key.equals(node.path("url").asText())) {
+                return null;
+            }
+            entry = new Entry(//
+                    node.hasNonNull("etag") ? node.get("etag").asText() : null, //
+                    node.hasNonNull("lastModified") ? node.get("lastModified").asText() : null, //
+                    node.path("expires").asLong(), //
+                    node.path("modified").asLong());
+        } catch (IOException e) {
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+
+        final Entry previous = entries.putIfAbsent(key, entry);
+        return previous != null ? previous : entry;
+    }
+
+    private byte[] readContent(URL url) {
+        final File file = getFile(url, ".content");
+        try {
+            return file != null && file.isFile() ? Files.readAllBytes(file.toPath()) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Writes the content before the entry, so that an entry read from the directory always has its content.
+     */
+    private void write(URL url, Entry entry, byte[] content) throws IOException {
+        final File contentFile = getFile(url, ".content");
+        final File entryFile = getFile(url, ".json");
+        if (contentFile == null || entryFile == null) {
+            throw new IOException("Cannot store a copy of " + url);
+        }
+
+        final ObjectNode node = mapper.createObjectNode();
+        node.put("url", url.toString());
+        node.put("etag", entry.etag);
+        node.put("lastModified", entry.lastModified);
+        node.put("expires", entry.expires);
+        node.put("modified", entry.modified);
+
+        synchronized (this) {
+            directory.mkdirs();
+            replace(contentFile, content);
+            replace(entryFile, mapper.writeValueAsBytes(node));
+            entries.put(url.toString(), entry);
+        }
+        prune();
+    }
+
+    private void replace(File file, byte[] content) throws IOException {
+        final File temp = File.createTempFile("copy", ".tmp", directory);
+        try {
+            Files.write(temp.toPath(), content);
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /*
+     * Returns the file of the copy of a document, named after the hash of its URL.
+     */
+    private File getFile(URL url, String extension) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-1")
+                    .digest(url.toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return new File(directory, name.append(extension).toString());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int length;
+        while ((length = input.read(buffer)) != -1) {
+            output.write(buffer, 0, length);
+        }
+        return output.toByteArray();
+    }
+
+    private static class Entry {
+        final String etag;
+        final String lastModified;
+        final long expires;
+        final long modified;
+
+        Entry(String etag, String lastModified, long expires, long modified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+            this.modified = modified;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+
+        Entry withExpiration(long expires) {
+            return new Entry(etag, lastModified, expires, modified);
+        }
+    }
+
+}
@@ -30,16 +30,26 @@ import com.reprezen.swagedit.core.schema.TypeDefinition;
  */
 public abstract class AbstractNode {
 
+    private static final int NO_LINE = Integer.MIN_VALUE;
+
     private final Model model;
-    private final JsonPointer pointer;
+    private final String pointer;
     private final AbstractNode parent;
+    // created on demand, nodes are identified in the model by their pointer string
+    private JsonPointer jsonPointer;
 
     private String property;
     private TypeDefinition type;
-    private Location start;
-    private Location end;
-
-    AbstractNode(Model model, AbstractNode parent, JsonPointer ptr) {
+    // locations are kept as numbers, most of them are never read
+    private int startLine = NO_LINE;
+    private int startColumn;
+    private int endLine = NO_LINE;
+    private int endColumn;
+    // set on copies of a node of another model until their elements are created, see #copyElements()
+    private volatile AbstractNode source;
+    private int lineDelta;
+
+    AbstractNode(Model model, AbstractNode parent, String ptr) {
         this.model = model;
         this.parent = parent;
         this.pointer = ptr;
@@ -129,7 +139,10 @@ public abstract class AbstractNode {
      * @return JSON pointer
      */
     public JsonPointer getPointer() {
-        return pointer;
+        if (jsonPointer == null && pointer != null) {
+            jsonPointer = JsonPointer.compile(pointer);
+        }
+        return jsonPointer;
     }
     
     /**
@@ -137,11 +150,14 @@ public abstract class AbstractNode {
      * @return JSON pointer as a string
      */
     public String getPointerString() {
-        return getPointer().toString();
+        return pointer;
     }
 
     public void setType(TypeDefinition type) {
         this.type = type;
+        if (model != null) {
+            model.typeChanged();
+        }
     }
 
     public TypeDefinition getType() {
@@ -217,11 +233,13 @@ public abstract class AbstractNode {
     }
 
     public void setStartLocation(Location start) {
-        this.start = start;
+        this.startLine = start != null ? start.getLine() : NO_LINE;
+        this.startColumn = start != null ? start.getColumn() : 0;
     }
 
     public void setEndLocation(Location location) {
-        this.end = location;
+        this.endLine = location != null ? location.getLine() : NO_LINE;
+        this.endColumn = location != null ? location.getColumn() : 0;
     }
 
     /**
@@ -230,7 +248,7 @@ public abstract class AbstractNode {
      * @return start location
      */
     public Location getStart() {
-        return start;
+        return startLine != NO_LINE ? new Location(startLine, startColumn) : null;
     }
 
     /**
@@ -239,7 +257,54 @@ public abstract class AbstractNode {
      * @return end location
      */
     public Location getEnd() {
-        return end;
+        return endLine != NO_LINE ? new Location(endLine, endColumn) : null;
+    }
+
+    /*
+     * Makes this node a copy of a node from another model, moved by the given number of lines. Elements of the copy
+     * are created on first access, the node may share them with other copies until then.
+     */
+    void copyOf(AbstractNode node, int lines) {
+        this.property = node.property;
+        this.type = node.type;
+        this.startLine = node.startLine != NO_LINE ? node.startLine + lines : NO_LINE;
+        this.startColumn = node.startColumn;
+        this.endLine = node.endLine != NO_LINE ? node.endLine + lines : NO_LINE;
+        this.endColumn = node.endColumn;
+
+        if (!node.isValue()) {
+            // copies of copies refer to the first node whose elements exist
+            final AbstractNode from = node.source;
+            this.lineDelta = from != null ? node.lineDelta + lines : lines;
+            this.source = from != null ? from : node;
+        }
+    }
+
+    /*
+     * Creates the elements of a copy, as copies of the elements of its source. Copies can be read from several
+     * threads, elements are only created once.
+     */
+    final void copyElements() {
+        if (source == null) {
+            return;
+        }
+
+        synchronized (this) {
+            final AbstractNode from = source;
+            if (from != null) {
+                for (AbstractNode element : from.elements()) {
+                    addElement(model.copy(this, element, lineDelta));
+                }
+                source = null;
+            }
+        }
+    }
+
+    /*
+     * Adds an element created by copyElements().
+     */
+    void addElement(AbstractNode element) {
+        throw new UnsupportedOperationException();
     }
 
     @Override
@@ -261,7 +326,7 @@ public abstract class AbstractNode {
             return false;
         AbstractNode other = (AbstractNode) obj;
 
-        return Objects.equals(getModel(), other.getModel()) && Objects.equals(getPointer(), other.getPointer());
+        return Objects.equals(getModel(), other.getModel()) && Objects.equals(pointer, other.pointer);
     }
 
 }
@@ -13,18 +13,17 @@ package com.reprezen.swagedit.core.model;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.fasterxml.jackson.core.JsonPointer;
-
 public class ArrayNode extends AbstractNode {
 
     private final List<AbstractNode> elements = new ArrayList<>();
 
-    ArrayNode(Model model, AbstractNode parent, JsonPointer ptr) {
+    ArrayNode(Model model, AbstractNode parent, String ptr) {
         super(model, parent, ptr);
     }
 
     @Override
     public AbstractNode get(int pos) {
+        copyElements();
         return elements.get(pos);
     }
 
@@ -39,11 +38,18 @@ public class ArrayNode extends AbstractNode {
     }
 
     public void add(AbstractNode model) {
+        copyElements();
         this.elements.add(model);
     }
 
+    @Override
+    void addElement(AbstractNode element) {
+        this.elements.add(element);
+    }
+
     @Override
     public AbstractNode[] elements() {
+        copyElements();
         return elements.toArray(new AbstractNode[elements.size()]);
     }
 
@@ -54,6 +60,7 @@ public class ArrayNode extends AbstractNode {
 
     @Override
     public String toString() {
+        copyElements();
         return "[ " + elements + " ]";
     }
 }
\ No newline at end of file
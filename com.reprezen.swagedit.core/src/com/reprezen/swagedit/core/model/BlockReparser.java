@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Updates the model and the JSON tree of a document by parsing again only the part of the document that changed.
+ *
+ * The part that is parsed again is the smallest block mapping entry that contains all the lines modified since the last
+ * parse. Its new content is read into a new model where only the nodes on the path to the entry are copied. Other
+ * nodes are copied from the previous model on first access, nodes located after the entry are then moved by the number
+ * of lines added or removed and keep their types. In the JSON tree, only the objects on the path to the entry are
+ * copied.
+ *
+ * Documents using aliases, merge keys or duplicate keys cannot be updated this way, as well as changes that are not
+ * contained in a single block mapping entry. They need to be parsed entirely.
+ */
+public class BlockReparser {
+
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private final Model model;
+    private final JsonNode json;
+    private final Set<String> flowCollections;
+    private final int numberOfLines;
+
+    private BlockReparser(Model model, JsonNode json, Set<String> flowCollections, int numberOfLines) {
+        this.model = model;
+        this.json = json;
+        this.flowCollections = flowCollections;
+        this.numberOfLines = numberOfLines;
+    }
+
+    /**
+     * Returns a reparser for a document that has been entirely parsed.
+     *
+     * @param model
+     * @param json
+     * @param reader
+     *            reader used to create the model
+     * @param numberOfLines
+     *            number of lines of the parsed document
+     * @return reparser, or null if the document cannot be updated incrementally
+     */
+    public static BlockReparser create(Model model, JsonNode json, YamlNodeReader reader, int numberOfLines) {
+        if (model == null || json == null || !json.isObject() || !(model.getRoot() instanceof ObjectNode)) {
+            return null;
+        }
+        if (reader.hasLinkedNodes() || reader.getFlowCollections().contains(model.getRoot().getPointerString())) {
+            return null;
+        }
+
+        return new BlockReparser(model, json, new HashSet<>(reader.getFlowCollections()), numberOfLines);
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public JsonNode getJson() {
+        return json;
+    }
+
+    /**
+     * Parses again the part of the document that changed since the model was created.
+     *
+     * The changed part is given by the offset of the first changed character and by the number of characters at the
+     * end of the document that did not change.
+     *
+     * @param document
+     *            document after the change
+     * @param offset
+     *            offset of the first changed character
+     * @param unchangedSuffix
+     *            number of unchanged characters at the end of the document
+     * @return reparser for the updated document, or null if the document needs to be parsed entirely
+     */
+    public BlockReparser reparse(IDocument document, int offset, int unchangedSuffix) {
+        try {
+            final int lineDelta = document.getNumberOfLines() - numberOfLines;
+            final int firstLine = document.getLineOfOffset(offset);
+            // last changed line, before the change
+            final int lastLine = document.getLineOfOffset(document.getLength() - unchangedSuffix) - lineDelta;
+
+            final List<Block> blocks = new ArrayList<>();
+            collect(model.getRoot(), Integer.MAX_VALUE, firstLine, lastLine, blocks);
+
+            // try from the smallest block to the largest
+            for (int i = blocks.size() - 1; i >= 0; i--) {
+                BlockReparser result = reparse(document, blocks.get(i), lineDelta);
+                if (result != null) {
+                    return result;
+                }
+            }
+        } catch (BadLocationException | RuntimeException e) {
+            // parse the whole document
+        }
+
+        return null;
+    }
+
+    /*
+     * Collects the mapping entries that contain the lines between first and last. A node extends until the line where
+     * the next node starts, end is the line where the node following the current one starts.
+     */
+    private void collect(AbstractNode node, int end, int first, int last, List<Block> blocks) {
+        if (flowCollections.contains(node.getPointerString())) {
+            return;
+        }
+
+        final AbstractNode[] elements = node.elements();
+        for (int i = 0; i < elements.length; i++) {
+            int start = elements[i].getStart().getLine();
+            int next = i + 1 < elements.length ? elements[i + 1].getStart().getLine() : end;
+
+            if (start <= first && last < next) {
+                if (node.isObject()) {
+                    blocks.add(new Block(elements[i], next));
+                }
+                collect(elements[i], next, first, last, blocks);
+                return;
+            }
+        }
+    }
+
+    private BlockReparser reparse(IDocument document, Block block, int lineDelta) throws BadLocationException {
+        final AbstractNode entry = block.entry;
+        final ObjectNode parent = (ObjectNode) entry.getParent();
+        final int startLine = entry.getStart().getLine();
+        final boolean isLast = block.next == Integer.MAX_VALUE;
+
+        final int startOffset = document.getLineOffset(startLine);
+        final int endOffset = isLast ? document.getLength() : document.getLineOffset(block.next + lineDelta);
+
+        final Node yaml;
+        try {
+            yaml = YamlNodeReader.compose(document.get(startOffset, endOffset - startOffset));
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        // the block should still be a single entry of the same mapping
+        if (!(yaml instanceof MappingNode) || ((MappingNode) yaml).getFlowStyle() == FlowStyle.FLOW) {
+            return null;
+        }
+        final List<NodeTuple> tuples = ((MappingNode) yaml).getValue();
+        if (tuples.size() != 1 || !(tuples.get(0).getKeyNode() instanceof ScalarNode)) {
+            return null;
+        }
+        final NodeTuple tuple = tuples.get(0);
+        final ScalarNode key = (ScalarNode) tuple.getKeyNode();
+        if (key.getStartMark().getLine() != 0 || key.getStartMark().getColumn() != entry.getStart().getColumn()) {
+            return null;
+        }
+        if (!key.getValue().equals(entry.getProperty()) && parent.get(key.getValue()) != null) {
+            return null;
+        }
+
+        final YamlNodeReader reader = new YamlNodeReader(startLine);
+        final String field;
+        final JsonNode value;
+        try {
+            field = reader.toJsonKey(key);
+            value = reader.toJson(tuple.getValueNode());
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        final Location blockEnd = new Location(startLine + yaml.getEndMark().getLine(), yaml.getEndMark().getColumn());
+        final Location next = isLast ? null : nextToken(document, block.next + lineDelta);
+
+        final Model result = new Model(model.getSchema());
+        result.setPath(model.getPath());
+        result.setIncomplete();
+
+        // only the nodes on the path to the entry are copied, their other elements are copied on first access
+        final List<AbstractNode> path = path(entry);
+        AbstractNode copy = copyAncestor(result, path.get(0), null, startLine, block.next, lineDelta, blockEnd);
+        AbstractNode created = null;
+        for (int depth = 0; depth < path.size() - 1; depth++) {
+            final AbstractNode child = path.get(depth + 1);
+            AbstractNode ancestor = null;
+            for (AbstractNode element : path.get(depth).elements()) {
+                if (element == entry) {
+                    created = reader.readProperty(result, (ObjectNode) copy, tuple);
+                } else if (element == child) {
+                    ancestor = copyAncestor(result, element, copy, startLine, block.next, lineDelta, blockEnd);
+                    addElement(copy, ancestor);
+                } else {
+                    int lines = element.getStart().getLine() >= block.next ? lineDelta : 0;
+                    addElement(copy, result.copy(copy, element, lines));
+                }
+            }
+            copy = ancestor;
+        }
+
+        if (created == null || reader.hasLinkedNodes()) {
+            return null;
+        }
+        initialize(created, blockEnd, next, new TypeResolver(result.getSchema()));
+
+        final JsonNode updated = splice(json, path, 0, field, value);
+        if (updated == null) {
+            return null;
+        }
+
+        final Set<String> flows = new HashSet<>();
+        for (String pointer : flowCollections) {
+            if (!isDescendant(pointer, entry.getPointerString())) {
+                flows.add(pointer);
+            }
+        }
+        flows.addAll(reader.getFlowCollections());
+
+        return new BlockReparser(result, updated, flows, document.getNumberOfLines());
+    }
+
+    /*
+     * Copies a node that contains the entry, without its elements. Its end moves with the lines added or removed by the
+     * change, or is the end of the block if the node ended inside of it.
+     */
+    private AbstractNode copyAncestor(Model result, AbstractNode node, AbstractNode parent, int startLine, int next,
+            int lineDelta, Location blockEnd) {
+        final AbstractNode copy = node.isObject() ? result.objectNode(parent, node.getPointerString())
+                : result.arrayNode(parent, node.getPointerString());
+
+        Location end = node.getEnd();
+        if (end.getLine() >= next) {
+            end = move(end, lineDelta);
+        } else if (end.getLine() >= startLine) {
+            end = blockEnd;
+        }
+
+        copy.setProperty(node.getProperty());
+        copy.setType(node.getType());
+        copy.setStartLocation(node.getStart());
+        copy.setEndLocation(end);
+        return copy;
+    }
+
+    private void addElement(AbstractNode parent, AbstractNode element) {
+        if (parent instanceof ObjectNode) {
+            ((ObjectNode) parent).put(element.getProperty(), element);
+        } else {
+            ((ArrayNode) parent).add(element);
+        }
+    }
+
+    /*
+     * Sets the types of the nodes read from the block. Collections that end with the block end where the next token of
+     * the document starts, like they do when the whole document is parsed. Block scalars end at the beginning of the
+     * next line in both cases.
+     */
+    private void initialize(AbstractNode node, Location blockEnd, Location next, TypeResolver types) {
+        types.resolve(node);
+
+        final Location end = node.getEnd();
+        if (next != null && !node.isValue() && end.getLine() == blockEnd.getLine()
+                && end.getColumn() == blockEnd.getColumn()) {
+            node.setEndLocation(next);
+        }
+
+        for (AbstractNode element : node.elements()) {
+            initialize(element, blockEnd, next, types);
+        }
+    }
+
+    private Location nextToken(IDocument document, int line) throws BadLocationException {
+        final int offset = document.getLineOffset(line);
+        final int length = document.getLineLength(line);
+
+        int column = 0;
+        while (column < length && Character.isWhitespace(document.getChar(offset + column))) {
+            column++;
+        }
+        return new Location(line, column);
+    }
+
+    /*
+     * Returns a copy of the JSON tree where the field corresponding to the last node of the path is replaced. Only the
+     * nodes on the path are copied, the others are shared with the previous tree.
+     */
+    private JsonNode splice(JsonNode current, List<AbstractNode> path, int depth, String field, JsonNode value) {
+        final AbstractNode node = path.get(depth);
+        final AbstractNode child = path.get(depth + 1);
+        final AbstractNode[] elements = node.elements();
+        if (current == null || current.size() != elements.length) {
+            return null;
+        }
+
+        int index = 0;
+        while (elements[index] != child) {
+            index++;
+        }
+
+        if (current.isArray()) {
+            JsonNode replacement = splice(current.get(index), path, depth + 1, field, value);
+            if (replacement == null) {
+                return null;
+            }
+
+            com.fasterxml.jackson.databind.node.ArrayNode copy = factory.arrayNode();
+            for (int i = 0; i < current.size(); i++) {
+                copy.add(i == index ? replacement : current.get(i));
+            }
+            return copy;
+        } else if (current.isObject()) {
+            com.fasterxml.jackson.databind.node.ObjectNode copy = factory.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+            for (int i = 0; fields.hasNext(); i++) {
+                Map.Entry<String, JsonNode> e = fields.next();
+                if (i != index) {
+                    copy.set(e.getKey(), e.getValue());
+                } else if (depth + 1 == path.size() - 1) {
+                    if (!e.getKey().equals(field) && current.has(field)) {
+                        return null;
+                    }
+                    copy.set(field, value);
+                } else {
+                    JsonNode replacement = splice(e.getValue(), path, depth + 1, field, value);
+                    if (replacement == null) {
+                        return null;
+                    }
+                    copy.set(e.getKey(), replacement);
+                }
+            }
+            return copy;
+        }
+
+        return null;
+    }
+
+    private List<AbstractNode> path(AbstractNode node) {
+        final List<AbstractNode> path = new ArrayList<>();
+        for (AbstractNode current = node; current != null; current = current.getParent()) {
+            path.add(0, current);
+        }
+        return path;
+    }
+
+    private boolean isDescendant(String pointer, String ancestor) {
+        return pointer.equals(ancestor) || pointer.startsWith(ancestor + "/");
+    }
+
+    private Location move(Location location, int lines) {
+        return lines == 0 ? location : new Location(location.getLine() + lines, location.getColumn());
+    }
+
+    /*
+     * Mapping entry that can be parsed again, next is the line where the following node starts.
+     */
+    private static class Block {
+        final AbstractNode entry;
+        final int next;
+
+        Block(AbstractNode entry, int next) {
+            this.entry = entry;
+            this.next = next;
+        }
+    }
+}
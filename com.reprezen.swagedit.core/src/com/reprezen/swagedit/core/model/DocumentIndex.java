@@ -0,0 +1,617 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.reprezen.swagedit.core.schema.CompositeSchema;
+
+/**
+ * Compact index of the nodes of a large document.
+ *
+ * The text is scanned once with a streaming parser, the Jackson parser for JSON and the SnakeYAML event parser for
+ * YAML, without creating any tree. For each node, the index only keeps in arrays of primitives the offsets of its
+ * start, of its value and of its end, its kind, the end of its subtree and the name of its property, names being
+ * shared by all nodes.
+ *
+ * Nodes of the {@link Model} are created on demand for a part of the document, their values being read again from the
+ * text, see {@link #getModel(CompositeSchema, int, int)}.
+ */
+public final class DocumentIndex {
+
+    private static final byte OBJECT = 0;
+    private static final byte ARRAY = 1;
+    private static final byte VALUE = 2;
+    private static final byte ALIAS = 3;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final String text;
+    private final boolean json;
+    private final boolean surrogates;
+    private final int[] lineOffsets;
+
+    private int size = 0;
+    private byte[] kinds = new byte[1024];
+    // offset of the node, of the key for properties
+    private int[] starts = new int[1024];
+    // offset of the node value
+    private int[] valueStarts = new int[1024];
+    private int[] ends = new int[1024];
+    // index of the node that follows the subtree of the node
+    private int[] nexts = new int[1024];
+    // index of the property name, or -1
+    private int[] names = new int[1024];
+
+    private final List<String> nameTable = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final Map<Integer, Integer> aliases = new HashMap<>();
+    private final Deque<Integer> open = new ArrayDeque<>();
+
+    private Exception error;
+    private int lastOffset = 0;
+
+    private DocumentIndex(String text, boolean json) {
+        this.text = text;
+        this.json = json;
+
+        boolean hasSurrogates = false;
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+                lines++;
+            } else if (Character.isSurrogate(c)) {
+                hasSurrogates = true;
+            }
+        }
+
+        this.surrogates = hasSurrogates;
+        this.lineOffsets = new int[lines];
+        int line = 1;
+        for (int i = 0; i < text.length() && line < lines; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+                lineOffsets[line++] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Creates the index of a document.
+     *
+     * The text is read as JSON if it looks like JSON, and as YAML otherwise or if it is not valid JSON. If the text
+     * cannot be read entirely, the index contains the nodes that have been read before the error.
+     *
+     * @param text
+     * @return index
+     */
+    public static DocumentIndex build(String text) {
+        if (JsonNodeReader.isJson(text)) {
+            DocumentIndex index = new DocumentIndex(text, true);
+            index.readJson();
+            if (index.error == null) {
+                return index;
+            }
+        }
+
+        DocumentIndex index = new DocumentIndex(text, false);
+        index.readYaml();
+        return index;
+    }
+
+    /**
+     * Returns the number of nodes in the index.
+     *
+     * @return number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the error that stopped the reading of the text. Text that is not valid JSON is read as YAML, so the error
+     * is always a {@link YAMLException}.
+     *
+     * @return error, or null if the text has been read entirely
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Returns the offset of the node identified by the pointer.
+     *
+     * @param pointer
+     * @return offset, or -1 if there is no such node
+     */
+    public int getOffset(JsonPointer pointer) {
+        if (size == 0) {
+            return -1;
+        }
+
+        int id = 0;
+        for (JsonPointer current = pointer; !current.matches(); current = current.tail()) {
+            id = target(id);
+            int found = -1;
+            if (kinds[id] == OBJECT) {
+                Integer name = nameIds.get(current.getMatchingProperty());
+                for (int child = id + 1; name != null && child < nexts[id]; child = nexts[child]) {
+                    // the last duplicate key wins, as in the model
+                    if (names[child] == name) {
+                        found = child;
+                    }
+                }
+            } else if (kinds[id] == ARRAY && current.getMatchingIndex() >= 0) {
+                int i = 0;
+                for (int child = id + 1; child < nexts[id] && found < 0; child = nexts[child]) {
+                    if (i++ == current.getMatchingIndex()) {
+                        found = child;
+                    }
+                }
+            }
+
+            if (found < 0) {
+                return -1;
+            }
+            id = found;
+        }
+        return starts[id];
+    }
+
+    /**
+     * Returns a model containing the nodes up to the given depth, the root being at depth 0.
+     *
+     * @param schema
+     * @param depth
+     * @return model
+     */
+    public Model getModel(CompositeSchema schema, int depth) {
+        return new Materializer(schema, 0, text.length(), -1, depth).read();
+    }
+
+    /**
+     * Returns a model containing the nodes that intersect the given region of the text, together with the direct
+     * children of the innermost object or array that contains the whole region.
+     *
+     * @param schema
+     * @param offset
+     * @param length
+     * @return model
+     */
+    public Model getModel(CompositeSchema schema, int offset, int length) {
+        final int end = offset + Math.max(0, length);
+
+        int container = -1;
+        if (size > 0 && starts[0] <= offset && end <= ends[0]) {
+            container = 0;
+            for (int child = 1; child < nexts[container];) {
+                if (starts[child] <= offset && end <= ends[child] && (kinds[child] == OBJECT || kinds[child] == ARRAY)) {
+                    container = child;
+                    child = child + 1;
+                } else {
+                    child = nexts[child];
+                }
+            }
+        }
+
+        return new Materializer(schema, offset, end, container, Integer.MAX_VALUE).read();
+    }
+
+    /*
+     * Index construction
+     */
+
+    private void readJson() {
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+
+            readJson(parser, -1, offset(parser.getTokenLocation()));
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the end of the document");
+            }
+        } catch (IOException e) {
+            error = e;
+            closeAll();
+        }
+    }
+
+    private void readJson(JsonParser parser, int name, int start) throws IOException {
+        final int valueStart = offset(parser.getTokenLocation());
+
+        switch (parser.currentToken()) {
+        case START_OBJECT: {
+            final int id = begin(OBJECT, name, start, valueStart);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final int field = name(parser.getCurrentName());
+                final int fieldStart = offset(parser.getTokenLocation());
+                parser.nextToken();
+
+                readJson(parser, field, fieldStart);
+            }
+            end(id, offset(parser.getCurrentLocation()));
+            break;
+        }
+        case START_ARRAY: {
+            final int id = begin(ARRAY, name, start, valueStart);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                readJson(parser, -1, offset(parser.getTokenLocation()));
+            }
+            end(id, offset(parser.getCurrentLocation()));
+            break;
+        }
+        default: {
+            final int id = begin(VALUE, name, start, valueStart);
+            parser.finishToken();
+            end(id, offset(parser.getCurrentLocation()));
+        }
+        }
+    }
+
+    /*
+     * Events are read the same way the SnakeYAML composer reads them. Entries whose key is not a scalar are ignored,
+     * as they are ignored by the YAML reader.
+     */
+    private void readYaml() {
+        final Deque<Entry> entries = new ArrayDeque<>();
+        final Map<String, Integer> anchors = new HashMap<>();
+        Mark document = null;
+
+        try {
+            final Iterator<Event> events = new Yaml().parse(new StringReader(text)).iterator();
+            while (events.hasNext()) {
+                final Event event = events.next();
+
+                if (event instanceof DocumentStartEvent) {
+                    if (document != null) {
+                        throw new IndexException("expected a single document in the stream", document,
+                                "but found another document", event.getStartMark());
+                    }
+                    document = event.getStartMark();
+                    continue;
+                }
+                if (event instanceof CollectionEndEvent) {
+                    end(entries.pop().id, offset(event.getEndMark()));
+                    continue;
+                }
+                if (!(event instanceof NodeEvent)) {
+                    continue;
+                }
+
+                final Entry entry = entries.peek();
+                int name = -1;
+                int start = offset(event.getStartMark());
+
+                if (entry != null && entry.mapping) {
+                    if (entry.name == Entry.KEY) {
+                        if (event instanceof ScalarEvent) {
+                            entry.name = name(((ScalarEvent) event).getValue());
+                            entry.keyStart = start;
+                        } else {
+                            skip(event, events);
+                            entry.name = Entry.SKIPPED;
+                        }
+                        continue;
+                    }
+
+                    name = entry.name;
+                    start = entry.keyStart;
+                    entry.name = Entry.KEY;
+                    if (name == Entry.SKIPPED) {
+                        skip(event, events);
+                        continue;
+                    }
+                }
+                final int valueStart = offset(event.getStartMark());
+                final int id;
+                if (event instanceof AliasEvent) {
+                    final Integer target = anchors.get(((AliasEvent) event).getAnchor());
+                    if (target == null) {
+                        throw new IndexException(null, null, "found undefined alias " + ((AliasEvent) event).getAnchor(),
+                                event.getStartMark());
+                    }
+                    id = begin(ALIAS, name, start, valueStart);
+                    aliases.put(id, target);
+                    end(id, offset(event.getEndMark()));
+                } else if (event instanceof CollectionStartEvent) {
+                    final boolean mapping = event instanceof MappingStartEvent;
+                    id = begin(mapping ? OBJECT : ARRAY, name, start, valueStart);
+                    entries.push(new Entry(id, mapping));
+                } else {
+                    id = begin(VALUE, name, start, valueStart);
+                    end(id, offset(event.getEndMark()));
+                }
+
+                final String anchor = ((NodeEvent) event).getAnchor();
+                if (anchor != null && !(event instanceof AliasEvent)) {
+                    anchors.put(anchor, id);
+                }
+            }
+        } catch (YAMLException e) {
+            error = e;
+            closeAll();
+        }
+    }
+
+    private void skip(Event event, Iterator<Event> events) {
+        int depth = event instanceof CollectionStartEvent ? 1 : 0;
+        while (depth > 0 && events.hasNext()) {
+            Event next = events.next();
+            if (next instanceof CollectionStartEvent) {
+                depth++;
+            } else if (next instanceof CollectionEndEvent) {
+                depth--;
+            }
+        }
+    }
+
+    private int begin(byte kind, int name, int start, int valueStart) {
+        if (size == kinds.length) {
+            final int capacity = size + (size >> 1);
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            valueStarts = Arrays.copyOf(valueStarts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            nexts = Arrays.copyOf(nexts, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+
+        final int id = size++;
+        kinds[id] = kind;
+        starts[id] = start;
+        valueStarts[id] = valueStart;
+        ends[id] = valueStart;
+        nexts[id] = size;
+        names[id] = name;
+
+        if (kind == OBJECT || kind == ARRAY) {
+            open.push(id);
+        }
+        return id;
+    }
+
+    private void end(int id, int end) {
+        ends[id] = end;
+        nexts[id] = size;
+        lastOffset = Math.max(lastOffset, end);
+
+        if (!open.isEmpty() && open.peek() == id) {
+            open.pop();
+        }
+    }
+
+    /*
+     * Collections left open by an error end where the last node read ends.
+     */
+    private void closeAll() {
+        while (!open.isEmpty()) {
+            end(open.peek(), lastOffset);
+        }
+    }
+
+    private int name(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = nameTable.size();
+            nameTable.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private int offset(JsonLocation location) {
+        return (int) location.getCharOffset();
+    }
+
+    /*
+     * Marks count code points, which only differ from characters if the text contains surrogate pairs.
+     */
+    private int offset(Mark mark) {
+        if (!surrogates) {
+            return mark.getIndex();
+        }
+
+        final int line = Math.min(mark.getLine(), lineOffsets.length - 1);
+        return text.offsetByCodePoints(lineOffsets[line], mark.getColumn());
+    }
+
+    private Location location(int offset) {
+        int line = Arrays.binarySearch(lineOffsets, offset);
+        if (line < 0) {
+            line = -line - 2;
+        }
+
+        final int column = surrogates && !json ? text.codePointCount(lineOffsets[line], offset)
+                : offset - lineOffsets[line];
+        return new Location(line, column);
+    }
+
+    private int target(int id) {
+        final Integer target = aliases.get(id);
+        return target != null ? target : id;
+    }
+
+    /*
+     * Creates the nodes of a model from the index, in the same order as the YAML reader.
+     */
+    private class Materializer {
+
+        private final CompositeSchema schema;
+        private final int regionStart;
+        private final int regionEnd;
+        private final int container;
+        private final int depth;
+        private final Set<Integer> visiting = new HashSet<>();
+        private Yaml yaml;
+
+        Materializer(CompositeSchema schema, int regionStart, int regionEnd, int container, int depth) {
+            this.schema = schema;
+            this.regionStart = regionStart;
+            this.regionEnd = regionEnd;
+            this.container = container;
+            this.depth = depth;
+        }
+
+        Model read() {
+            if (size == 0) {
+                return Model.empty(schema);
+            }
+
+            final Model model = new Model(schema);
+            model.setPartial(true);
+            read(model, null, "", 0, 0, false);
+
+            TypeResolver.resolve(model);
+            return model;
+        }
+
+        /*
+         * Aliases are expanded like in the YAML reader, the expanded nodes keep the location of the anchored node.
+         */
+        private AbstractNode read(Model model, AbstractNode parent, String ptr, int id, int level,
+                boolean expanded) {
+            final int target = target(id);
+            if (!visiting.add(target)) {
+                return null;
+            }
+
+            final AbstractNode node;
+            final boolean inAlias = expanded || target != id;
+            switch (kinds[target]) {
+            case OBJECT:
+                final ObjectNode object = model.objectNode(parent, ptr);
+                for (int child = target + 1; child < nexts[target]; child = nexts[child]) {
+                    if (includes(child, target, level + 1, inAlias)) {
+                        final String name = nameTable.get(names[child]);
+                        final AbstractNode value = read(model, object, Model.pointer(ptr, name), child, level + 1,
+                                inAlias);
+                        if (value != null) {
+                            value.setProperty(name);
+                            object.put(name, value);
+                        }
+                    }
+                }
+                node = object;
+                break;
+            case ARRAY:
+                final ArrayNode array = model.arrayNode(parent, ptr);
+                int i = 0;
+                for (int child = target + 1; child < nexts[target]; child = nexts[child], i++) {
+                    if (includes(child, target, level + 1, inAlias)) {
+                        final AbstractNode value = read(model, array, Model.pointer(ptr, i), child, level + 1, inAlias);
+                        if (value != null) {
+                            array.add(value);
+                        }
+                    }
+                }
+                node = array;
+                break;
+            default:
+                node = model.valueNode(parent, ptr, getValue(target));
+                break;
+            }
+            visiting.remove(target);
+
+            // array items use the location of the anchored node, as in the YAML reader
+            final int start = target != id && names[id] < 0 ? valueStarts[target] : starts[id];
+            node.setStartLocation(location(start));
+            node.setEndLocation(location(ends[target]));
+            return node;
+        }
+
+        private boolean includes(int id, int parent, int level, boolean inAlias) {
+            if (level > depth) {
+                return false;
+            }
+            return inAlias || parent == container || (starts[id] <= regionEnd && ends[id] >= regionStart);
+        }
+
+        private Object getValue(int id) {
+            final String value = text.substring(valueStarts[id], ends[id]);
+
+            try {
+                if (json) {
+                    try (JsonParser parser = jsonFactory.createParser(value)) {
+                        parser.nextToken();
+                        return JsonNodeReader.getValue(parser);
+                    }
+                }
+
+                if (yaml == null) {
+                    yaml = new Yaml();
+                }
+                final Node scalar = yaml.compose(new StringReader(value));
+                return scalar instanceof ScalarNode ? new YamlNodeReader().getValue((ScalarNode) scalar) : null;
+            } catch (IOException | RuntimeException e) {
+                return value;
+            }
+        }
+    }
+
+    private static class Entry {
+        static final int KEY = -1;
+        static final int SKIPPED = -2;
+
+        final int id;
+        final boolean mapping;
+        int name = KEY;
+        int keyStart;
+
+        Entry(int id, boolean mapping) {
+            this.id = id;
+            this.mapping = mapping;
+        }
+    }
+
+    private static class IndexException extends MarkedYAMLException {
+
+        private static final long serialVersionUID = 1L;
+
+        IndexException(String context, Mark contextMark, String problem, Mark problemMark) {
+            super(context, contextMark, problem, problemMark);
+        }
+    }
+
+}
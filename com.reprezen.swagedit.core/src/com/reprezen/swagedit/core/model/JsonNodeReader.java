@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Builds the model and the JSON tree of a document written in JSON.
+ *
+ * The text is read once with the Jackson streaming parser, which is much faster than composing it as YAML. Nodes get
+ * the same locations as when the text is read by {@link YamlNodeReader}: properties start at their key, and nodes end
+ * after the last character of their value.
+ */
+public class JsonNodeReader {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private JsonNode json;
+
+    /**
+     * Returns true if the text looks like a JSON document, i.e. if its content starts with an object or an array.
+     *
+     * @param text
+     * @return true if the text should be read as JSON
+     */
+    public static boolean isJson(String text) {
+        if (text == null) {
+            return false;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{' || c == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the model with the nodes read from the text.
+     *
+     * @param model
+     * @param text
+     * @return root of the model
+     * @throws IOException
+     *             if the text is not valid JSON
+     */
+    public AbstractNode read(Model model, String text) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() == null) {
+                throw new IOException("No content to read");
+            }
+
+            final JsonLocation start = parser.getTokenLocation();
+            final Value root = read(model, parser, null, "", start);
+            if (parser.nextToken() != null) {
+                throw new IOException("Unexpected content after the end of the document at " + parser.getTokenLocation());
+            }
+
+            json = root.json;
+            return root.node;
+        }
+    }
+
+    /**
+     * Returns the JSON tree of the last text that has been read.
+     *
+     * @return JSON tree
+     */
+    public JsonNode getJson() {
+        return json;
+    }
+
+    protected Value read(Model model, JsonParser parser, AbstractNode parent, String ptr, JsonLocation start)
+            throws IOException {
+        final Value value;
+        switch (parser.currentToken()) {
+        case START_OBJECT:
+            value = readObject(model, parser, parent, ptr);
+            break;
+        case START_ARRAY:
+            value = readArray(model, parser, parent, ptr);
+            break;
+        default:
+            value = readValue(model, parser, parent, ptr);
+            break;
+        }
+
+        value.node.setStartLocation(createLocation(start));
+        value.node.setEndLocation(createLocation(parser.getCurrentLocation()));
+        return value;
+    }
+
+    protected Value readObject(Model model, JsonParser parser, AbstractNode parent, String ptr) throws IOException {
+        final ObjectNode node = model.objectNode(parent, ptr);
+        final com.fasterxml.jackson.databind.node.ObjectNode json = factory.objectNode();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonLocation start = parser.getTokenLocation();
+            parser.nextToken();
+
+            final AbstractNode previous = node.get(name);
+            Value value = read(model, parser, node, Model.pointer(ptr, name), start);
+            value.node.setProperty(name);
+            node.put(name, value.node);
+            if (previous != null) {
+                model.addDuplicateKey(previous, value.node);
+            }
+            json.set(name, value.json);
+        }
+
+        return new Value(node, json);
+    }
+
+    protected Value readArray(Model model, JsonParser parser, AbstractNode parent, String ptr) throws IOException {
+        final ArrayNode node = model.arrayNode(parent, ptr);
+        final com.fasterxml.jackson.databind.node.ArrayNode json = factory.arrayNode();
+
+        int i = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Value value = read(model, parser, node, Model.pointer(ptr, i), parser.getTokenLocation());
+            node.add(value.node);
+            json.add(value.json);
+            i++;
+        }
+
+        return new Value(node, json);
+    }
+
+    protected Value readValue(Model model, JsonParser parser, AbstractNode parent, String ptr)
+            throws IOException {
+        final Object value = getValue(parser);
+        return new Value(model.valueNode(parent, ptr, value), toJsonValue(value));
+    }
+
+    /*
+     * Scalars are typed the same way they are typed by the YAML reader, strings are read before the location of their
+     * end is taken, as the parser reads them lazily.
+     */
+    static Object getValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+        case VALUE_STRING:
+            return parser.getText();
+        case VALUE_NUMBER_INT:
+            return parser.getNumberValue();
+        case VALUE_NUMBER_FLOAT:
+            return parser.getDoubleValue();
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+            return parser.getBooleanValue();
+        case VALUE_NULL:
+            return null;
+        default:
+            throw new IOException("Unexpected token " + parser.currentToken() + " at " + parser.getTokenLocation());
+        }
+    }
+
+    private JsonNode toJsonValue(Object value) {
+        if (value == null) {
+            return factory.nullNode();
+        } else if (value instanceof String) {
+            return factory.textNode((String) value);
+        } else if (value instanceof Boolean) {
+            return factory.booleanNode((Boolean) value);
+        } else if (value instanceof Integer) {
+            return factory.numberNode((Integer) value);
+        } else if (value instanceof Long) {
+            return factory.numberNode((Long) value);
+        } else if (value instanceof Double) {
+            return factory.numberNode((Double) value);
+        } else {
+            return factory.numberNode((BigInteger) value);
+        }
+    }
+
+    private Location createLocation(JsonLocation location) {
+        return new Location(location.getLineNr() - 1, location.getColumnNr() - 1);
+    }
+
+    /*
+     * Node of the model and JSON node created for the same value.
+     */
+    protected static class Value {
+        final AbstractNode node;
+        final JsonNode json;
+
+        Value(AbstractNode node, JsonNode json) {
+            this.node = node;
+            this.json = json;
+        }
+    }
+}
@@ -19,14 +19,20 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IPath;
+import org.yaml.snakeyaml.nodes.Node;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -44,11 +50,23 @@ import com.reprezen.swagedit.core.utils.StringUtils;
  */
 public class Model {
 
-    private final Map<JsonPointer, AbstractNode> nodes = new LinkedHashMap<>();
+    // all nodes by pointer, or only the nodes created by readers until the model is complete
+    private volatile Map<String, AbstractNode> nodes = new LinkedHashMap<>();
+    // false while the nodes copied from another model are created on demand, see BlockReparser
+    private volatile boolean complete = true;
     private final CompositeSchema schema;
     private IPath path;
-
-    private Model(CompositeSchema schema) {
+    private SortedSet<Integer> errorLines = Collections.emptySortedSet();
+    private boolean partial = false;
+    private final List<AbstractNode> duplicateKeys = new ArrayList<>();
+    // created on the first lookup of a node by position
+    private volatile LineIndex lineIndex;
+    // created on the first lookup of nodes by type
+    private volatile TypeIndex typeIndex;
+    // created on the first lookup of a symbol
+    private volatile SymbolTable symbolTable;
+
+    Model(CompositeSchema schema) {
         this(schema, null);
     }
 
@@ -65,7 +83,7 @@ public class Model {
      */
     public static Model empty(CompositeSchema schema) {
         Model model = new Model(schema);
-        ObjectNode root = new ObjectNode(model, null, JsonPointer.compile(""));
+        ObjectNode root = new ObjectNode(model, null, "");
         root.setType(model.schema.getType(root));
         model.add(root);
 
@@ -75,6 +93,9 @@ public class Model {
     /**
      * Returns a model build by parsing a YAML content.
      * 
+     * Content written in JSON is read with the JSON parser, see
+     * {@link #parseJson(CompositeSchema, String, JsonNodeReader)}.
+     * 
      * @param text
      * @return model
      */
@@ -83,17 +104,113 @@ public class Model {
             return empty(schema);
         }
 
+        if (JsonNodeReader.isJson(text)) {
+            Model model = parseJson(schema, text, new JsonNodeReader());
+            if (model != null) {
+                return model;
+            }
+        }
+
+        try {
+            return parseYaml(schema, YamlNodeReader.compose(text));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a model build by parsing a content that may not be valid YAML.
+     * 
+     * Lines that cannot be parsed are ignored, the model contains the nodes from all other lines, see
+     * {@link #getErrorLines()}.
+     * 
+     * @param schema
+     * @param text
+     * @return model, never null
+     */
+    public static Model recoverYaml(CompositeSchema schema, String text) {
+        return recoverYaml(schema, text, -1);
+    }
+
+    /**
+     * Returns a model build by parsing a content that may not be valid YAML, ignoring the content of the line that
+     * follows the given offset.
+     * 
+     * This is used by code-assist, the text after the cursor being often incomplete.
+     * 
+     * @param schema
+     * @param text
+     * @param offset
+     *            offset from which the line is ignored, or -1
+     * @return model, never null
+     */
+    public static Model recoverYaml(CompositeSchema schema, String text, int offset) {
+        if (StringUtils.emptyToNull(text) == null) {
+            return empty(schema);
+        }
+
+        YamlRecovery recovery = new YamlRecovery(text);
+        recovery.skipFrom(offset);
+        return recovery.read(schema);
+    }
+
+    /**
+     * Returns a model build from an already composed YAML document.
+     * 
+     * @param schema
+     * @param yaml
+     *            root node of the YAML document
+     * @return model, or null if the YAML document is empty or cannot be read
+     */
+    public static Model parseYaml(CompositeSchema schema, Node yaml) {
+        return parseYaml(schema, yaml, new YamlNodeReader());
+    }
+
+    /**
+     * Returns a model build from an already composed YAML document, using the given reader.
+     * 
+     * @param schema
+     * @param yaml
+     *            root node of the YAML document
+     * @param reader
+     * @return model, or null if the YAML document is empty or cannot be read
+     */
+    public static Model parseYaml(CompositeSchema schema, Node yaml, YamlNodeReader reader) {
+        if (yaml == null) {
+            return null;
+        }
+
         Model model = new Model(schema);
         try {
-            reader(model).readValue(text);
-        } catch (IllegalArgumentException | IOException e) {
+            reader.read(model, yaml);
+        } catch (IllegalArgumentException e) {
             return null;
         }
 
-        for (AbstractNode node : model.allNodes()) {
-            node.setType(model.schema.getType(node));
+        TypeResolver.resolve(model);
+
+        return model;
+    }
+
+    /**
+     * Returns a model build by parsing a JSON content, using the given reader. The JSON tree of the content is then
+     * available from the reader.
+     * 
+     * @param schema
+     * @param text
+     * @param reader
+     * @return model, or null if the content is not valid JSON
+     */
+    public static Model parseJson(CompositeSchema schema, String text, JsonNodeReader reader) {
+        Model model = new Model(schema);
+        try {
+            reader.read(model, text);
+        } catch (IOException e) {
+            return null;
         }
 
+        TypeResolver.resolve(model);
+
         return model;
     }
 
@@ -147,7 +264,7 @@ public class Model {
         return createMapper().reader() //
                 .withAttribute(ATTRIBUTE_MODEL, model) //
                 .withAttribute(ATTRIBUTE_PARENT, null) //
-                .withAttribute(ATTRIBUTE_POINTER, JsonPointer.compile("")) //
+                .withAttribute(ATTRIBUTE_POINTER, "") //
                 .forType(AbstractNode.class);
     }
 
@@ -161,6 +278,10 @@ public class Model {
      * @return object node
      */
     public ObjectNode objectNode(AbstractNode parent, JsonPointer ptr) {
+        return objectNode(parent, ptr != null ? ptr.toString() : null);
+    }
+
+    ObjectNode objectNode(AbstractNode parent, String ptr) {
         return (ObjectNode) add(new ObjectNode(this, parent, ptr));
     }
 
@@ -174,6 +295,10 @@ public class Model {
      * @return array node
      */
     public ArrayNode arrayNode(AbstractNode parent, JsonPointer ptr) {
+        return arrayNode(parent, ptr != null ? ptr.toString() : null);
+    }
+
+    ArrayNode arrayNode(AbstractNode parent, String ptr) {
         return (ArrayNode) add(new ArrayNode(this, parent, ptr));
     }
 
@@ -189,9 +314,28 @@ public class Model {
      * @return value node
      */
     public ValueNode valueNode(AbstractNode parent, JsonPointer ptr, Object value) {
+        return valueNode(parent, ptr != null ? ptr.toString() : null, value);
+    }
+
+    ValueNode valueNode(AbstractNode parent, String ptr, Object value) {
         return (ValueNode) add(new ValueNode(this, parent, ptr, value));
     }
 
+    /*
+     * Returns the pointer of a property of the node identified by the parent pointer. Readers build pointers by
+     * appending to the pointer of the parent, property names are escaped the same way by all of them.
+     */
+    static String pointer(String parent, String property) {
+        return parent + "/" + (property.indexOf('/') < 0 ? property : property.replace("/", "~1"));
+    }
+
+    /*
+     * Returns the pointer of an element of the array identified by the parent pointer.
+     */
+    static String pointer(String parent, int index) {
+        return parent + "/" + index;
+    }
+
     /**
      * Returns the path of the file that contains the model content.
      * 
@@ -205,6 +349,50 @@ public class Model {
         this.path = path;
     }
 
+    /**
+     * Returns the lines that have been ignored because they could not be parsed, see
+     * {@link #recoverYaml(CompositeSchema, String)}.
+     * 
+     * @return lines, empty if the whole content has been parsed
+     */
+    public SortedSet<Integer> getErrorLines() {
+        return errorLines;
+    }
+
+    void setErrorLines(SortedSet<Integer> lines) {
+        this.errorLines = Collections.unmodifiableSortedSet(new TreeSet<>(lines));
+    }
+
+    /**
+     * Returns the members of objects whose key is used more than once in the same object. All the members with such a
+     * key are returned, although only the last one is kept in the object.
+     * 
+     * @return members with a duplicate key, empty if all keys are unique
+     */
+    public List<AbstractNode> getDuplicateKeys() {
+        return Collections.unmodifiableList(duplicateKeys);
+    }
+
+    void addDuplicateKey(AbstractNode previous, AbstractNode node) {
+        if (!duplicateKeys.contains(previous)) {
+            duplicateKeys.add(previous);
+        }
+        duplicateKeys.add(node);
+    }
+
+    /**
+     * Returns true if the model only contains some of the nodes of the document, see {@link DocumentIndex}.
+     * 
+     * @return true if nodes are missing
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
     /**
      * Returns the node inside the model that can be
      * 
@@ -212,7 +400,7 @@ public class Model {
      * @return node
      */
     public AbstractNode find(JsonPointer pointer) {
-        return nodes.get(pointer);
+        return pointer != null ? get(pointer.toString()) : null;
     }
 
     public AbstractNode find(String pointer) {
@@ -233,15 +421,110 @@ public class Model {
         }
 
         try {
-            return nodes.get(JsonPointer.valueOf(pointer));
+            return get(JsonPointer.valueOf(pointer).toString());
         } catch (Exception e) {
             return null;
         }
     }
 
+    private AbstractNode get(String pointer) {
+        // read first, a model that is complete has all its nodes in the map
+        final boolean all = complete;
+        final AbstractNode node = nodes.get(pointer);
+        return node != null || all ? node : walk(pointer);
+    }
+
+    /*
+     * Finds a node by walking from the root, creating the copied nodes on the way.
+     */
+    private AbstractNode walk(String pointer) {
+        AbstractNode current = getRoot();
+        int start = 0;
+        while (current != null && start < pointer.length()) {
+            if (pointer.charAt(start) != '/') {
+                return null;
+            }
+
+            int end = pointer.indexOf('/', start + 1);
+            if (end < 0) {
+                end = pointer.length();
+            }
+            final String segment = pointer.substring(start + 1, end);
+
+            if (current.isObject()) {
+                current = current.get(segment.replace("~1", "/"));
+            } else if (current.isArray()) {
+                try {
+                    final int index = Integer.parseInt(segment);
+                    current = index >= 0 && index < current.size() ? current.get(index) : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            start = end;
+        }
+
+        return current != null && pointer.equals(current.getPointerString()) ? current : null;
+    }
+
+    /*
+     * Returns a copy of a node of another model, the elements of the copy are created on first access. The copy is
+     * not added to the nodes of this model, they are collected when the model is completed.
+     */
+    AbstractNode copy(AbstractNode parent, AbstractNode node, int lines) {
+        final AbstractNode copy;
+        if (node.isObject()) {
+            copy = new ObjectNode(this, parent, node.getPointerString());
+        } else if (node.isArray()) {
+            copy = new ArrayNode(this, parent, node.getPointerString());
+        } else {
+            copy = new ValueNode(this, parent, node.getPointerString(), node.asValue().getValue());
+        }
+        copy.copyOf(node, lines);
+        return copy;
+    }
+
+    /*
+     * Marks the model as containing copies whose elements are created on demand.
+     */
+    void setIncomplete() {
+        this.complete = false;
+    }
+
+    /*
+     * Returns all the nodes, creating the ones that have not been copied yet.
+     */
+    private Map<String, AbstractNode> getNodes() {
+        if (!complete) {
+            synchronized (this) {
+                if (!complete) {
+                    final Map<String, AbstractNode> all = new LinkedHashMap<>();
+                    collect(getRoot(), all);
+                    nodes = all;
+                    complete = true;
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private void collect(AbstractNode node, Map<String, AbstractNode> all) {
+        if (node != null) {
+            all.put(node.getPointerString(), node);
+            for (AbstractNode element : node.elements()) {
+                collect(element, all);
+            }
+        }
+    }
+
     private AbstractNode add(AbstractNode node) {
-        if (node != null && node.getPointer() != null) {
-            nodes.put(node.getPointer(), node);
+        if (node != null && node.getPointerString() != null) {
+            nodes.put(node.getPointerString(), node);
+            lineIndex = null;
+            typeIndex = null;
+            symbolTable = null;
         }
         return node;
     }
@@ -252,7 +535,7 @@ public class Model {
      * @return node
      */
     public AbstractNode getRoot() {
-        return nodes.get(JsonPointer.compile(""));
+        return nodes.get("");
     }
 
     /**
@@ -307,7 +590,7 @@ public class Model {
      * @return iterable of nodes
      */
     public Iterable<AbstractNode> allNodes() {
-        return nodes.values();
+        return getNodes().values();
     }
 
     protected AbstractNode findChildren(AbstractNode current, int line, int column) {
@@ -342,16 +625,15 @@ public class Model {
     }
 
     protected AbstractNode forLine(int line) {
-        final AbstractNode root = getRoot();
-        for (AbstractNode node : allNodes()) {
-            if (node != root && node.getStart().getLine() == line) {
-                return node;
-            }
-        }
-        return null;
+        return getLineIndex().first(line);
     }
 
     protected AbstractNode findBeforeLine(int line, int column) {
+        final LineIndex index = getLineIndex();
+        if (index.isSorted()) {
+            return index.before(line);
+        }
+
         AbstractNode root = getRoot();
         AbstractNode found = null, before = null;
         Iterator<AbstractNode> it = allNodes().iterator();
@@ -385,21 +667,52 @@ public class Model {
         return (property.length() + 1) + n.getStart().getColumn();
     }
 
+    private LineIndex getLineIndex() {
+        LineIndex index = lineIndex;
+        if (index == null) {
+            index = new LineIndex(getNodes().values(), getRoot());
+            lineIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Returns all the nodes whose type match the given pointer.
      * 
      * @param typePointer
      *            pointer of a type present in the schema
-     * @return list of nodes being instance of the type
+     * @return unmodifiable list of nodes being instance of the type
      */
     public List<AbstractNode> findByType(JsonPointer typePointer) {
-        List<AbstractNode> instances = new ArrayList<>();
-        for (AbstractNode node : allNodes()) {
-            if (node.getType() != null && typePointer.equals(node.getType().getPointer())) {
-                instances.add(node);
-            }
+        return getTypeIndex().get(typePointer);
+    }
+
+    /**
+     * Returns the table of the operation ids, components, security schemes and path parameters declared in this model.
+     * 
+     * @return symbol table
+     */
+    public SymbolTable getSymbols() {
+        SymbolTable symbols = symbolTable;
+        if (symbols == null) {
+            symbols = new SymbolTable(this);
+            symbolTable = symbols;
         }
-        return instances;
+        return symbols;
+    }
+
+    void typeChanged() {
+        typeIndex = null;
+        symbolTable = null;
+    }
+
+    private TypeIndex getTypeIndex() {
+        TypeIndex index = typeIndex;
+        if (index == null) {
+            index = new TypeIndex(getNodes().values());
+            typeIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -413,7 +726,7 @@ public class Model {
 
     @Override
     public int hashCode() {
-        return Objects.hash(nodes, path);
+        return Objects.hash(getNodes(), path);
     }
 
     @Override
@@ -429,4 +742,89 @@ public class Model {
         return Objects.equals(other.path, path);
     }
 
+    /*
+     * Nodes of the model indexed by the line on which they start, so that nodes can be found from a position without
+     * iterating over the whole model. The root node is not indexed.
+     */
+    private static class LineIndex {
+
+        private final AbstractNode[] nodes;
+        private final int[] lines;
+        private final Map<Integer, AbstractNode> firstOnLine = new HashMap<>();
+        private final boolean sorted;
+
+        LineIndex(Collection<AbstractNode> all, AbstractNode root) {
+            final List<AbstractNode> indexed = new ArrayList<>(all.size());
+            for (AbstractNode node : all) {
+                if (node != root) {
+                    indexed.add(node);
+                }
+            }
+
+            this.nodes = indexed.toArray(new AbstractNode[indexed.size()]);
+            this.lines = new int[nodes.length];
+
+            boolean isSorted = true;
+            for (int i = 0; i < nodes.length; i++) {
+                lines[i] = nodes[i].getStart().getLine();
+                firstOnLine.putIfAbsent(lines[i], nodes[i]);
+                if (i > 0 && lines[i] < lines[i - 1]) {
+                    isSorted = false;
+                }
+            }
+            this.sorted = isSorted;
+        }
+
+        /*
+         * Returns true if nodes appear in the model in the order of their lines, which is not the case when aliases
+         * or duplicate keys are used.
+         */
+        boolean isSorted() {
+            return sorted;
+        }
+
+        AbstractNode first(int line) {
+            return firstOnLine.get(line);
+        }
+
+        /*
+         * Returns the node that precedes the first node starting on or after the line, or the last node if there is
+         * none. Nodes must be sorted.
+         */
+        AbstractNode before(int line) {
+            int low = 0;
+            int high = lines.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (lines[middle] >= line) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low > 0 ? nodes[low - 1] : null;
+        }
+    }
+
+    /*
+     * Nodes of the model grouped by the pointer of their type, in the order of the model.
+     */
+    private static class TypeIndex {
+
+        private final Map<JsonPointer, List<AbstractNode>> nodes = new HashMap<>();
+
+        TypeIndex(Collection<AbstractNode> all) {
+            for (AbstractNode node : all) {
+                if (node.getType() != null && node.getType().getPointer() != null) {
+                    nodes.computeIfAbsent(node.getType().getPointer(), key -> new ArrayList<>()).add(node);
+                }
+            }
+            nodes.replaceAll((key, value) -> Collections.unmodifiableList(value));
+        }
+
+        List<AbstractNode> get(JsonPointer type) {
+            return type != null ? nodes.getOrDefault(type, Collections.emptyList()) : Collections.emptyList();
+        }
+    }
+
 }
@@ -14,7 +14,6 @@ import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonLocation;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -50,7 +49,7 @@ public class NodeDeserializer extends JsonDeserializer<AbstractNode> {
 
         final Model model = (Model) context.getAttribute(ATTRIBUTE_MODEL);
         final AbstractNode parent = (AbstractNode) context.getAttribute(ATTRIBUTE_PARENT);
-        final JsonPointer ptr = (JsonPointer) context.getAttribute(ATTRIBUTE_POINTER);
+        final String ptr = (String) context.getAttribute(ATTRIBUTE_POINTER);
 
         final ObjectNode node = model.objectNode(parent, ptr);
         node.setStartLocation(createLocation(startLocation));
@@ -58,9 +57,8 @@ public class NodeDeserializer extends JsonDeserializer<AbstractNode> {
         while (p.nextToken() != JsonToken.END_OBJECT) {
             String name = p.getCurrentName();
 
-            JsonPointer pp = JsonPointer.compile(ptr.toString() + "/" + name.replaceAll("/", "~1"));
             context.setAttribute(ATTRIBUTE_PARENT, node);
-            context.setAttribute(ATTRIBUTE_POINTER, pp);
+            context.setAttribute(ATTRIBUTE_POINTER, Model.pointer(ptr, name));
 
             AbstractNode v = deserialize(p, context);
             v.setProperty(name);
@@ -75,16 +73,14 @@ public class NodeDeserializer extends JsonDeserializer<AbstractNode> {
             throws IOException {
         final Model model = (Model) context.getAttribute(ATTRIBUTE_MODEL);
         final AbstractNode parent = (AbstractNode) context.getAttribute(ATTRIBUTE_PARENT);
-        final JsonPointer ptr = (JsonPointer) context.getAttribute(ATTRIBUTE_POINTER);
+        final String ptr = (String) context.getAttribute(ATTRIBUTE_POINTER);
 
         ArrayNode node = model.arrayNode(parent, ptr);
 
         int i = 0;
         while (p.nextToken() != JsonToken.END_ARRAY) {
-            JsonPointer pp = JsonPointer.compile(ptr.toString() + "/" + i);
-
             context.setAttribute(ATTRIBUTE_PARENT, node);
-            context.setAttribute(ATTRIBUTE_POINTER, pp);
+            context.setAttribute(ATTRIBUTE_POINTER, Model.pointer(ptr, i));
 
             AbstractNode v = deserialize(p, context);
 
@@ -101,7 +97,7 @@ public class NodeDeserializer extends JsonDeserializer<AbstractNode> {
             throws IOException {
         final Model model = (Model) context.getAttribute(ATTRIBUTE_MODEL);
         final AbstractNode parent = (AbstractNode) context.getAttribute(ATTRIBUTE_PARENT);
-        final JsonPointer ptr = (JsonPointer) context.getAttribute(ATTRIBUTE_POINTER);
+        final String ptr = (String) context.getAttribute(ATTRIBUTE_POINTER);
 
         Object v = context.readValue(p, Object.class);
 
@@ -10,37 +10,82 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.model;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-
-import com.fasterxml.jackson.core.JsonPointer;
+import java.util.Objects;
 
 public class ObjectNode extends AbstractNode {
 
-    private final Map<String, AbstractNode> elements = new LinkedHashMap<>();
+    // objects with more properties are given a map from names to positions
+    private static final int MAX_SCANNED = 8;
+    private static final String[] NO_NAMES = new String[0];
+    private static final AbstractNode[] NO_ELEMENTS = new AbstractNode[0];
+
+    // properties are kept in the order they are added, a property that is added again keeps its position
+    private String[] names = NO_NAMES;
+    private AbstractNode[] values = NO_ELEMENTS;
+    private int size = 0;
+    private Map<String, Integer> positions;
 
-    ObjectNode(Model model, AbstractNode parent, JsonPointer ptr) {
+    ObjectNode(Model model, AbstractNode parent, String ptr) {
         super(model, parent, ptr);
     }
 
     @Override
     public AbstractNode get(int pos) {
+        copyElements();
         return elements()[pos];
     }
 
     @Override
     public AbstractNode get(String property) {
-        return elements.get(property);
+        copyElements();
+        final int position = indexOf(property);
+        return position >= 0 ? values[position] : null;
     }
 
     public AbstractNode put(String property, AbstractNode value) {
-        this.elements.put(property, value);
+        copyElements();
+        return doPut(property, value);
+    }
+
+    @Override
+    void addElement(AbstractNode element) {
+        doPut(element.getProperty(), element);
+    }
+
+    private AbstractNode doPut(String property, AbstractNode value) {
+        final int position = indexOf(property);
+        if (position >= 0) {
+            values[position] = value;
+            return this;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, Math.max(2, size * 2));
+            values = Arrays.copyOf(values, names.length);
+        }
+        names[size] = property;
+        values[size] = value;
+        size++;
+
+        if (positions != null) {
+            positions.put(property, size - 1);
+        } else if (size > MAX_SCANNED) {
+            positions = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                positions.put(names[i], i);
+            }
+        }
         return this;
     }
 
     public Collection<String> fieldNames() {
-        return elements.keySet();
+        copyElements();
+        return Collections.unmodifiableList(Arrays.asList(names).subList(0, size));
     }
 
     @Override
@@ -55,7 +100,8 @@ public class ObjectNode extends AbstractNode {
 
     @Override
     public AbstractNode[] elements() {
-        return elements.values().toArray(new AbstractNode[elements.size()]);
+        copyElements();
+        return Arrays.copyOf(values, size);
     }
 
     @Override
@@ -65,6 +111,27 @@ public class ObjectNode extends AbstractNode {
 
     @Override
     public String toString() {
-        return elements.toString();
+        copyElements();
+        final StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(names[i]).append('=').append(values[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private int indexOf(String property) {
+        if (positions != null) {
+            final Integer position = positions.get(property);
+            return position != null ? position : -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(names[i], property)) {
+                return i;
+            }
+        }
+        return -1;
     }
-}
\ No newline at end of file
+}
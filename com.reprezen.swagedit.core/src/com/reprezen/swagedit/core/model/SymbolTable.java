@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.reprezen.swagedit.core.json.references.JsonReference;
+
+/**
+ * Names declared in a model and referenced from other parts of the model: operation ids, components, security schemes
+ * with their scopes, and parameters of paths.
+ *
+ * The table is created once for a model, see {@link Model#getSymbols()}, and answers each lookup without reading the
+ * model again.
+ */
+public class SymbolTable {
+
+    /**
+     * Pointer of the type of operations, in Swagger and OpenAPI 3 schemas.
+     */
+    public static final JsonPointer OPERATION_TYPE = JsonPointer.compile("/definitions/operation");
+
+    /**
+     * Pointer of the security schemes of an OpenAPI 3 document.
+     */
+    public static final JsonPointer SECURITY_SCHEMES = JsonPointer.compile("/components/securitySchemes");
+
+    /**
+     * Pointer of the security schemes of a Swagger document.
+     */
+    public static final JsonPointer SECURITY_DEFINITIONS = JsonPointer.compile("/securityDefinitions");
+
+    private static final List<String> METHODS = Arrays.asList(//
+            "get", "post", "put", "delete", "options", "head", "patch", "trace");
+
+    // containers of components of Swagger documents, OpenAPI 3 components are all the members of /components
+    private static final List<String> ROOT_CONTAINERS = Arrays.asList(//
+            "definitions", "parameters", "responses", "securityDefinitions");
+
+    private final Map<Object, AbstractNode> operationIds = new LinkedHashMap<>();
+    private final Map<JsonPointer, Map<String, AbstractNode>> components = new HashMap<>();
+    private final Map<JsonPointer, Map<String, Set<String>>> securityScopes = new HashMap<>();
+    private final Map<String, Map<String, Map<String, JsonPointer>>> pathParameters = new HashMap<>();
+
+    SymbolTable(Model model) {
+        for (AbstractNode operation : model.findByType(OPERATION_TYPE)) {
+            AbstractNode value = operation.get("operationId");
+            if (value != null && value.isValue() && value.asValue().getValue() != null) {
+                operationIds.putIfAbsent(value.asValue().getValue(), value);
+            }
+        }
+
+        final AbstractNode root = model.getRoot();
+        if (root != null && root.isObject()) {
+            for (String name : ROOT_CONTAINERS) {
+                addComponents(root.get(name));
+            }
+            final AbstractNode containers = root.get("components");
+            if (containers != null && containers.isObject()) {
+                for (AbstractNode container : containers.elements()) {
+                    addComponents(container);
+                }
+            }
+            addPathParameters(model, root.get("paths"));
+        }
+
+        addSecurityScopes(SECURITY_SCHEMES, "flows");
+        addSecurityScopes(SECURITY_DEFINITIONS, null);
+    }
+
+    /**
+     * Returns the values of the operationId of all operations, in the order of the document.
+     *
+     * @return unmodifiable set of operation ids
+     */
+    public Set<Object> getOperationIds() {
+        return Collections.unmodifiableSet(operationIds.keySet());
+    }
+
+    /**
+     * Returns the node of the first operationId that has the given value.
+     *
+     * @param operationId
+     * @return operationId node or null
+     */
+    public AbstractNode getOperationId(Object operationId) {
+        return operationIds.get(operationId);
+    }
+
+    /**
+     * Returns the names of the components declared in a container, for example <code>/components/schemas</code> or
+     * <code>/definitions</code>.
+     *
+     * @param container
+     *            pointer of the container
+     * @return unmodifiable set of names, in the order of the document
+     */
+    public Set<String> getComponentNames(JsonPointer container) {
+        Map<String, AbstractNode> names = components.get(container);
+        return names != null ? Collections.unmodifiableSet(names.keySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the component declared with the given name in a container.
+     *
+     * @param container
+     *            pointer of the container
+     * @param name
+     * @return component node or null
+     */
+    public AbstractNode getComponent(JsonPointer container, String name) {
+        Map<String, AbstractNode> names = components.get(container);
+        return names != null ? names.get(name) : null;
+    }
+
+    /**
+     * Returns the scopes of a security scheme, declared by the flows of an OpenAPI 3 scheme or by a Swagger scheme.
+     *
+     * @param container
+     *            either {@link #SECURITY_SCHEMES} or {@link #SECURITY_DEFINITIONS}
+     * @param name
+     *            name of the scheme
+     * @return unmodifiable set of scopes, empty if the scheme does not exist
+     */
+    public Set<String> getSecurityScopes(JsonPointer container, String name) {
+        Map<String, Set<String>> schemes = securityScopes.get(container);
+        Set<String> scopes = schemes != null ? schemes.get(name) : null;
+        return scopes != null ? Collections.unmodifiableSet(scopes) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the parameters of the operations of a path that have the given name.
+     *
+     * Parameters given by a reference are resolved, the pointer is then the pointer of the referenced parameter.
+     *
+     * @param path
+     *            pointer of the path, for example <code>/paths/~1pets~1{id}</code>
+     * @param name
+     *            name of the parameter
+     * @return unmodifiable map from the methods of the operations to the pointers of the parameters
+     */
+    public Map<String, JsonPointer> getPathParameters(JsonPointer path, String name) {
+        Map<String, Map<String, JsonPointer>> parameters = pathParameters.get(path.toString());
+        Map<String, JsonPointer> methods = parameters != null ? parameters.get(name) : null;
+        return methods != null ? Collections.unmodifiableMap(methods) : Collections.emptyMap();
+    }
+
+    private void addComponents(AbstractNode container) {
+        if (container == null || !container.isObject()) {
+            return;
+        }
+
+        final Map<String, AbstractNode> names = new LinkedHashMap<>();
+        for (AbstractNode component : container.elements()) {
+            names.put(component.getProperty(), component);
+        }
+        components.put(container.getPointer(), names);
+    }
+
+    private void addSecurityScopes(JsonPointer container, String flows) {
+        final Map<String, AbstractNode> schemes = components.get(container);
+        if (schemes == null) {
+            return;
+        }
+
+        final Map<String, Set<String>> scopes = new HashMap<>();
+        for (Map.Entry<String, AbstractNode> scheme : schemes.entrySet()) {
+            final Set<String> names = new LinkedHashSet<>();
+            if (flows == null) {
+                addScopes(scheme.getValue(), names);
+            } else {
+                AbstractNode values = scheme.getValue().get(flows);
+                if (values != null) {
+                    for (AbstractNode flow : values.elements()) {
+                        addScopes(flow, names);
+                    }
+                }
+            }
+            scopes.put(scheme.getKey(), names);
+        }
+        securityScopes.put(container, scopes);
+    }
+
+    private void addScopes(AbstractNode node, Set<String> names) {
+        AbstractNode values = node.get("scopes");
+        if (values != null && values.isObject()) {
+            names.addAll(values.asObject().fieldNames());
+        }
+    }
+
+    private void addPathParameters(Model model, AbstractNode paths) {
+        if (paths == null || !paths.isObject()) {
+            return;
+        }
+
+        for (AbstractNode path : paths.elements()) {
+            if (!path.isObject()) {
+                continue;
+            }
+
+            final Map<String, Map<String, JsonPointer>> parameters = new HashMap<>();
+            for (String method : METHODS) {
+                AbstractNode operation = path.get(method);
+                AbstractNode values = operation != null ? operation.get("parameters") : null;
+                if (values == null || !values.isArray()) {
+                    continue;
+                }
+
+                for (AbstractNode current : values.elements()) {
+                    AbstractNode parameter = current;
+                    JsonPointer pointer = current.getPointer();
+                    if (JsonReference.isReference(current)) {
+                        pointer = JsonReference.getPointer(current.asObject());
+                        parameter = pointer != null ? model.find(pointer) : null;
+                    }
+
+                    AbstractNode name = parameter != null && parameter.isObject() ? parameter.get("name") : null;
+                    if (name != null && name.isValue() && name.asValue().getValue() instanceof String) {
+                        parameters.computeIfAbsent((String) name.asValue().getValue(), key -> new HashMap<>())
+                                .put(method, pointer);
+                    }
+                }
+            }
+            pathParameters.put(path.getPointerString(), parameters);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.reprezen.swagedit.core.schema.CompositeSchema;
+import com.reprezen.swagedit.core.schema.TypeDefinition;
+
+/**
+ * Sets the types of nodes from the types of their parents.
+ *
+ * Nodes get the same types as the ones returned by {@link CompositeSchema#getType(AbstractNode)}, which walks the
+ * schema from its root for each node. Here the type of a node is found with a single lookup in the type of its parent,
+ * the parent being resolved first. Once a property is not found in the schema, the descendants of the node keep the
+ * last type found.
+ *
+ * Nodes whose parent has not been resolved by this resolver, as well as nodes whose pointer contains an empty
+ * property, are resolved from the root of the schema.
+ */
+class TypeResolver {
+
+    private final CompositeSchema schema;
+    // resolved nodes, mapped to false if a property of their pointer is not in the schema
+    private final Map<AbstractNode, Boolean> resolved = new IdentityHashMap<>();
+
+    TypeResolver(CompositeSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Sets the type of all nodes of the model, in the order of the model where parents come before their children.
+     *
+     * @param model
+     */
+    static void resolve(Model model) {
+        final TypeResolver resolver = new TypeResolver(model.getSchema());
+        for (AbstractNode node : model.allNodes()) {
+            resolver.resolve(node);
+        }
+    }
+
+    /**
+     * Sets the type of the node.
+     *
+     * @param node
+     */
+    void resolve(AbstractNode node) {
+        final AbstractNode parent = node.getParent();
+        final Boolean found = parent != null ? resolved.get(parent) : null;
+        final String pointer = node.getPointerString();
+
+        if (found == null || pointer.endsWith("/") || pointer.contains("//")) {
+            node.setType(schema.getType(node));
+            if (pointer.isEmpty()) {
+                resolved.put(node, node.getType() != null);
+            }
+            return;
+        }
+
+        final TypeDefinition parentType = parent.getType();
+        final TypeDefinition type = found ? parentType.getPropertyType(pointer.substring(pointer.lastIndexOf('/') + 1))
+                : null;
+
+        if (type != null) {
+            node.setType(type);
+            resolved.put(node, true);
+        } else {
+            node.setType(parentType);
+            resolved.put(node, false);
+        }
+    }
+
+}
@@ -10,13 +10,11 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.model;
 
-import com.fasterxml.jackson.core.JsonPointer;
-
 public class ValueNode extends AbstractNode {
 
     private final Object value;
 
-    ValueNode(Model model, AbstractNode parent, JsonPointer ptr, Object value) {
+    ValueNode(Model model, AbstractNode parent, String ptr, Object value) {
         super(model, parent, ptr);
 
         this.value = value;
@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Builds the different representations of a document from a single YAML composition.
+ *
+ * The document text is scanned and composed only once by SnakeYAML. The resulting node tree is then walked to create
+ * the {@link Model} and the JSON tree, so that both views share the same parse.
+ *
+ * Scalars are typed the same way the Jackson YAML parser and {@link Yaml#load(String)} type them, using the tags
+ * resolved by the composer. Aliases are expanded in both views.
+ */
+public class YamlNodeReader {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    private final ScalarConstructor constructor = new ScalarConstructor();
+    private final Set<Node> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> flowCollections = new HashSet<>();
+    // property names shared by all the nodes read, the same keys being repeated in most documents
+    private final Map<String, String> names = new HashMap<>();
+    private final int firstLine;
+    private boolean linked = false;
+
+    public YamlNodeReader() {
+        this(0);
+    }
+
+    /**
+     * Creates a reader for a YAML tree composed from a part of a document.
+     * 
+     * @param firstLine
+     *            line in the document of the first line of the composed text
+     */
+    public YamlNodeReader(int firstLine) {
+        this.firstLine = firstLine;
+    }
+
+    /**
+     * Composes the text into a YAML node tree.
+     *
+     * Will throw an exception if the text is not valid YAML.
+     *
+     * @param text
+     * @return root node, or null if the text has no content
+     */
+    public static Node compose(String text) {
+        return new Yaml().compose(new StringReader(text));
+    }
+
+    /**
+     * Fills the model with the nodes created from the YAML node tree.
+     *
+     * @param model
+     * @param yaml
+     *            root node
+     * @return root of the model
+     */
+    public AbstractNode read(Model model, Node yaml) {
+        return read(model, null, "", yaml, yaml.getStartMark());
+    }
+
+    /**
+     * Reads the value of a mapping entry and adds it to the parent node.
+     * 
+     * @param model
+     * @param parent
+     * @param tuple
+     *            mapping entry
+     * @return node created for the entry value, or null if the entry key is not a scalar
+     */
+    public AbstractNode readProperty(Model model, ObjectNode parent, NodeTuple tuple) {
+        Node keyNode = tuple.getKeyNode();
+        String name = keyNode instanceof ScalarNode ? ((ScalarNode) keyNode).getValue() : null;
+        if (name == null) {
+            linked = true;
+            return null;
+        }
+        final AbstractNode previous = parent.get(name);
+        if (Tag.MERGE.equals(keyNode.getTag()) || previous != null) {
+            linked = true;
+        }
+
+        final String interned = names.putIfAbsent(name, name);
+        if (interned != null) {
+            name = interned;
+        }
+
+        AbstractNode node = read(model, parent, Model.pointer(parent.getPointerString(), name), tuple.getValueNode(),
+                keyNode.getStartMark());
+        node.setProperty(name);
+        parent.put(name, node);
+        if (previous != null) {
+            model.addDuplicateKey(previous, node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the pointers of the nodes read so far that are written as flow collections.
+     * 
+     * @return pointers, as strings
+     */
+    public Set<String> getFlowCollections() {
+        return flowCollections;
+    }
+
+    /**
+     * Returns true if the nodes read so far use aliases, merge keys, duplicate keys or complex keys. In that case the
+     * value of a node may depend on other parts of the document.
+     * 
+     * @return true if some nodes are linked to others
+     */
+    public boolean hasLinkedNodes() {
+        return linked;
+    }
+
+    /**
+     * Returns the JSON representation of the YAML node tree.
+     *
+     * The result is the same as converting the result of {@link Yaml#load(String)} into a tree with Jackson.
+     *
+     * @param yaml
+     *            root node
+     * @return JSON tree
+     * @throws IllegalArgumentException
+     *             if the YAML tree cannot be represented as JSON
+     */
+    public JsonNode toJson(Node yaml) {
+        if (!visiting.add(yaml)) {
+            throw new IllegalArgumentException("Recursive aliases cannot be represented as JSON");
+        }
+
+        try {
+            switch (yaml.getNodeId()) {
+            case mapping:
+                return toJsonObject((MappingNode) yaml);
+            case sequence:
+                com.fasterxml.jackson.databind.node.ArrayNode array = factory.arrayNode();
+                for (Node value : ((SequenceNode) yaml).getValue()) {
+                    array.add(toJson(value));
+                }
+                return array;
+            default:
+                return toJsonValue(constructor.construct(yaml));
+            }
+        } finally {
+            visiting.remove(yaml);
+        }
+    }
+
+    protected AbstractNode read(Model model, AbstractNode parent, String ptr, Node yaml, Mark start) {
+        if (!visiting.add(yaml)) {
+            throw new IllegalArgumentException("Recursive aliases are not supported");
+        }
+        if (!visited.add(yaml)) {
+            linked = true;
+        }
+
+        final AbstractNode node;
+        try {
+            switch (yaml.getNodeId()) {
+            case mapping:
+                node = readObject(model, parent, ptr, (MappingNode) yaml);
+                break;
+            case sequence:
+                node = readArray(model, parent, ptr, (SequenceNode) yaml);
+                break;
+            default:
+                node = model.valueNode(parent, ptr, getValue((ScalarNode) yaml));
+                break;
+            }
+        } finally {
+            visiting.remove(yaml);
+        }
+
+        node.setStartLocation(createLocation(start));
+        node.setEndLocation(createLocation(yaml.getEndMark()));
+        return node;
+    }
+
+    protected ObjectNode readObject(Model model, AbstractNode parent, String ptr, MappingNode yaml) {
+        final ObjectNode node = model.objectNode(parent, ptr);
+        if (yaml.getFlowStyle() == FlowStyle.FLOW) {
+            flowCollections.add(ptr);
+        }
+
+        for (NodeTuple tuple : yaml.getValue()) {
+            readProperty(model, node, tuple);
+        }
+
+        return node;
+    }
+
+    protected ArrayNode readArray(Model model, AbstractNode parent, String ptr, SequenceNode yaml) {
+        final ArrayNode node = model.arrayNode(parent, ptr);
+        if (yaml.getFlowStyle() == FlowStyle.FLOW) {
+            flowCollections.add(ptr);
+        }
+
+        int i = 0;
+        for (Node value : yaml.getValue()) {
+            node.add(read(model, node, Model.pointer(ptr, i), value, value.getStartMark()));
+            i++;
+        }
+
+        return node;
+    }
+
+    /*
+     * Only booleans, numbers and nulls are typed, other scalars are kept as strings.
+     */
+    protected Object getValue(ScalarNode yaml) {
+        Tag tag = yaml.getTag();
+        if (Tag.INT.equals(tag) || Tag.FLOAT.equals(tag) || Tag.BOOL.equals(tag) || Tag.NULL.equals(tag)
+                || Tag.BINARY.equals(tag)) {
+            try {
+                return constructor.construct(yaml);
+            } catch (RuntimeException e) {
+                return yaml.getValue();
+            }
+        }
+        return yaml.getValue();
+    }
+
+    protected JsonNode toJsonObject(MappingNode yaml) {
+        final com.fasterxml.jackson.databind.node.ObjectNode node = factory.objectNode();
+        final List<com.fasterxml.jackson.databind.node.ObjectNode> merged = new ArrayList<>();
+
+        for (NodeTuple tuple : yaml.getValue()) {
+            if (Tag.MERGE.equals(tuple.getKeyNode().getTag())) {
+                collectMerged(tuple.getValueNode(), merged);
+            }
+        }
+
+        // explicit keys take precedence over merged ones,
+        // and the first merged mappings take precedence over the last.
+        for (com.fasterxml.jackson.databind.node.ObjectNode values : merged) {
+            values.fields().forEachRemaining(e -> {
+                if (!node.has(e.getKey())) {
+                    node.set(e.getKey(), e.getValue());
+                }
+            });
+        }
+
+        for (NodeTuple tuple : yaml.getValue()) {
+            if (!Tag.MERGE.equals(tuple.getKeyNode().getTag())) {
+                node.set(toJsonKey(tuple.getKeyNode()), toJson(tuple.getValueNode()));
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the name of the JSON field created for a mapping key.
+     * 
+     * @param key
+     * @return field name
+     * @throws IllegalArgumentException
+     *             if the key is null
+     */
+    public String toJsonKey(Node key) {
+        Object value = constructor.construct(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Null key for a Map not allowed in JSON");
+        }
+        return String.valueOf(value);
+    }
+
+    private void collectMerged(Node value, List<com.fasterxml.jackson.databind.node.ObjectNode> merged) {
+        if (value instanceof MappingNode) {
+            merged.add((com.fasterxml.jackson.databind.node.ObjectNode) toJson(value));
+        } else if (value instanceof SequenceNode) {
+            for (Node element : ((SequenceNode) value).getValue()) {
+                if (!(element instanceof MappingNode)) {
+                    throw new IllegalArgumentException("Expected a mapping for merging, but found " + element.getNodeId());
+                }
+                merged.add((com.fasterxml.jackson.databind.node.ObjectNode) toJson(element));
+            }
+        } else {
+            throw new IllegalArgumentException(
+                    "Expected a mapping or list of mappings for merging, but found " + value.getNodeId());
+        }
+    }
+
+    protected JsonNode toJsonValue(Object value) {
+        if (value == null) {
+            return factory.nullNode();
+        } else if (value instanceof String) {
+            return factory.textNode((String) value);
+        } else if (value instanceof Boolean) {
+            return factory.booleanNode((Boolean) value);
+        } else if (value instanceof Integer) {
+            return factory.numberNode((Integer) value);
+        } else if (value instanceof Long) {
+            return factory.numberNode((Long) value);
+        } else if (value instanceof BigInteger) {
+            return factory.numberNode((BigInteger) value);
+        } else if (value instanceof Double) {
+            return factory.numberNode((Double) value);
+        } else {
+            // dates, binaries and other types are converted
+            // the same way Jackson converts them.
+            return mapper.valueToTree(value);
+        }
+    }
+
+    private Location createLocation(Mark mark) {
+        return new Location(firstLine + mark.getLine(), mark.getColumn());
+    }
+
+    /*
+     * Constructor exposing the construction of single nodes. Constructed nodes are not cached, and the YAML tree is not
+     * modified, so that the same tree can be used for all representations of the document.
+     */
+    private static class ScalarConstructor extends Constructor {
+
+        Object construct(Node node) {
+            if (node instanceof ScalarNode) {
+                return getConstructor(node).construct(node);
+            }
+            return constructObject(node);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.scanner.ScannerException;
+
+import com.reprezen.swagedit.core.schema.CompositeSchema;
+
+/**
+ * Creates a model from a text that is not valid YAML.
+ *
+ * The lines on which the composer reports errors are replaced by blank lines until the text can be composed. The
+ * length of the text and the position of each line are kept, so that the nodes read from the other lines have the
+ * same locations as in the original text.
+ */
+class YamlRecovery {
+
+    /**
+     * Maximum number of lines that are skipped before giving up.
+     */
+    static final int MAX_ERRORS = 20;
+
+    private final char[] chars;
+    private final List<Integer> lineOffsets = new ArrayList<>();
+    private final SortedSet<Integer> skipped = new TreeSet<>();
+
+    YamlRecovery(String text) {
+        this.chars = text.toCharArray();
+
+        lineOffsets.add(0);
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == '\n' || (chars[i] == '\r' && (i + 1 == chars.length || chars[i + 1] != '\n'))) {
+                lineOffsets.add(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Ignores the content of the line from the given offset.
+     *
+     * @param offset
+     */
+    void skipFrom(int offset) {
+        if (offset >= 0 && offset <= chars.length) {
+            int line = lineOf(offset);
+            if (blank(offset, lineEnd(line))) {
+                skipped.add(line);
+            }
+        }
+    }
+
+    /**
+     * Returns a model created from the text, the lines that have been skipped being available from
+     * {@link Model#getErrorLines()}.
+     *
+     * @param schema
+     * @return model
+     */
+    Model read(CompositeSchema schema) {
+        for (int errors = 0; errors <= MAX_ERRORS; errors++) {
+            try {
+                return compose(schema);
+            } catch (MarkedYAMLException e) {
+                if (!skip(e)) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                break;
+            }
+        }
+
+        // too many errors, only the content before the first error is kept.
+        if (!skipped.isEmpty()) {
+            for (int line = skipped.first(); line < lineOffsets.size(); line++) {
+                skipLine(line);
+            }
+            try {
+                return compose(schema);
+            } catch (RuntimeException e) {
+                // falls back to an empty model
+            }
+        }
+
+        Model model = Model.empty(schema);
+        model.setErrorLines(skipped);
+        return model;
+    }
+
+    private Model compose(CompositeSchema schema) {
+        final Node yaml = YamlNodeReader.compose(new String(chars));
+        final Model model = yaml != null ? Model.parseYaml(schema, yaml) : Model.empty(schema);
+        if (model == null) {
+            throw new IllegalArgumentException("Cannot read the model");
+        }
+
+        model.setErrorLines(skipped);
+        return model;
+    }
+
+    /*
+     * Scanner errors are reported at the end of the token that could not be scanned, while the context points to its
+     * start. Parser errors are reported on the unexpected token, the context being the enclosing collection. Flow
+     * collections that are not closed are reported on the next token, in that case the context is the line to skip.
+     */
+    private boolean skip(MarkedYAMLException e) {
+        final Mark problem = e.getProblemMark();
+        final Mark context = e.getContextMark();
+        final boolean inContext = e instanceof ScannerException
+                || (e.getContext() != null && e.getContext().contains("flow"));
+
+        if (inContext && context != null) {
+            if (skipLine(context.getLine()) || (problem != null && skipLine(problem.getLine()))) {
+                return true;
+            }
+        } else if (problem != null) {
+            if (skipLine(problem.getLine()) || (context != null && skipLine(context.getLine()))) {
+                return true;
+            }
+        }
+
+        // the error is reported on a blank line, e.g. at the end of the text,
+        // the last line with content before it is skipped instead.
+        int line = problem != null ? Math.min(problem.getLine(), lineOffsets.size() - 1) : lineOffsets.size() - 1;
+        while (line >= 0) {
+            if (skipLine(line)) {
+                return true;
+            }
+            line--;
+        }
+        return false;
+    }
+
+    private boolean skipLine(int line) {
+        if (line < 0 || line >= lineOffsets.size()) {
+            return false;
+        }
+        if (blank(lineOffsets.get(line), lineEnd(line))) {
+            skipped.add(line);
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * Replaces the characters in the range by spaces, returns false if the range only contains spaces.
+     */
+    private boolean blank(int start, int end) {
+        boolean changed = false;
+        for (int i = start; i < end; i++) {
+            if (chars[i] != ' ') {
+                chars[i] = ' ';
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private int lineOf(int offset) {
+        int line = 0;
+        while (line + 1 < lineOffsets.size() && lineOffsets.get(line + 1) <= offset) {
+            line++;
+        }
+        return line;
+    }
+
+    private int lineEnd(int line) {
+        int end = line + 1 < lineOffsets.size() ? lineOffsets.get(line + 1) : chars.length;
+        while (end > lineOffsets.get(line) && (chars[end - 1] == '\n' || chars[end - 1] == '\r')) {
+            end--;
+        }
+        return end;
+    }
+}
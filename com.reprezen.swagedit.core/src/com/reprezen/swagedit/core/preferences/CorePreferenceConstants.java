@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.preferences;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keys of the preferences stored in the preference store of the core plugin.
+ */
+public class CorePreferenceConstants {
+
+    // remote documents, see RemoteDocumentLoader
+    public static final String REMOTE_OFFLINE = "remote.offline"; //$NON-NLS-1$
+    public static final String REMOTE_TIME_TO_LIVE = "remote.time_to_live"; //$NON-NLS-1$
+    public static final String REMOTE_TIMEOUT = "remote.timeout"; //$NON-NLS-1$
+    public static final String REMOTE_MAXIMUM_SIZE = "remote.maximum_size"; //$NON-NLS-1$
+    public static final String REMOTE_MAXIMUM_AGE = "remote.maximum_age"; //$NON-NLS-1$
+
+    public static final List<String> ALL_REMOTE_PREFS = Arrays.asList(//
+            REMOTE_OFFLINE, //
+            REMOTE_TIME_TO_LIVE, //
+            REMOTE_TIMEOUT, //
+            REMOTE_MAXIMUM_SIZE, //
+            REMOTE_MAXIMUM_AGE);
+
+}
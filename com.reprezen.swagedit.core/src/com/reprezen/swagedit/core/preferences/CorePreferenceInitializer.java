@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.preferences;
+
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_AGE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_SIZE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_OFFLINE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIMEOUT;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIME_TO_LIVE;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import com.reprezen.swagedit.core.Activator;
+import com.reprezen.swagedit.core.json.references.RemoteDocumentLoader;
+
+/*
+ * Default values of the preferences of the core plugin. For remote documents, the time to live is stored in minutes,
+ * the timeout in seconds, the maximum size of the copies in megabytes and their maximum age in days.
+ */
+public class CorePreferenceInitializer extends AbstractPreferenceInitializer {
+
+    @Override
+    public void initializeDefaultPreferences() {
+        IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+
+        store.setDefault(REMOTE_OFFLINE, false);
+        store.setDefault(REMOTE_TIME_TO_LIVE,
+                (int) TimeUnit.MILLISECONDS.toMinutes(RemoteDocumentLoader.DEFAULT_TIME_TO_LIVE));
+        store.setDefault(REMOTE_TIMEOUT, (int) TimeUnit.MILLISECONDS.toSeconds(RemoteDocumentLoader.DEFAULT_TIMEOUT));
+        store.setDefault(REMOTE_MAXIMUM_SIZE, (int) (RemoteDocumentLoader.DEFAULT_MAXIMUM_SIZE / (1024 * 1024)));
+        store.setDefault(REMOTE_MAXIMUM_AGE,
+                (int) TimeUnit.MILLISECONDS.toDays(RemoteDocumentLoader.DEFAULT_MAXIMUM_AGE));
+    }
+
+}
@@ -10,16 +10,33 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.preferences;
 
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_AGE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_MAXIMUM_SIZE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_OFFLINE;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIMEOUT;
+import static com.reprezen.swagedit.core.preferences.CorePreferenceConstants.REMOTE_TIME_TO_LIVE;
+
+import org.eclipse.jface.layout.GridDataFactory;
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 
+import com.reprezen.swagedit.core.Activator;
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager;
+import com.reprezen.swagedit.core.json.references.RemoteDocumentLoader;
+
 public class KaizenPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
 
     public static final String VALIDATION_PREFERENCE_PAGE = "com.reprezen.swagedit.preferences.validation";
 
     public KaizenPreferencePage() {
         super(GRID);
+        setPreferenceStore(Activator.getDefault().getPreferenceStore());
         setDescription("KaiZen OpenAPI Editor Preferences");
     }
 
@@ -31,8 +48,25 @@ public class KaizenPreferencePage extends FieldEditorPreferencePage implements I
 
     @Override
     protected void createFieldEditors() {
-        // TODO Auto-generated method stub
+        Composite parent = getFieldEditorParent();
+
+        // documents referenced by http(s) URLs, see RemoteDocumentLoader
+        addField(new BooleanFieldEditor(REMOTE_OFFLINE, "Only use the copies of remote documents (offline)", parent));
+        addField(new IntegerFieldEditor(REMOTE_TIME_TO_LIVE, "Check remote documents for changes after (minutes):",
+                parent));
+        addField(new IntegerFieldEditor(REMOTE_TIMEOUT, "Timeout of remote requests (seconds):", parent));
+        addField(new IntegerFieldEditor(REMOTE_MAXIMUM_SIZE, "Maximum size of the copies (MB):", parent));
+        addField(new IntegerFieldEditor(REMOTE_MAXIMUM_AGE, "Delete copies not used for (days):", parent));
 
+        Button clear = new Button(parent, SWT.PUSH);
+        clear.setText("Delete Copies of Remote Documents");
+        GridDataFactory.swtDefaults().span(2, 1).applyTo(clear);
+        clear.addListener(SWT.Selection, event -> {
+            RemoteDocumentLoader loader = JsonDocumentManager.getInstance().getRemoteLoader();
+            if (loader != null) {
+                loader.clear();
+            }
+        });
     }
 
 }
@@ -11,7 +11,9 @@
 package com.reprezen.swagedit.core.providers;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import com.reprezen.swagedit.core.editor.JsonDocument;
 import com.reprezen.swagedit.core.model.AbstractNode;
@@ -20,7 +22,12 @@ import com.reprezen.swagedit.core.validation.SwaggerError;
 /**
  * Client can implement this interface to provide custom validators.
  * 
- * Implementations should be registered as extensions to the extension point <i>com.reprezen.swagedit.validator</i>.
+ * Implementations should be registered as extensions to the extension point <i>com.reprezen.swagedit.validator</i>. A
+ * single instance of each implementation is shared by all validators, so it may be called by several validations at
+ * the same time.
+ * 
+ * A provider can limit the nodes it validates to nodes of some types of the schema, see {@link #getTypePointers()} and
+ * {@link #getTypePatterns()}.
  */
 public interface ValidationProvider {
 
@@ -48,4 +55,27 @@ public interface ValidationProvider {
      */
     boolean isActive(JsonDocument document);
 
+    /**
+     * Returns the pointers of the types of the nodes validated by this provider, for example
+     * <code>/definitions/operation</code>.
+     * 
+     * The provider is called on the nodes whose type has one of these pointers or matches one of the patterns of
+     * {@link #getTypePatterns()}. If the provider returns no pointer and no pattern, it is called on all nodes.
+     * 
+     * @return pointers of types in the schema
+     */
+    default Set<String> getTypePointers() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the patterns of the pointers of the types of the nodes validated by this provider, each pattern must
+     * match the whole pointer. See {@link #getTypePointers()}.
+     * 
+     * @return patterns of pointers of types in the schema
+     */
+    default Set<Pattern> getTypePatterns() {
+        return Collections.emptySet();
+    }
+
 }
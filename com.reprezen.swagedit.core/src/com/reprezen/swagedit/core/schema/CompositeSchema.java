@@ -12,6 +12,7 @@ package com.reprezen.swagedit.core.schema;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -30,6 +31,8 @@ public abstract class CompositeSchema {
 
     protected JsonSchema swaggerType;
 
+    private final AtomicInteger version = new AtomicInteger();
+
     /**
      * Returns the content of the schema as JSON.
      * 
@@ -39,6 +42,23 @@ public abstract class CompositeSchema {
         return swaggerType.getType().asJson();
     }
 
+    /**
+     * Returns a number that changes each time the content of the schema is modified. Objects computed from the content
+     * of the schema can be reused as long as the version is the same.
+     * 
+     * @return version of the schema content
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Must be called by subclasses after they modify the content of the schema.
+     */
+    protected void contentChanged() {
+        version.incrementAndGet();
+    }
+
     /**
      * Returns the type of a node.
      * 
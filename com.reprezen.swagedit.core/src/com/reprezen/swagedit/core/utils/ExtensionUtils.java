@@ -10,6 +10,7 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.utils;
 
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -18,6 +19,10 @@ import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.ui.IMarkerResolutionGenerator2;
 
@@ -27,6 +32,32 @@ import com.reprezen.swagedit.core.providers.ValidationProvider;
 
 public class ExtensionUtils {
 
+    // providers are created once and dropped when the contributions to the extension point change
+    private static volatile Set<ValidationProvider> validationProviders;
+    private static boolean listening = false;
+
+    private static final IRegistryEventListener validationProvidersListener = new IRegistryEventListener() {
+        @Override
+        public void added(IExtension[] extensions) {
+            clearValidationProviders();
+        }
+
+        @Override
+        public void removed(IExtension[] extensions) {
+            clearValidationProviders();
+        }
+
+        @Override
+        public void added(IExtensionPoint[] extensionPoints) {
+            clearValidationProviders();
+        }
+
+        @Override
+        public void removed(IExtensionPoint[] extensionPoints) {
+            clearValidationProviders();
+        }
+    };
+
     @SuppressWarnings("unchecked")
     private static <T> Set<T> resolveProviders(String ID, Predicate<? super IConfigurationElement> predicate) {
         return Stream.of(Platform.getExtensionRegistry() //
@@ -51,8 +82,35 @@ public class ExtensionUtils {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the validation providers contributed to the extension point {@link ValidationProvider#ID}.
+     * 
+     * Providers are created on the first call and shared by all validators, they are created again after a change of
+     * the contributions to the extension point.
+     * 
+     * @return unmodifiable set of validation providers
+     */
     public static Set<ValidationProvider> getValidationProviders() {
-        return resolveProviders(ValidationProvider.ID, (e) -> true);
+        Set<ValidationProvider> providers = validationProviders;
+        return providers != null ? providers : createValidationProviders();
+    }
+
+    private static synchronized Set<ValidationProvider> createValidationProviders() {
+        if (validationProviders == null) {
+            if (!listening) {
+                IExtensionRegistry registry = Platform.getExtensionRegistry();
+                if (registry != null) {
+                    registry.addListener(validationProvidersListener, ValidationProvider.ID);
+                    listening = true;
+                }
+            }
+            validationProviders = Collections.unmodifiableSet(resolveProviders(ValidationProvider.ID, (e) -> true));
+        }
+        return validationProviders;
+    }
+
+    private static synchronized void clearValidationProviders() {
+        validationProviders = null;
     }
 
     public static Set<PreferenceProvider> getPreferenceProviders() {
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.validation;
 
-import static com.reprezen.swagedit.core.validation.ValidationUtil.getLine;
-
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
@@ -24,6 +22,7 @@ import org.yaml.snakeyaml.nodes.Node;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.reprezen.swagedit.core.model.Model;
 
 /**
  * Creates {@link SwaggerError} by processing validation reports generated by the json schema validator.
@@ -31,10 +30,25 @@ import com.github.fge.jsonschema.core.report.ProcessingReport;
 public class ErrorProcessor {
 
     private final Node document;
+    private final Model model;
     private final JsonNode jsonSchema;
 
     public ErrorProcessor(Node document, JsonNode jsonSchema) {
         this.document = document;
+        this.model = null;
+        this.jsonSchema = jsonSchema;
+    }
+
+    /**
+     * Creates a processor that locates errors with the nodes of the model, so that the YAML tree of the document is
+     * not needed.
+     * 
+     * @param model
+     * @param jsonSchema
+     */
+    public ErrorProcessor(Model model, JsonNode jsonSchema) {
+        this.document = null;
+        this.model = model;
         this.jsonSchema = jsonSchema;
     }
 
@@ -103,7 +117,7 @@ public class ErrorProcessor {
     }
 
     private SwaggerError createUnique(JsonNode error, int indent) {
-        final SwaggerError schemaError = new SwaggerError(getLine(error, document), getLevel(error), indent,
+        final SwaggerError schemaError = new SwaggerError(getLine(error), getLevel(error), indent,
                 rewriteError(error));
 
         return schemaError;
@@ -111,7 +125,7 @@ public class ErrorProcessor {
 
     private SwaggerError createMultiple(JsonNode error, int indent) {
         final MultipleSwaggerErrorBuilder schemaErrorBuilder = new MultipleSwaggerErrorBuilder()
-                .locatedOn(getLine(error, document)).withSeverity(getLevel(error)).indented(indent)
+                .locatedOn(getLine(error)).withSeverity(getLevel(error)).indented(indent)
                 .basedOnSchema(jsonSchema);
 
         final JsonNode reports = error.get("reports");
@@ -123,6 +137,10 @@ public class ErrorProcessor {
         return schemaErrorBuilder.build();
     }
 
+    private int getLine(JsonNode error) {
+        return model != null ? ValidationUtil.getLine(error, model) : ValidationUtil.getLine(error, document);
+    }
+
     protected String rewriteError(JsonNode error) {
         if (error == null) {
             return "";
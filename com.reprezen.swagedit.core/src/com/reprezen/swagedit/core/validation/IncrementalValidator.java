@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
+import com.reprezen.swagedit.core.model.AbstractNode;
+import com.reprezen.swagedit.core.validation.SwaggerError.MultipleSwaggerError;
+
+/**
+ * Validates a document against the JSON schema and the rules of the model that only read a node and its descendants,
+ * reusing the errors found by the previous validation on the parts of the document that did not change.
+ *
+ * The document is divided following the members of objects whose schema only contains keywords for objects, such as
+ * the paths and the definitions of a Swagger document. The keywords of such an object are checked on the object
+ * itself, and each member is validated against its own schema, which gives the same errors as a validation of the
+ * whole object. Members whose text is large are divided again in the same way.
+ *
+ * Errors of a member whose text and content did not change since the previous validation are reused, with their lines
+ * moved by the number of lines inserted or removed before the member.
+ */
+final class IncrementalValidator {
+
+    /**
+     * Objects whose text is shorter than this number of characters are validated as a whole.
+     */
+    static final int SPLIT_SIZE = 1024;
+
+    private static final Set<String> OBJECT_KEYWORDS = new HashSet<>(Arrays.asList("type", "properties",
+            "patternProperties", "additionalProperties", "required", "minProperties", "maxProperties", "title",
+            "description", "default"));
+
+    // keywords that do not take part in the validation of the root
+    private static final Set<String> ROOT_KEYWORDS = new HashSet<>(Arrays.asList("id", "$schema", "definitions"));
+
+    private final Validator validator;
+    private volatile Results previous;
+
+    IncrementalValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Returns the errors of the snapshot, the snapshot must have a JSON tree and a model with a root. Parts of the
+     * document are located with the nodes of the model, the YAML tree of the snapshot is not needed.
+     *
+     * @param snapshot
+     * @param monitor
+     *            checked for cancellation before each part, errors of a canceled validation are not reused
+     * @return errors
+     * @throws OperationCanceledException
+     *             if the monitor is canceled
+     */
+    Set<SwaggerError> validate(DocumentSnapshot snapshot, IProgressMonitor monitor) {
+        final JsonSchemaValidator schemaValidator = validator.getSchemaValidator();
+        final int version = schemaValidator.getSchemaVersion();
+
+        Results last = previous;
+        if (last != null && (last.schemaValidator != schemaValidator || last.version != version)) {
+            last = null;
+        }
+
+        final Results current = new Results(schemaValidator, version, snapshot.getText(),
+                last != null ? last.objectSchemas : new ConcurrentHashMap<>());
+        final Set<SwaggerError> errors = new HashSet<>();
+
+        new Run(snapshot, last, current, errors, monitor).validate("", false, snapshot.getJson(),
+                snapshot.getModel().getRoot(), Collections.singletonList(""));
+
+        previous = current;
+        return errors;
+    }
+
+    /*
+     * Errors found for each part of a version of the document.
+     */
+    private static class Results {
+        final JsonSchemaValidator schemaValidator;
+        final int version;
+        final String text;
+        final Map<String, Part> parts = new HashMap<>();
+        // schemas of objects for the given version of the schema
+        final Map<String, ObjectSchema> objectSchemas;
+
+        Results(JsonSchemaValidator schemaValidator, int version, String text,
+                Map<String, ObjectSchema> objectSchemas) {
+            this.schemaValidator = schemaValidator;
+            this.version = version;
+            this.text = text;
+            this.objectSchemas = objectSchemas;
+        }
+    }
+
+    /*
+     * Member of an object validated as a whole, from the start of its key to the end of its value.
+     */
+    private static class Part {
+        final int offset;
+        final int length;
+        final int line;
+        final int column;
+        final List<String> schemaPointers;
+        final JsonNode json;
+        final Set<SwaggerError> errors;
+
+        Part(int offset, int length, int line, int column, List<String> schemaPointers, JsonNode json,
+                Set<SwaggerError> errors) {
+            this.offset = offset;
+            this.length = length;
+            this.line = line;
+            this.column = column;
+            this.schemaPointers = schemaPointers;
+            this.json = json;
+            this.errors = errors;
+        }
+    }
+
+    /*
+     * Schema that only contains keywords for objects.
+     */
+    private static class ObjectSchema {
+        static final ObjectSchema NONE = new ObjectSchema(null);
+
+        final String pointer;
+        final Set<String> properties = new HashSet<>();
+        final Map<Pattern, String> patternProperties = new LinkedHashMap<>();
+        String additionalProperties;
+
+        ObjectSchema(String pointer) {
+            this.pointer = pointer;
+        }
+
+        /*
+         * Returns the pointers of the schemas that apply to the member of an object with the given name.
+         */
+        List<String> getSchemaPointers(String name) {
+            final List<String> pointers = new ArrayList<>(1);
+            if (properties.contains(name)) {
+                pointers.add(pointer + "/properties/" + escape(name));
+            }
+            for (Map.Entry<Pattern, String> pattern : patternProperties.entrySet()) {
+                if (pattern.getKey().matcher(name).find()) {
+                    pointers.add(pointer + "/patternProperties/" + escape(pattern.getValue()));
+                }
+            }
+            if (pointers.isEmpty() && additionalProperties != null) {
+                pointers.add(additionalProperties);
+            }
+            return pointers;
+        }
+    }
+
+    private class Run {
+        final DocumentSnapshot snapshot;
+        final Results last;
+        final Results current;
+        final Set<SwaggerError> errors;
+        final IProgressMonitor monitor;
+        // offsets of the lines of the text, created on first use
+        int[] lineOffsets;
+
+        Run(DocumentSnapshot snapshot, Results last, Results current, Set<SwaggerError> errors,
+                IProgressMonitor monitor) {
+            this.snapshot = snapshot;
+            this.last = last;
+            this.current = current;
+            this.errors = errors;
+            this.monitor = monitor;
+        }
+
+        /*
+         * Validates a node, starting at its key if it is a member of an object.
+         */
+        void validate(String pointer, boolean member, JsonNode json, AbstractNode node, List<String> schemaPointers) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+
+            final int line = node.getStart().getLine();
+            final int column = node.getStart().getColumn();
+            final int offset = getOffset(line, column);
+            final int length = getOffset(node.getEnd().getLine(), node.getEnd().getColumn()) - offset;
+
+            final ObjectSchema objectSchema = schemaPointers.size() == 1 ? getObjectSchema(schemaPointers.get(0))
+                    : ObjectSchema.NONE;
+
+            if (objectSchema != ObjectSchema.NONE && length >= SPLIT_SIZE && canSplit(json, node)) {
+                errors.addAll(current.schemaValidator.validateObject(snapshot, json, pointer, objectSchema.pointer));
+                validator.executeModelValidation(node.getModel(), node, errors);
+
+                for (Iterator<String> names = json.fieldNames(); names.hasNext();) {
+                    final String name = names.next();
+                    validate(pointer + "/" + escape(name), true, json.get(name), node.get(name),
+                            objectSchema.getSchemaPointers(name));
+                }
+                return;
+            }
+
+            final Part part = last != null ? last.parts.get(pointer) : null;
+
+            final Set<SwaggerError> found;
+            // errors on the root of the document are located on the first line wherever the root starts
+            if (part != null && (member || part.line == line) && part.length == length && part.column == column
+                    && part.schemaPointers.equals(schemaPointers)
+                    && current.text.regionMatches(offset, last.text, part.offset, length) && part.json.equals(json)) {
+                found = moveErrors(part.errors, line - part.line);
+            } else {
+                found = new HashSet<>();
+                for (String schemaPointer : schemaPointers) {
+                    found.addAll(current.schemaValidator.validate(snapshot, json, pointer,
+                            schemaPointer.isEmpty() ? null : schemaPointer));
+                }
+                validateModel(node, found);
+            }
+
+            errors.addAll(found);
+            // errors located outside of the part cannot be moved with it
+            if (isInRange(found, line + 1, node.getEnd().getLine() + 1)) {
+                current.parts.put(pointer,
+                        new Part(offset, length, line, column, schemaPointers, json, found));
+            }
+        }
+
+        void validateModel(AbstractNode node, Set<SwaggerError> found) {
+            validator.executeModelValidation(node.getModel(), node, found);
+            for (AbstractNode element : node.elements()) {
+                validateModel(element, found);
+            }
+        }
+
+        /*
+         * Objects can be divided if each member has a single key that is a string, in which case the model and the JSON
+         * tree have the same members.
+         */
+        boolean canSplit(JsonNode json, AbstractNode node) {
+            if (json == null || !json.isObject() || !node.isObject() || json.size() != node.size()) {
+                return false;
+            }
+
+            for (AbstractNode duplicate : node.getModel().getDuplicateKeys()) {
+                if (duplicate.getParent() == node) {
+                    return false;
+                }
+            }
+            for (Iterator<String> names = json.fieldNames(); names.hasNext();) {
+                if (node.get(names.next()) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Returns the offset in the text of a location of the model.
+         */
+        int getOffset(int line, int column) {
+            if (lineOffsets == null) {
+                lineOffsets = computeLineOffsets(current.text);
+            }
+            return line < lineOffsets.length ? lineOffsets[line] + column : current.text.length();
+        }
+
+        ObjectSchema getObjectSchema(String pointer) {
+            ObjectSchema objectSchema = current.objectSchemas.get(pointer);
+            if (objectSchema == null) {
+                objectSchema = createObjectSchema(current.schemaValidator.getSchema(), pointer);
+                current.objectSchemas.put(pointer, objectSchema);
+            }
+            return objectSchema;
+        }
+    }
+
+    /*
+     * Returns the schema found at the pointer, following local references, if it only contains keywords for objects.
+     */
+    private static ObjectSchema createObjectSchema(JsonNode schema, String pointer) {
+        JsonNode content = schema.at(pointer);
+        // references are followed a limited number of times to stop on cycles
+        for (int i = 0; i < 10 && content.has("$ref"); i++) {
+            final JsonNode ref = content.get("$ref");
+            if (!ref.isTextual() || !ref.asText().startsWith("#") || ref.asText().contains("%")) {
+                return ObjectSchema.NONE;
+            }
+            pointer = ref.asText().substring(1);
+            content = schema.at(pointer);
+        }
+
+        if (!content.isObject() || content.has("$ref")) {
+            return ObjectSchema.NONE;
+        }
+
+        final ObjectSchema objectSchema = new ObjectSchema(pointer);
+        for (Iterator<Map.Entry<String, JsonNode>> it = content.fields(); it.hasNext();) {
+            final Map.Entry<String, JsonNode> field = it.next();
+            final String keyword = field.getKey();
+
+            if (!OBJECT_KEYWORDS.contains(keyword) && !(pointer.isEmpty() && ROOT_KEYWORDS.contains(keyword))) {
+                return ObjectSchema.NONE;
+            }
+
+            if ("properties".equals(keyword)) {
+                field.getValue().fieldNames().forEachRemaining(objectSchema.properties::add);
+            } else if ("patternProperties".equals(keyword)) {
+                for (Iterator<String> names = field.getValue().fieldNames(); names.hasNext();) {
+                    final String regex = names.next();
+                    try {
+                        objectSchema.patternProperties.put(Pattern.compile(regex), regex);
+                    } catch (PatternSyntaxException e) {
+                        return ObjectSchema.NONE;
+                    }
+                }
+            } else if ("additionalProperties".equals(keyword) && field.getValue().isObject()) {
+                objectSchema.additionalProperties = pointer + "/additionalProperties";
+            }
+        }
+        return objectSchema;
+    }
+
+    /*
+     * Lines end with \n, \r or \r\n, as in the YAML and JSON parsers.
+     */
+    private static int[] computeLineOffsets(String text) {
+        final List<Integer> offsets = new ArrayList<>();
+        offsets.add(0);
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+                offsets.add(i + 1);
+            }
+        }
+
+        final int[] result = new int[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    private static boolean isInRange(Set<SwaggerError> errors, int first, int last) {
+        for (SwaggerError error : errors) {
+            if (error.getLine() < first || error.getLine() > last) {
+                return false;
+            }
+            if (error instanceof MultipleSwaggerError) {
+                for (Set<SwaggerError> nested : ((MultipleSwaggerError) error).getErrors().values()) {
+                    if (!isInRange(nested, first, last)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Set<SwaggerError> moveErrors(Set<SwaggerError> errors, int lines) {
+        if (lines == 0) {
+            return errors;
+        }
+        final Set<SwaggerError> moved = new HashSet<>();
+        for (SwaggerError error : errors) {
+            moved.add(error.move(lines));
+        }
+        return moved;
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+}
@@ -11,33 +11,64 @@
 package com.reprezen.swagedit.core.validation;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.dadacoalition.yedit.YEditLog;
 import org.eclipse.core.resources.IMarker;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
 import com.github.fge.jsonschema.core.load.configuration.LoadingConfigurationBuilder;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.reprezen.swagedit.core.Activator;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.editor.JsonDocument;
+import com.reprezen.swagedit.core.schema.CompositeSchema;
 
 public class JsonSchemaValidator {
 
     private final LoadingConfiguration loadingConfiguration;
     private final JsonSchemaFactory factory;
     private final JsonNode schema;
+    // set if the schema content can be modified
+    private final CompositeSchema compositeSchema;
+
+    // schemas created for the root of the schema and for the pointers inside it
+    private volatile JsonSchemas jsonSchemas;
 
     public JsonSchemaValidator(JsonNode schema, Map<String, JsonNode> preloadSchemas) {
+        this(schema, null, preloadSchemas);
+    }
+
+    /**
+     * Creates a validator for a schema whose content may be modified. Schemas created by the validator are created
+     * again after each modification, see {@link CompositeSchema#getVersion()}.
+     * 
+     * @param schema
+     * @param preloadSchemas
+     */
+    public JsonSchemaValidator(CompositeSchema schema, Map<String, JsonNode> preloadSchemas) {
+        this(schema.asJson(), schema, preloadSchemas);
+    }
+
+    private JsonSchemaValidator(JsonNode schema, CompositeSchema compositeSchema,
+            Map<String, JsonNode> preloadSchemas) {
         this.schema = schema;
+        this.compositeSchema = compositeSchema;
         this.loadingConfiguration = getLoadingConfiguration(preloadSchemas);
         this.factory = JsonSchemaFactory.newBuilder() //
                 .setLoadingConfiguration(loadingConfiguration) //
                 .freeze();
+        this.jsonSchemas = new JsonSchemas(compositeSchema != null ? compositeSchema.getVersion() : 0);
     }
 
     private LoadingConfiguration getLoadingConfiguration(Map<String, JsonNode> preloadSchemas) {
@@ -49,19 +80,29 @@ public class JsonSchemaValidator {
     }
 
     public Set<SwaggerError> validate(JsonDocument document) {
-        final ErrorProcessor processor = new ErrorProcessor(document.getYaml(), schema);
+        return validate(document.getSnapshot());
+    }
+
+    /**
+     * Validates the JSON tree of the snapshot, errors are located with the model of the same snapshot.
+     * 
+     * @param document
+     * @return errors
+     */
+    public Set<SwaggerError> validate(DocumentSnapshot document) {
+        final ErrorProcessor processor = new ErrorProcessor(document.getModel(), schema);
         final Set<SwaggerError> errors = new HashSet<>();
 
         JsonSchema jsonSchema = null;
         try {
-            jsonSchema = factory.getJsonSchema(schema);
+            jsonSchema = getJsonSchema(null);
         } catch (ProcessingException e) {
             YEditLog.logException(e);
             return errors;
         }
 
         try {
-            errors.addAll(processor.processReport(jsonSchema.validate(document.asJson(), true)));
+            errors.addAll(processor.processReport(jsonSchema.validate(document.getJson(), true)));
         } catch (ProcessingException e) {
             errors.addAll(processor.processMessage(e.getProcessingMessage()));
         }
@@ -69,10 +110,78 @@ public class JsonSchemaValidator {
         return errors;
     }
 
+    /**
+     * Validates a node of the JSON tree of the snapshot against the schema found at the given pointer, or against the
+     * root of the schema if the pointer is null. Errors are located with the model of the same snapshot.
+     * 
+     * @param document
+     * @param instance
+     *            node of the JSON tree
+     * @param instancePointer
+     *            pointer of the node in the JSON tree
+     * @param schemaPointer
+     * @return errors
+     */
+    Set<SwaggerError> validate(DocumentSnapshot document, JsonNode instance, String instancePointer,
+            String schemaPointer) {
+        final Set<SwaggerError> errors = new HashSet<>();
+        try {
+            errors.addAll(processReport(document, getJsonSchema(schemaPointer).validate(instance, true),
+                    instancePointer));
+        } catch (ProcessingException e) {
+            errors.addAll(processMessage(document, e.getProcessingMessage(), instancePointer));
+        }
+        return errors;
+    }
+
+    /**
+     * Validates an object of the JSON tree of the snapshot against the keywords of the object schema found at the
+     * given pointer, without validating the members of the object against their own schemas.
+     * 
+     * The schema must only contain keywords that apply to objects, its properties being validated separately, see
+     * {@link #validate(DocumentSnapshot, JsonNode, String, String)}.
+     * 
+     * @param document
+     * @param instance
+     *            object of the JSON tree
+     * @param instancePointer
+     *            pointer of the object in the JSON tree
+     * @param schemaPointer
+     * @return errors
+     */
+    Set<SwaggerError> validateObject(DocumentSnapshot document, JsonNode instance, String instancePointer,
+            String schemaPointer) {
+        final Set<SwaggerError> errors = new HashSet<>();
+        try {
+            errors.addAll(processReport(document, getObjectSchema(schemaPointer).validate(instance, true),
+                    instancePointer));
+        } catch (ProcessingException e) {
+            errors.addAll(processMessage(document, e.getProcessingMessage(), instancePointer));
+        }
+        return errors;
+    }
+
+    /**
+     * @return the content of the schema
+     */
+    JsonNode getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the version of the content of the schema, which changes each time the schema is modified. Results of
+     * validations made for different versions cannot be compared.
+     * 
+     * @return the version of the content of the schema
+     */
+    public int getSchemaVersion() {
+        return compositeSchema != null ? compositeSchema.getVersion() : 0;
+    }
+
     public Set<JsonNode> validate(JsonNode instance) {
         JsonSchema jsonSchema = null;
         try {
-            jsonSchema = factory.getJsonSchema(schema);
+            jsonSchema = getJsonSchema(null);
         } catch (ProcessingException e) {
             Activator.getDefault().logError(e.getLocalizedMessage(), e);
             return null;
@@ -84,7 +193,7 @@ public class JsonSchemaValidator {
     public Set<JsonNode> validate(JsonNode instance, String schemaPointer) {
         JsonSchema jsonSchema = null;
         try {
-            jsonSchema = factory.getJsonSchema(schema, schemaPointer);
+            jsonSchema = getJsonSchema(schemaPointer);
         } catch (ProcessingException e) {
             Activator.getDefault().logError(e.getLocalizedMessage(), e);
             return null;
@@ -93,6 +202,121 @@ public class JsonSchemaValidator {
         return doValidate(jsonSchema, instance);
     }
 
+    /*
+     * Schemas are created once for the root and for each pointer, and created again when the content of the schema
+     * changes. Schemas created by the factory are immutable and can be shared by concurrent validations.
+     */
+    private JsonSchema getJsonSchema(String pointer) throws ProcessingException {
+        final JsonSchemas current = getJsonSchemas();
+
+        if (pointer == null) {
+            if (current.root == null) {
+                current.root = factory.getJsonSchema(schema);
+            }
+            return current.root;
+        }
+
+        JsonSchema jsonSchema = current.schemas.get(pointer);
+        if (jsonSchema == null) {
+            jsonSchema = factory.getJsonSchema(schema, pointer);
+            final JsonSchema previous = current.schemas.putIfAbsent(pointer, jsonSchema);
+            if (previous != null) {
+                jsonSchema = previous;
+            }
+        }
+        return jsonSchema;
+    }
+
+    /*
+     * Schema made of the keywords of an object schema where the schemas of properties are replaced by empty schemas.
+     */
+    private JsonSchema getObjectSchema(String pointer) throws ProcessingException {
+        final JsonSchemas current = getJsonSchemas();
+
+        JsonSchema jsonSchema = current.objectSchemas.get(pointer);
+        if (jsonSchema == null) {
+            final ObjectNode objectSchema = JsonNodeFactory.instance.objectNode();
+            for (Iterator<Map.Entry<String, JsonNode>> it = schema.at(pointer).fields(); it.hasNext();) {
+                Map.Entry<String, JsonNode> field = it.next();
+
+                switch (field.getKey()) {
+                case "properties":
+                case "patternProperties":
+                    final ObjectNode properties = objectSchema.putObject(field.getKey());
+                    field.getValue().fieldNames().forEachRemaining(name -> properties.putObject(name));
+                    break;
+                case "additionalProperties":
+                    if (field.getValue().isObject()) {
+                        objectSchema.putObject(field.getKey());
+                    } else {
+                        objectSchema.set(field.getKey(), field.getValue());
+                    }
+                    break;
+                case "id":
+                case "$schema":
+                case "definitions":
+                    break;
+                default:
+                    objectSchema.set(field.getKey(), field.getValue());
+                }
+            }
+            jsonSchema = factory.getJsonSchema(objectSchema);
+            final JsonSchema previous = current.objectSchemas.putIfAbsent(pointer, jsonSchema);
+            if (previous != null) {
+                jsonSchema = previous;
+            }
+        }
+        return jsonSchema;
+    }
+
+    private JsonSchemas getJsonSchemas() {
+        JsonSchemas current = jsonSchemas;
+        if (compositeSchema != null && current.version != compositeSchema.getVersion()) {
+            current = new JsonSchemas(compositeSchema.getVersion());
+            jsonSchemas = current;
+        }
+        return current;
+    }
+
+    private Set<SwaggerError> processReport(DocumentSnapshot document, ProcessingReport report,
+            String instancePointer) {
+        final Set<SwaggerError> errors = new HashSet<>();
+        for (ProcessingMessage message : report) {
+            errors.addAll(processMessage(document, message, instancePointer));
+        }
+        return errors;
+    }
+
+    /*
+     * Messages of a validation of a node are located relative to that node, they are moved under the pointer of the
+     * node in the document before being processed.
+     */
+    private Set<SwaggerError> processMessage(DocumentSnapshot document, ProcessingMessage message,
+            String instancePointer) {
+        final ErrorProcessor processor = new ErrorProcessor(document.getModel(), schema);
+        if (instancePointer.isEmpty()) {
+            return processor.processMessage(message);
+        }
+
+        final JsonNode json = message.asJson().deepCopy();
+        relocate(json, instancePointer);
+        return processor.processMessageNode(json);
+    }
+
+    private static void relocate(JsonNode message, String instancePointer) {
+        if (message.isObject()) {
+            final JsonNode instance = message.get("instance");
+            if (instance != null && instance.isObject() && instance.get("pointer") != null) {
+                ((ObjectNode) instance).put("pointer", instancePointer + instance.get("pointer").asText());
+            }
+        }
+        for (JsonNode child : message) {
+            if (child.isContainerNode()) {
+                relocate(child, instancePointer);
+            }
+        }
+    }
+
     private Set<JsonNode> doValidate(JsonSchema schema, JsonNode instance) {
         Set<JsonNode> errors = new HashSet<>();
         try {
@@ -120,4 +344,18 @@ public class JsonSchemaValidator {
             return IMarker.SEVERITY_INFO;
         }
     }
+
+    /*
+     * Schemas created for a version of the schema content.
+     */
+    private static class JsonSchemas {
+        final int version;
+        final Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+        final Map<String, JsonSchema> objectSchemas = new ConcurrentHashMap<>();
+        volatile JsonSchema root;
+
+        JsonSchemas(int version) {
+            this.version = version;
+        }
+    }
 }
@@ -8,9 +8,21 @@
  *******************************************************************************/
 package com.reprezen.swagedit.core.validation;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 import org.dadacoalition.yedit.YEditLog;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ui.texteditor.IDocumentProvider;
 
@@ -26,25 +38,129 @@ public class Markers {
             IDocumentProvider provider = editor.getDocumentProvider();
             JsonDocument document = (JsonDocument) provider.getDocument(editor.getEditorInput());
 
-            IMarker marker = target.createMarker(IMarker.PROBLEM);
-            marker.setAttribute(IMarker.SEVERITY, error.getLevel());
-            marker.setAttribute(IMarker.MESSAGE, error.getMessage());
-            marker.setAttribute(IMarker.LINE_NUMBER, error.getLine());
+            Map<String, Object> attributes = getAttributes(document, error);
+            target.createMarker(IMarker.PROBLEM).setAttributes(names(attributes), values(attributes));
+        } catch (CoreException e) {
+            YEditLog.logException(e);
+            YEditLog.logger.warning("Failed to create marker for syntax error: \n" + e.toString());
+        }
+    }
+
+    /**
+     * Updates the problem markers of the file so that there is one marker for each error.
+     * 
+     * Existing markers are matched with the errors by line, severity and message. A matching marker is kept, and only
+     * updated if its other attributes changed. Markers matching no error are deleted and markers are created for the
+     * remaining errors. All changes are made in a single workspace operation, so that listeners receive a single
+     * resource delta that only contains the markers that changed.
+     * 
+     * @param target
+     *            validated file
+     * @param document
+     *            document of the file
+     * @param errors
+     */
+    public static void updateMarkers(IFile target, JsonDocument document, Collection<SwaggerError> errors) {
+        final IWorkspace workspace = target.getWorkspace();
+        try {
+            workspace.run(monitor -> {
+                final List<IMarker> deleted = new ArrayList<>();
+                final Map<MarkerKey, Deque<IMarker>> existing = new HashMap<>();
+                for (IMarker marker : target.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE)) {
+                    // markers of subtypes are not created by the editor
+                    if (IMarker.PROBLEM.equals(marker.getType())) {
+                        existing.computeIfAbsent(new MarkerKey(marker), key -> new ArrayDeque<>()).add(marker);
+                    } else {
+                        deleted.add(marker);
+                    }
+                }
 
-            if (!error.getMarkerAttributes().isEmpty()) {
-                marker.setAttribute(DOCUMENT_VERSION_MARKER, document.getVersion().name());
+                for (SwaggerError error : errors) {
+                    final Map<String, Object> attributes = getAttributes(document, error);
+                    final Deque<IMarker> markers = existing.get(new MarkerKey(error));
+                    final IMarker marker = markers != null ? markers.poll() : null;
 
-                error.getMarkerAttributes().forEach((key, value) -> {
-                    try {
-                        marker.setAttribute(key, value);
-                    } catch (CoreException e) {
-                        YEditLog.logException(e);
+                    if (marker == null) {
+                        target.createMarker(IMarker.PROBLEM).setAttributes(names(attributes), values(attributes));
+                    } else {
+                        final Map<String, Object> previous = marker.getAttributes();
+                        if (!attributes.equals(previous)) {
+                            // attributes that are not set anymore are removed with a null value
+                            if (previous != null) {
+                                previous.keySet().forEach(name -> attributes.putIfAbsent(name, null));
+                            }
+                            marker.setAttributes(names(attributes), values(attributes));
+                        }
                     }
-                });
-            }
+                }
+
+                existing.values().forEach(deleted::addAll);
+                if (!deleted.isEmpty()) {
+                    workspace.deleteMarkers(deleted.toArray(new IMarker[deleted.size()]));
+                }
+            }, target, IWorkspace.AVOID_UPDATE, null);
         } catch (CoreException e) {
             YEditLog.logException(e);
-            YEditLog.logger.warning("Failed to create marker for syntax error: \n" + e.toString());
+            YEditLog.logger.warning("Failed to update markers:\n" + e.toString());
+        }
+    }
+
+    private static Map<String, Object> getAttributes(JsonDocument document, SwaggerError error) {
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put(IMarker.SEVERITY, error.getLevel());
+        attributes.put(IMarker.MESSAGE, error.getMessage());
+        attributes.put(IMarker.LINE_NUMBER, error.getLine());
+
+        if (!error.getMarkerAttributes().isEmpty()) {
+            attributes.put(DOCUMENT_VERSION_MARKER, document.getVersion().name());
+            attributes.putAll(error.getMarkerAttributes());
+        }
+        return attributes;
+    }
+
+    private static String[] names(Map<String, Object> attributes) {
+        return attributes.keySet().toArray(new String[attributes.size()]);
+    }
+
+    private static Object[] values(Map<String, Object> attributes) {
+        return attributes.values().toArray();
+    }
+
+    /*
+     * Identifies a marker by the attributes shown in the problems view.
+     */
+    private static class MarkerKey {
+        final int line;
+        final int severity;
+        final String message;
+
+        MarkerKey(SwaggerError error) {
+            this.line = error.getLine();
+            this.severity = error.getLevel();
+            this.message = error.getMessage();
+        }
+
+        MarkerKey(IMarker marker) {
+            this.line = marker.getAttribute(IMarker.LINE_NUMBER, -1);
+            this.severity = marker.getAttribute(IMarker.SEVERITY, -1);
+            this.message = marker.getAttribute(IMarker.MESSAGE, null);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(line, severity, message);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MarkerKey)) {
+                return false;
+            }
+            MarkerKey other = (MarkerKey) obj;
+            return line == other.line && severity == other.severity && Objects.equals(message, other.message);
         }
     }
 
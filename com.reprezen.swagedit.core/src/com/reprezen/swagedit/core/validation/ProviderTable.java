@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2019 ModelSolv, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.core.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.reprezen.swagedit.core.editor.JsonDocument;
+import com.reprezen.swagedit.core.model.AbstractNode;
+import com.reprezen.swagedit.core.providers.ValidationProvider;
+
+/**
+ * Validation providers that are active for a document, indexed by the types of the nodes they validate.
+ * 
+ * A table is created for each validation of a document, so that {@link ValidationProvider#isActive(JsonDocument)} is
+ * called once per provider, and the providers of a type are looked up once per type. A table is not thread safe.
+ */
+final class ProviderTable {
+
+    private final List<Entry> entries = new ArrayList<>();
+    // providers called on all nodes, including nodes without type
+    private final List<ValidationProvider> untyped = new ArrayList<>();
+    private final Map<JsonPointer, List<ValidationProvider>> typed = new HashMap<>();
+
+    ProviderTable(Collection<ValidationProvider> providers, JsonDocument document) {
+        for (ValidationProvider provider : providers) {
+            if (provider.isActive(document)) {
+                final Entry entry = new Entry(provider);
+                entries.add(entry);
+                if (entry.isUntyped()) {
+                    untyped.add(provider);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the providers that validate the given node.
+     * 
+     * @param node
+     * @return providers
+     */
+    List<ValidationProvider> get(AbstractNode node) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final JsonPointer type = node.getType() != null ? node.getType().getPointer() : null;
+        if (type == null) {
+            return untyped;
+        }
+        return typed.computeIfAbsent(type, this::resolve);
+    }
+
+    private List<ValidationProvider> resolve(JsonPointer type) {
+        final String pointer = type.toString();
+        final List<ValidationProvider> providers = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isUntyped() || entry.handles(pointer)) {
+                providers.add(entry.provider);
+            }
+        }
+        return providers;
+    }
+
+    private static class Entry {
+        final ValidationProvider provider;
+        final Set<String> pointers;
+        final Set<Pattern> patterns;
+
+        Entry(ValidationProvider provider) {
+            this.provider = provider;
+            this.pointers = provider.getTypePointers() != null ? provider.getTypePointers() : Collections.emptySet();
+            this.patterns = provider.getTypePatterns() != null ? provider.getTypePatterns() : Collections.emptySet();
+        }
+
+        boolean isUntyped() {
+            return pointers.isEmpty() && patterns.isEmpty();
+        }
+
+        boolean handles(String pointer) {
+            if (pointers.contains(pointer)) {
+                return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(pointer).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ package com.reprezen.swagedit.core.validation;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.IntStream;
@@ -96,6 +97,17 @@ public class SwaggerError {
         return indent;
     }
 
+    /**
+     * Returns a copy of this error located the given number of lines after this one, or before if the number is
+     * negative.
+     * 
+     * @param lines
+     * @return error
+     */
+    SwaggerError move(int lines) {
+        return new SwaggerError(line + lines, level, indent, message, markerAttributes);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -142,6 +154,23 @@ public class SwaggerError {
             return getMessage();
         }
 
+        Map<String, Set<SwaggerError>> getErrors() {
+            return errors;
+        }
+
+        @Override
+        SwaggerError move(int lines) {
+            final Map<String, Set<SwaggerError>> moved = new HashMap<>();
+            for (Map.Entry<String, Set<SwaggerError>> entry : errors.entrySet()) {
+                final Set<SwaggerError> nested = new HashSet<>();
+                for (SwaggerError error : entry.getValue()) {
+                    nested.add(error.move(lines));
+                }
+                moved.put(entry.getKey(), nested);
+            }
+            return new MultipleSwaggerError(getLine() + lines, getLevel(), getIndent(), getMessage(), moved);
+        }
+
         @Override
         public int hashCode() {
             final int prime = 31;
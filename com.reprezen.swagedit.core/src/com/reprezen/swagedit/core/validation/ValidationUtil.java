@@ -20,6 +20,8 @@ import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.reprezen.swagedit.core.model.AbstractNode;
+import com.reprezen.swagedit.core.model.Model;
 import com.reprezen.swagedit.core.utils.StringUtils;
 
 public class ValidationUtil {
@@ -76,6 +78,39 @@ public class ValidationUtil {
         return 1;
     }
 
+    /*
+     * Returns the line for which an error message has been produced, using the nodes of the model instead of the YAML
+     * tree, see getLine(JsonNode, Node).
+     * 
+     * Like in the YAML tree, an error on an object is located on the first member of the object, and an error on a
+     * node that is missing or that is not an object is located on its key.
+     */
+    public static int getLine(JsonNode error, Model model) {
+        String path = getInstancePointer(error);
+
+        if (path == null || path.isEmpty() || model == null)
+            return 1;
+
+        AbstractNode node = model.getRoot();
+        if (node == null || !node.isObject())
+            return 1;
+
+        for (String segment : path.substring(1).split("/")) {
+            // ~1 is use to escape /
+            final AbstractNode child = node.get(segment.replaceAll("~1", "/"));
+            if (child == null) {
+                break;
+            }
+            if (!child.isObject()) {
+                return child.getStart().getLine() + 1;
+            }
+            node = child;
+        }
+
+        final AbstractNode[] elements = node.elements();
+        return (elements.length > 0 ? elements[0] : node).getStart().getLine() + 1;
+    }
+
     /*
      * Returns the yaml node that matches the given path.
      * 
@@ -12,27 +12,34 @@ package com.reprezen.swagedit.core.validation;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.ui.IFileEditorInput;
-import org.yaml.snakeyaml.nodes.MappingNode;
-import org.yaml.snakeyaml.nodes.Node;
-import org.yaml.snakeyaml.nodes.NodeId;
-import org.yaml.snakeyaml.nodes.NodeTuple;
-import org.yaml.snakeyaml.nodes.ScalarNode;
-import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.parser.ParserException;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.editor.JsonDocument;
 import com.reprezen.swagedit.core.json.references.JsonReference;
 import com.reprezen.swagedit.core.json.references.JsonReferenceValidator;
@@ -56,12 +63,20 @@ public abstract class Validator {
     private final JsonNode schemaRefTemplate = new ObjectMapper().createObjectNode() //
             .put("$ref", "#/definitions/schema");
 
-    private final Set<ValidationProvider> providers;
     private final IPreferenceStore preferenceStore;
+    private final IncrementalValidator incrementalValidator = new IncrementalValidator(this);
+
+    /**
+     * Pool shared by all validators to run the stages of validations concurrently.
+     */
+    private static final ForkJoinPool STAGES = new ForkJoinPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+
+    // delay in milliseconds between two checks of the monitor while waiting for a stage
+    private static final long CANCELLATION_CHECK_DELAY = 50;
 
     public Validator(IPreferenceStore preferenceStore) {
         this.preferenceStore = preferenceStore;
-        this.providers = ExtensionUtils.getValidationProviders();
     }
 
     public abstract JsonSchemaValidator getSchemaValidator();
@@ -85,68 +100,243 @@ public abstract class Validator {
      * @throws ParserException
      */
     public Set<SwaggerError> validate(JsonDocument document, IFileEditorInput editorInput) {
+        return validate(document, document.getSnapshot(), editorInput);
+    }
+
+    public Set<SwaggerError> validate(JsonDocument document, DocumentSnapshot snapshot,
+            IFileEditorInput editorInput) {
+        return validate(document, snapshot, editorInput, new NullProgressMonitor());
+    }
+
+    public Set<SwaggerError> validate(JsonDocument document, DocumentSnapshot snapshot, IFileEditorInput editorInput,
+            IProgressMonitor monitor) {
         URI baseURI = editorInput != null ? editorInput.getFile().getLocationURI() : null;
-        return validate(document, baseURI);
+        return validate(document, snapshot, baseURI, monitor);
     }
 
     public Set<SwaggerError> validate(JsonDocument document, URI baseURI) {
+        return validate(document, document.getSnapshot(), baseURI);
+    }
+
+    public Set<SwaggerError> validate(JsonDocument document, DocumentSnapshot snapshot, URI baseURI) {
+        return validate(document, snapshot, baseURI, new NullProgressMonitor());
+    }
+
+    /**
+     * Returns a list or errors if validation fails.
+     * 
+     * All representations of the document are read from the given snapshot, so that errors are computed for a single
+     * version of the document even if it is modified during validation.
+     * 
+     * Errors of the JSON schema and of the rules of the model that only read a node and its descendants are reused from
+     * the previous validation on the parts of the document that did not change, see
+     * {@link #executeModelValidation(Model, AbstractNode, Set)}.
+     * 
+     * The schema, the rules of the model, the duplicate keys and the references are checked concurrently, as they only
+     * read the snapshot. Each stage stops as soon as it finds the monitor canceled.
+     * 
+     * @param document
+     * @param snapshot
+     *            parsed content of the document
+     * @param baseURI
+     * @param monitor
+     *            checked for cancellation while waiting for the errors
+     * @return list or errors
+     * @throws OperationCanceledException
+     *             if the monitor is canceled
+     */
+    public Set<SwaggerError> validate(JsonDocument document, DocumentSnapshot snapshot, URI baseURI,
+            IProgressMonitor monitor) {
         Set<SwaggerError> errors = new HashSet<>();
 
-        JsonNode jsonContent = null;
-        try {
-            jsonContent = document.asJson();
-        } catch (Exception e) {
-            jsonContent = null;
+        JsonNode jsonContent = snapshot.getJson();
+        Model model = snapshot.getModel();
+
+        // errors are located with the model, the YAML tree of the snapshot is not needed
+        if (jsonContent != null && model != null && model.getRoot() != null) {
+            // validators are created before running the stages that share them
+            final JsonReferenceValidator referenceValidator = getReferenceValidator();
+            getSchemaValidator();
+
+            errors.addAll(runStages(monitor, Arrays.asList( //
+                    () -> incrementalValidator.validate(snapshot, monitor), //
+                    () -> validateReferences(baseURI, document, model, monitor), //
+                    () -> checkDuplicateKeys(model), //
+                    () -> referenceValidator.validate(baseURI, snapshot, monitor))));
+        } else if (snapshot.getIndex() != null && model != null) {
+            errors.addAll(validateViewport(baseURI, document, snapshot));
         }
 
-        if (jsonContent != null) {
-            Node yaml = document.getYaml();
-            Model model = document.getModel();
-            if (yaml != null && model != null) {
-                errors.addAll(getSchemaValidator().validate(document));
-                errors.addAll(validateDocument(baseURI, document));
-                errors.addAll(checkDuplicateKeys(yaml));
-                errors.addAll(getReferenceValidator().validate(baseURI, document, model));
+        return errors;
+    }
+
+    /*
+     * Runs the stages of a validation on the pool and merges their errors. Stages that are not started yet are dropped
+     * when the monitor is canceled.
+     */
+    private Set<SwaggerError> runStages(IProgressMonitor monitor,
+            List<Callable<Collection<? extends SwaggerError>>> stages) {
+        final List<ForkJoinTask<Collection<? extends SwaggerError>>> tasks = new ArrayList<>();
+        for (Callable<Collection<? extends SwaggerError>> stage : stages) {
+            tasks.add(STAGES.submit(stage));
+        }
+
+        final Set<SwaggerError> errors = new HashSet<>();
+        try {
+            for (ForkJoinTask<Collection<? extends SwaggerError>> task : tasks) {
+                Collection<? extends SwaggerError> result = null;
+                while (result == null) {
+                    if (monitor.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    try {
+                        result = task.get(CANCELLATION_CHECK_DELAY, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // check the monitor again
+                    }
+                }
+                errors.addAll(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
             }
         }
+        return errors;
+    }
+
+    /**
+     * Validates the part of a large document that is visible in the editor, see {@link JsonDocument#getViewport()}.
+     * 
+     * Only the rules of the model are checked, on the nodes whose content is entirely visible, as other nodes are not
+     * created.
+     * 
+     * @param baseURI
+     * @param document
+     * @param snapshot
+     * @return errors
+     */
+    protected Set<SwaggerError> validateViewport(URI baseURI, JsonDocument document, DocumentSnapshot snapshot) {
+        final Set<SwaggerError> errors = new HashSet<>();
+        final IRegion viewport = document.getViewport();
+        if (viewport == null) {
+            return errors;
+        }
+
+        final Model model = snapshot.getModel(viewport.getOffset(), viewport.getLength());
+        final int firstLine;
+        final int lastLine;
+        try {
+            firstLine = document.getLineOfOffset(viewport.getOffset());
+            lastLine = document.getLineOfOffset(viewport.getOffset() + viewport.getLength());
+        } catch (BadLocationException e) {
+            return errors;
+        }
 
+        final ProviderTable providers = new ProviderTable(getValidationProviders(), document);
+        for (AbstractNode node : model.allNodes()) {
+            if (node.getStart().getLine() >= firstLine && node.getEnd().getLine() <= lastLine) {
+                validateNode(baseURI, document, model, node, providers, errors);
+            }
+        }
         return errors;
     }
 
     /**
-     * Validates the model against with different rules that cannot be verified only by JSON schema validation.
+     * Validates the model with the rules that read other nodes than the validated node and its descendants, see
+     * {@link #executeModelReferenceValidation(Model, AbstractNode, Set)}, and with the validation providers. These rules
+     * are checked on all nodes of the model, providers only on the nodes of the types they declare.
      * 
      * @param baseURI
+     * @param document
      * @param model
+     * @param monitor
+     *            checked for cancellation before each node
      * @return errors
+     * @throws OperationCanceledException
+     *             if the monitor is canceled
      */
-    protected Set<SwaggerError> validateDocument(URI baseURI, JsonDocument document) {
+    protected Set<SwaggerError> validateReferences(URI baseURI, JsonDocument document, Model model,
+            IProgressMonitor monitor) {
         final Set<SwaggerError> errors = new HashSet<>();
-        final Model model = document.getModel();
 
-        if (model != null && model.getRoot() != null) {
+        if (model.getRoot() != null) {
+            final ProviderTable providers = new ProviderTable(getValidationProviders(), document);
             for (AbstractNode node : model.allNodes()) {
-                executeModelValidation(model, node, errors);
-                // execute validation from each providers
-                providers.forEach(provider -> {
-
-                    if (provider.isActive(document)) {
-                        Set<SwaggerError> result = provider.validate(document, baseURI, node);
-                        if (result != null) {
-                            errors.addAll(result);
-                        }
-                    }
-                });
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                validateNodeReferences(baseURI, document, model, node, providers, errors);
             }
         }
         return errors;
     }
 
+    private void validateNode(URI baseURI, JsonDocument document, Model model, AbstractNode node,
+            ProviderTable providers, Set<SwaggerError> errors) {
+        executeModelValidation(model, node, errors);
+        validateNodeReferences(baseURI, document, model, node, providers, errors);
+    }
+
+    private void validateNodeReferences(URI baseURI, JsonDocument document, Model model, AbstractNode node,
+            ProviderTable providers, Set<SwaggerError> errors) {
+        executeModelReferenceValidation(model, node, errors);
+        // execute validation from each providers that handles the type of the node
+        for (ValidationProvider provider : providers.get(node)) {
+            Set<SwaggerError> result = provider.validate(document, baseURI, node);
+            if (result != null) {
+                errors.addAll(result);
+            }
+        }
+    }
+
+    /**
+     * Returns the validation providers that are called on the nodes of the document, see {@link ValidationProvider}.
+     * 
+     * @return validation providers
+     */
+    protected Set<ValidationProvider> getValidationProviders() {
+        return ExtensionUtils.getValidationProviders();
+    }
+
+    /**
+     * Executes the rules of the model that only read the given node and its descendants.
+     * 
+     * Errors found by these rules on a part of the document that does not change are reused by the following
+     * validations, rules that read other nodes must be executed by
+     * {@link #executeModelReferenceValidation(Model, AbstractNode, Set)}.
+     * 
+     * @param model
+     * @param node
+     * @param errors
+     */
     protected void executeModelValidation(Model model, AbstractNode node, Set<SwaggerError> errors) {
         checkArrayTypeDefinition(errors, node);
         checkObjectTypeDefinition(errors, node);
     }
 
+    /**
+     * Executes the rules of the model that read other nodes than the given node and its descendants, such as references
+     * to other parts of the document. These rules are executed on all nodes at each validation.
+     * 
+     * @param model
+     * @param node
+     * @param errors
+     */
+    protected void executeModelReferenceValidation(Model model, AbstractNode node, Set<SwaggerError> errors) {
+    }
+
     /**
      * This method checks that the node if an array type definitions includes an items field.
      * 
@@ -266,62 +456,19 @@ public abstract class Validator {
     }
 
     /*
-     * Finds all duplicate keys in all objects present in the YAML document.
+     * Finds all duplicate keys in all objects of the model, see Model#getDuplicateKeys().
      */
-    protected Set<SwaggerError> checkDuplicateKeys(Node document) {
-        Map<Pair<Node, String>, Set<Node>> acc = new HashMap<>();
-
-        collectDuplicates(document, acc);
-
+    protected Set<SwaggerError> checkDuplicateKeys(Model model) {
         Set<SwaggerError> errors = new HashSet<>();
-        for (Pair<Node, String> key : acc.keySet()) {
-            Set<Node> duplicates = acc.get(key);
-
-            if (duplicates.size() > 1) {
-                for (Node duplicate : duplicates) {
-                    errors.add(createDuplicateError(key.getValue(), duplicate));
-                }
-            }
+        for (AbstractNode duplicate : model.getDuplicateKeys()) {
+            errors.add(createDuplicateError(duplicate.getProperty(), duplicate));
         }
 
         return errors;
     }
 
-    /*
-     * This method iterates through the YAML tree to collect the pairs of Node x String representing an object and one
-     * of it's keys. Each pair is associated to a Set of Nodes which contains all nodes being a key to the pair's Node
-     * and having for value the pair's key. Once the iteration is done, the resulting map should be traversed. Each pair
-     * having more than one element in its associated Set are duplicate keys.
-     */
-    protected void collectDuplicates(Node parent, Map<Pair<Node, String>, Set<Node>> acc) {
-        switch (parent.getNodeId()) {
-        case mapping: {
-            for (NodeTuple value : ((MappingNode) parent).getValue()) {
-                Node keyNode = value.getKeyNode();
-
-                if (keyNode.getNodeId() == NodeId.scalar) {
-                    Pair<Node, String> key = Pair.of(parent, ((ScalarNode) keyNode).getValue());
-                    acc.putIfAbsent(key, new HashSet<>());
-                    acc.get(key).add(keyNode);
-                }
-
-                collectDuplicates(value.getValueNode(), acc);
-            }
-        }
-            break;
-        case sequence: {
-            for (Node value : ((SequenceNode) parent).getValue()) {
-                collectDuplicates(value, acc);
-            }
-        }
-            break;
-        default:
-            break;
-        }
-    }
-
-    protected SwaggerError createDuplicateError(String key, Node node) {
-        return new SwaggerError(node.getStartMark().getLine() + 1, IMarker.SEVERITY_WARNING,
+    protected SwaggerError createDuplicateError(String key, AbstractNode node) {
+        return new SwaggerError(node.getStart().getLine() + 1, IMarker.SEVERITY_WARNING,
                 String.format(Messages.error_duplicate_keys, key));
     }
 
@@ -12,14 +12,11 @@ package com.reprezen.swagedit.openapi3.assist.contexts;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import org.eclipse.core.runtime.IPath;
 
-import com.fasterxml.jackson.core.JsonPointer;
 import com.reprezen.swagedit.core.assist.ProposalDescriptor;
 import com.reprezen.swagedit.core.assist.contexts.SchemaContextType;
-import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.Model;
 import com.reprezen.swagedit.core.schema.CompositeSchema;
 
@@ -28,8 +25,6 @@ import com.reprezen.swagedit.core.schema.CompositeSchema;
  */
 public class OperationIdContextType extends SchemaContextType {
 
-    private final JsonPointer operationPointer = JsonPointer.compile("/definitions/operation");
-
     public OperationIdContextType(CompositeSchema schema, String regex) {
         super(schema, "operationId", "operationId", regex, true);
     }
@@ -37,13 +32,11 @@ public class OperationIdContextType extends SchemaContextType {
     @Override
     public Collection<ProposalDescriptor> collectProposals(Model model, IPath path) {
         final Collection<ProposalDescriptor> results = new ArrayList<>();
-        final List<AbstractNode> nodes = model.findByType(operationPointer);
 
-        for (AbstractNode node : nodes) {
-            AbstractNode value = node.get("operationId");
-            if (value != null && value.asValue().getValue() instanceof String) {
-                String key = (String) value.asValue().getValue();
-                results.add(new ProposalDescriptor(key).replacementString(key).type(value.getProperty()));
+        for (Object value : model.getSymbols().getOperationIds()) {
+            if (value instanceof String) {
+                String key = (String) value;
+                results.add(new ProposalDescriptor(key).replacementString(key).type("operationId"));
             }
         }
         return results;
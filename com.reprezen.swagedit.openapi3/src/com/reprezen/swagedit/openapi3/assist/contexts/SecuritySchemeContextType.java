@@ -15,11 +15,10 @@ import java.util.Collection;
 
 import org.eclipse.core.runtime.IPath;
 
-import com.fasterxml.jackson.core.JsonPointer;
 import com.reprezen.swagedit.core.assist.ProposalDescriptor;
 import com.reprezen.swagedit.core.assist.contexts.SchemaContextType;
-import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.SymbolTable;
 import com.reprezen.swagedit.core.schema.CompositeSchema;
 
 /**
@@ -27,8 +26,6 @@ import com.reprezen.swagedit.core.schema.CompositeSchema;
  */
 public class SecuritySchemeContextType extends SchemaContextType {
 
-    private final JsonPointer securityPointer = JsonPointer.compile("/components/securitySchemes");
-
     public SecuritySchemeContextType(CompositeSchema schema, String regex) {
         super(schema, "securitySchemes", "securitySchemes", regex);
     }
@@ -36,12 +33,9 @@ public class SecuritySchemeContextType extends SchemaContextType {
     @Override
     public Collection<ProposalDescriptor> collectProposals(Model model, IPath path) {
         final Collection<ProposalDescriptor> results = new ArrayList<>();
-        AbstractNode securitySchemes = model.find(securityPointer);
 
-        if (securitySchemes != null && securitySchemes.isObject()) {
-            for (String key : securitySchemes.asObject().fieldNames()) {
-                results.add(new ProposalDescriptor(key).replacementString(key).type(securitySchemes.getProperty()));
-            }
+        for (String key : model.getSymbols().getComponentNames(SymbolTable.SECURITY_SCHEMES)) {
+            results.add(new ProposalDescriptor(key).replacementString(key).type("securitySchemes"));
         }
 
         return results;
@@ -43,11 +43,15 @@ import com.reprezen.swagedit.openapi3.hyperlinks.OpenApi3ReferenceHyperlinkDetec
 import com.reprezen.swagedit.openapi3.hyperlinks.SecuritySchemeHyperlinkDetector;
 import com.reprezen.swagedit.openapi3.schema.OpenApi3Schema;
 import com.reprezen.swagedit.openapi3.validation.OpenApi3Validator;
+import com.reprezen.swagedit.openapi3.validation.OpenApi3Validator.OpenApi3SchemaValidator;
 
 public class OpenApi3Editor extends JsonEditor {
 
     public static final String ID = "com.reprezen.swagedit.openapi3.editor";
 
+    // the schema validator is shared by all editors, as it only depends on the schema
+    private static OpenApi3SchemaValidator schemaValidator;
+
     private OpenApi3Validator validator;
 
     private final IPropertyChangeListener validationChangeListener = event -> {
@@ -124,13 +128,20 @@ public class OpenApi3Editor extends JsonEditor {
     @Override
     protected Validator createValidator() {
         if (validator == null) {
+            validator = new OpenApi3Validator(getSchemaValidator(), getPreferenceStore());
+        }
+
+        return validator;
+    }
+
+    private static synchronized OpenApi3SchemaValidator getSchemaValidator() {
+        if (schemaValidator == null) {
             Map<String, JsonNode> preloadedSchemas = new HashMap<>();
             JsonNode schema = Activator.getDefault().getSchema().getRootType().asJson();
             preloadedSchemas.put(OpenApi3Schema.URL, schema);
 
-            validator = new OpenApi3Validator(preloadedSchemas, getPreferenceStore());
+            schemaValidator = new OpenApi3SchemaValidator(schema, preloadedSchemas);
         }
-
-        return validator;
+        return schemaValidator;
     }
 }
@@ -10,10 +10,6 @@
  *******************************************************************************/
 package com.reprezen.swagedit.openapi3.hyperlinks;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.Objects;
-
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.hyperlink.IHyperlink;
@@ -36,18 +32,7 @@ public class LinkOperationHyperlinkDetector extends AbstractJsonHyperlinkDetecto
     protected IHyperlink[] doDetect(JsonDocument doc, ITextViewer viewer, HyperlinkInfo info, JsonPointer pointer) {
         Model model = doc.getModel();
         AbstractNode node = model.find(pointer);
-        List<AbstractNode> nodes = model.findByType(JsonPointer.compile("/definitions/operation"));
-        Iterator<AbstractNode> it = nodes.iterator();
-
-        AbstractNode found = null;
-        while (it.hasNext() && found == null) {
-            AbstractNode current = it.next();
-            AbstractNode value = current.get("operationId");
-
-            if (value != null && Objects.equals(node.asValue().getValue(), value.asValue().getValue())) {
-                found = value;
-            }
-        }
+        AbstractNode found = model.getSymbols().getOperationId(node.asValue().getValue());
 
         if (found != null) {
             IRegion target = doc.getRegion(found.getPointer());
@@ -23,6 +23,7 @@ import com.reprezen.swagedit.core.hyperlinks.AbstractJsonHyperlinkDetector;
 import com.reprezen.swagedit.core.hyperlinks.SwaggerHyperlink;
 import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.SymbolTable;
 
 public class SecuritySchemeHyperlinkDetector extends AbstractJsonHyperlinkDetector {
 
@@ -41,7 +42,7 @@ public class SecuritySchemeHyperlinkDetector extends AbstractJsonHyperlinkDetect
 
         if (link != null) {
             Model model = doc.getModel();
-            AbstractNode securityScheme = model.find("/components/securitySchemes/" + link);
+            AbstractNode securityScheme = model.getSymbols().getComponent(SymbolTable.SECURITY_SCHEMES, link);
 
             if (securityScheme != null) {
                 IRegion target = doc.getRegion(securityScheme.getPointer());
@@ -22,7 +22,7 @@ import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.reprezen.swagedit.core.editor.JsonDocument;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.json.references.JsonReference;
 import com.reprezen.swagedit.core.json.references.JsonReferenceFactory;
 import com.reprezen.swagedit.core.json.references.JsonReferenceValidator;
@@ -45,7 +45,7 @@ public class OpenApi3ReferenceValidator extends JsonReferenceValidator {
     }
 
     @Override
-    protected Set<SwaggerError> validateType(JsonDocument doc, URI baseURI, JsonReference reference,
+    protected Set<SwaggerError> validateType(DocumentSnapshot doc, URI baseURI, JsonReference reference,
             Collection<AbstractNode> sources) {
 
         Set<SwaggerError> errors = new HashSet<>();
@@ -58,8 +58,7 @@ public class OpenApi3ReferenceValidator extends JsonReferenceValidator {
             String ptr = isOperationValidation ? operationTypePointer.toString() : type;
             String message = isOperationValidation ? error_invalid_operation_ref : error_invalid_reference_type;
 
-            Set<JsonNode> report = getSchemaValidator().validate(target, ptr);
-            if (!report.isEmpty()) {
+            if (!isValidType(target, ptr)) {
                 errors.addAll(createReferenceError(SEVERITY_WARNING, message, sources));
             }
         }
@@ -14,15 +14,14 @@ import static com.reprezen.swagedit.openapi3.preferences.OpenApi3PreferenceConst
 import static org.eclipse.core.resources.IMarker.SEVERITY_ERROR;
 
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.preference.IPreferenceStore;
 
@@ -33,11 +32,13 @@ import com.reprezen.kaizen.oasparser.OpenApi3Parser;
 import com.reprezen.kaizen.oasparser.model3.OpenApi3;
 import com.reprezen.kaizen.oasparser.val.ValidationResults.Severity;
 import com.reprezen.kaizen.oasparser.val.ValidationResults.ValidationItem;
+import com.reprezen.swagedit.core.editor.DocumentSnapshot;
 import com.reprezen.swagedit.core.editor.JsonDocument;
 import com.reprezen.swagedit.core.json.references.JsonReferenceValidator;
 import com.reprezen.swagedit.core.model.AbstractNode;
 import com.reprezen.swagedit.core.model.ArrayNode;
 import com.reprezen.swagedit.core.model.Model;
+import com.reprezen.swagedit.core.model.SymbolTable;
 import com.reprezen.swagedit.core.validation.JsonSchemaValidator;
 import com.reprezen.swagedit.core.validation.Messages;
 import com.reprezen.swagedit.core.validation.SwaggerError;
@@ -54,8 +55,9 @@ public class OpenApi3Validator extends Validator {
         }
     }
 
-    private final JsonPointer operationPointer = JsonPointer.compile("/definitions/operation");
-    private final JsonPointer securityPointer = JsonPointer.compile("/components/securitySchemes");
+    private static final JsonPointer operationIdPointer = JsonPointer
+            .compile("/definitions/link/properties/operationId");
+    private static final Pattern securityRequirementPattern = Pattern.compile(".*/security/\\d+");
 
     private final JsonNode schema;
     private final Map<String, JsonNode> preloadedSchemas;
@@ -74,6 +76,20 @@ public class OpenApi3Validator extends Validator {
         this.schema = preloadedSchemas.get(OpenApi3Schema.URL);
     }
 
+    /**
+     * Creates a validator that uses the given schema validator, which can be shared with other validators.
+     * 
+     * @param schemaValidator
+     * @param preferenceStore
+     */
+    public OpenApi3Validator(JsonSchemaValidator schemaValidator, IPreferenceStore preferenceStore) {
+        super(preferenceStore);
+
+        this.preloadedSchemas = null;
+        this.schema = null;
+        this.schemaValidator = schemaValidator;
+    }
+
     protected boolean isAdvancedValidation() {
         return getPreferenceStore() != null && getPreferenceStore().getBoolean(ADVANCED_VALIDATION);
     }
@@ -95,16 +111,18 @@ public class OpenApi3Validator extends Validator {
     }
 
     @Override
-    public Set<SwaggerError> validate(JsonDocument document, URI baseURI) {
-        final Set<SwaggerError> errors = super.validate(document, baseURI);
+    public Set<SwaggerError> validate(JsonDocument document, DocumentSnapshot snapshot, URI baseURI,
+            IProgressMonitor monitor) {
+        final Set<SwaggerError> errors = super.validate(document, snapshot, baseURI, monitor);
         final long nbOfErrors = errors.stream().filter(e -> e.getLevel() == SEVERITY_ERROR).count();
 
         // Advanced validation is enable if no errors are detected (does not include
         // warnings and infos),
         // and option in UI is enable.
-        if (isAdvancedValidation() && nbOfErrors == 0) {
+        // Large documents are not read entirely, so they are not parsed by KaiZen.
+        if (isAdvancedValidation() && nbOfErrors == 0 && snapshot.getIndex() == null) {
             try {
-                OpenApi3 result = new OpenApi3Parser().parse(document.get(), baseURI.toURL(), true);
+                OpenApi3 result = new OpenApi3Parser().parse(snapshot.getText(), baseURI.toURL(), true);
 
                 for (ValidationItem item : result.getValidationResults().getItems()) {
                     PositionInfo pos = item.getPositionInfo();
@@ -135,25 +153,34 @@ public class OpenApi3Validator extends Validator {
     @Override
     protected void executeModelValidation(Model model, AbstractNode node, Set<SwaggerError> errors) {
         super.executeModelValidation(model, node, errors);
-        validateOperationIdReferences(model, node, errors);
-        validateSecuritySchemeReferences(model, node, errors);
         validateParameters(model, node, errors);
     }
 
+    @Override
+    protected void executeModelReferenceValidation(Model model, AbstractNode node, Set<SwaggerError> errors) {
+        super.executeModelReferenceValidation(model, node, errors);
+        // references cannot be checked if some nodes are missing from the model
+        if (!model.isPartial()) {
+            validateOperationIdReferences(model, node, errors);
+            validateSecuritySchemeReferences(model, node, errors);
+        }
+    }
+
     private void validateSecuritySchemeReferences(Model model, AbstractNode node, Set<SwaggerError> errors) {
-        if (node.getPointerString().matches(".*/security/\\d+")) {
-            AbstractNode securitySchemes = model.find(securityPointer);
+        if (securityRequirementPattern.matcher(node.getPointerString()).matches()) {
+            SymbolTable symbols = model.getSymbols();
 
             if (node.isObject()) {
                 for (String field : node.asObject().fieldNames()) {
-                    AbstractNode securityScheme = securitySchemes != null ? securitySchemes.get(field) : null;
+                    AbstractNode securityScheme = symbols.getComponent(SymbolTable.SECURITY_SCHEMES, field);
 
                     if (securityScheme == null) {
                         String message = Messages.error_invalid_security_scheme;
 
                         errors.add(error(node.get(field), IMarker.SEVERITY_ERROR, message));
                     } else {
-                        validateSecuritySchemeScopes(node, field, securityScheme, errors);
+                        validateSecuritySchemeScopes(node, field, securityScheme,
+                                symbols.getSecurityScopes(SymbolTable.SECURITY_SCHEMES, field), errors);
                     }
                 }
             }
@@ -163,14 +190,13 @@ public class OpenApi3Validator extends Validator {
     private List<String> oauthScopes = Arrays.asList("oauth2", "openIdConnect");
 
     private void validateSecuritySchemeScopes(AbstractNode node, String name, AbstractNode securityScheme,
-            Set<SwaggerError> errors) {
+            Set<String> scopes, Set<SwaggerError> errors) {
         String type = getType(securityScheme);
         if (type == null) {
             return;
         }
 
         boolean shouldHaveScopes = oauthScopes.contains(type);
-        List<String> scopes = getSecurityScopes(securityScheme);
 
         AbstractNode values = node.get(name);
         if (values.isArray()) {
@@ -210,39 +236,9 @@ public class OpenApi3Validator extends Validator {
         return (String) type.asValue().getValue();
     }
 
-    private List<String> getSecurityScopes(AbstractNode securityScheme) {
-        List<String> scopes = new ArrayList<>();
-
-        try {
-            AbstractNode flows = securityScheme.get("flows");
-            for (AbstractNode flow : flows.elements()) {
-                AbstractNode values = flow.get("scopes");
-                if (values != null && values.isObject()) {
-                    scopes.addAll(values.asObject().fieldNames());
-                }
-            }
-        } catch (Exception e) {
-            // could be a NPE, let's just return the scopes we have so far.
-        }
-        return scopes;
-    }
-
     protected void validateOperationIdReferences(Model model, AbstractNode node, Set<SwaggerError> errors) {
-        JsonPointer schemaPointer = JsonPointer.compile("/definitions/link/properties/operationId");
-
-        if (node != null && node.getType() != null && schemaPointer.equals(node.getType().getPointer())) {
-            List<AbstractNode> nodes = model.findByType(operationPointer);
-            Iterator<AbstractNode> it = nodes.iterator();
-
-            boolean found = false;
-            while (it.hasNext() && !found) {
-                AbstractNode current = it.next();
-                AbstractNode value = current.get("operationId");
-
-                found = value != null && Objects.equals(node.asValue().getValue(), value.asValue().getValue());
-            }
-
-            if (!found) {
+        if (node != null && node.getType() != null && operationIdPointer.equals(node.getType().getPointer())) {
+            if (model.getSymbols().getOperationId(node.asValue().getValue()) == null) {
                 errors.add(error(node, IMarker.SEVERITY_ERROR, Messages.error_invalid_operation_id));
             }
         }
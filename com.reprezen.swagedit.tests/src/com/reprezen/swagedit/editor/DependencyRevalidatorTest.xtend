@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.editor
+
+import com.reprezen.swagedit.core.editor.DependencyRevalidator
+import com.reprezen.swagedit.core.editor.ValidationScheduler
+import com.reprezen.swagedit.core.json.references.ReferenceGraph
+import java.net.URI
+import java.util.Collections
+import java.util.List
+import org.eclipse.core.resources.IResource
+import org.eclipse.core.resources.IResourceChangeEvent
+import org.eclipse.core.resources.IResourceChangeListener
+import org.eclipse.core.resources.IResourceDelta
+import org.eclipse.core.resources.IResourceDeltaVisitor
+import org.eclipse.core.resources.IWorkspace
+import org.eclipse.core.runtime.jobs.Job
+import org.junit.Before
+import org.junit.Test
+import org.mockito.ArgumentCaptor
+
+import static org.junit.Assert.*
+import static org.mockito.Matchers.*
+import static org.mockito.Mockito.*
+
+class DependencyRevalidatorTest {
+
+	val common = URI.create("file:/common.yaml")
+	val schemas = URI.create("file:/schemas.yaml")
+	val api = URI.create("file:/api.yaml")
+	val other = URI.create("file:/other.yaml")
+
+	val List<URI> validated = Collections.synchronizedList(newArrayList)
+	var ReferenceGraph graph
+	var DependencyRevalidator revalidator
+
+	@Before
+	def void setUp() {
+		graph = new ReferenceGraph
+		graph.setReferences(api, #[schemas, common])
+		graph.setReferences(schemas, #[common])
+		graph.setReferences(other, #[])
+		revalidator = new DependencyRevalidator(graph)
+	}
+
+	@Test
+	def void testDependentsAreValidatedInDependencyOrder() {
+		// registered before the document it depends on, and validated after it
+		revalidator.register(api, createScheduler(api))
+		revalidator.register(schemas, createScheduler(schemas))
+		revalidator.register(other, createScheduler(other))
+
+		val job = revalidator.revalidate(#{common})
+		job.join
+
+		assertEquals(#[schemas, api], validated)
+	}
+
+	@Test
+	def void testOnlyRegisteredSchedulersAreUsed() {
+		val scheduler = createScheduler(api)
+		revalidator.register(api, scheduler)
+		revalidator.register(schemas, createScheduler(schemas))
+		revalidator.unregister(scheduler)
+
+		revalidator.revalidate(#{common}).join
+		assertEquals(#[schemas], validated)
+
+		assertNull(revalidator.revalidate(#{api}))
+	}
+
+	@Test
+	def void testOnlyChangesOfFileContentsAreRevalidated() {
+		val workspace = mock(IWorkspace)
+		val captor = ArgumentCaptor.forClass(IResourceChangeListener)
+		revalidator.register(api, createScheduler(api))
+		revalidator.register(schemas, createScheduler(schemas))
+		revalidator.startListening(workspace)
+		verify(workspace).addResourceChangeListener(captor.capture, eq(IResourceChangeEvent.POST_CHANGE))
+		val listener = captor.value
+
+		// markers of a file changed, and a folder changed
+		listener.resourceChanged(mockEvent(
+			mockDelta(IResourceDelta.CHANGED, IResourceDelta.MARKERS, IResource.FILE, common),
+			mockDelta(IResourceDelta.CHANGED, IResourceDelta.CONTENT, IResource.FOLDER, common)
+		))
+		Job.jobManager.join(revalidator, null)
+		assertEquals(#[], validated)
+
+		listener.resourceChanged(mockEvent(
+			mockDelta(IResourceDelta.CHANGED, IResourceDelta.CONTENT, IResource.FILE, schemas)
+		))
+		Job.jobManager.join(revalidator, null)
+		assertEquals(#[api], validated)
+
+		// the references of a removed document are removed from the graph
+		validated.clear
+		listener.resourceChanged(mockEvent(
+			mockDelta(IResourceDelta.REMOVED, 0, IResource.FILE, api)
+		))
+		Job.jobManager.join(revalidator, null)
+		assertEquals(#[], validated)
+		assertEquals(#{}, graph.getReferences(api))
+
+		revalidator.stopListening
+		verify(workspace).removeResourceChangeListener(listener)
+	}
+
+	def private createScheduler(URI location) {
+		val scheduler = new ValidationScheduler(location.toString, null, [ parseFileContents, monitor |
+			// a later validation started before this one ends would be recorded first
+			Thread.sleep(50)
+			validated.add(location)
+		])
+		scheduler.delay = 0
+		scheduler
+	}
+
+	def private mockEvent(IResourceDelta... children) {
+		val root = mock(IResourceDelta)
+		doAnswer [
+			val visitor = arguments.get(0) as IResourceDeltaVisitor
+			for (child : children) {
+				visitor.visit(child)
+			}
+			return null
+		].when(root).accept(any(IResourceDeltaVisitor))
+
+		val event = mock(IResourceChangeEvent)
+		when(event.delta).thenReturn(root)
+		event
+	}
+
+	def private mockDelta(int kind, int flags, int type, URI location) {
+		val resource = mock(IResource)
+		when(resource.type).thenReturn(type)
+		when(resource.locationURI).thenReturn(location)
+
+		val delta = mock(IResourceDelta)
+		when(delta.resource).thenReturn(resource)
+		when(delta.kind).thenReturn(kind)
+		when(delta.flags).thenReturn(flags)
+		delta
+	}
+
+}
@@ -10,7 +10,13 @@
  *******************************************************************************/
 package com.reprezen.swagedit.editor
 
+import com.fasterxml.jackson.core.JsonPointer
 import com.reprezen.swagedit.tests.utils.Cursors
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.jface.text.DocumentEvent
+import org.eclipse.jface.text.IDocumentListener
 import org.junit.Test
 
 import static com.reprezen.swagedit.tests.utils.Cursors.*
@@ -235,4 +241,444 @@ class SwaggerDocumentTest {
 		test.apply("/paths/~1pets/get/parameters/1/$ref", "4")
 	}
 
+	@Test
+	def void testModelYamlAndJsonFromSameContent() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  version: 1.0.0
+			  title: Swagger Petstore
+			x-count: 12
+			x-enabled: true
+			x-empty:
+		''')
+		doc.onChange
+
+		val root = doc.model.root
+		assertEquals("2.0", root.get("swagger").asValue.value)
+		assertEquals(12, root.get("x-count").asValue.value)
+		assertEquals(true, root.get("x-enabled").asValue.value)
+		assertNull(root.get("x-empty").asValue.value)
+		assertEquals(1, root.get("info").start.line)
+		assertEquals(3, root.get("info").get("title").start.line)
+		assertEquals(2, root.get("info").get("title").start.column)
+
+		val json = doc.asJson
+		assertEquals("1.0.0", json.at("/info/version").asText)
+		assertTrue(json.at("/x-count").isInt)
+		assertTrue(json.at("/x-enabled").isBoolean)
+		assertTrue(json.at("/x-empty").isNull)
+
+		assertNotNull(doc.yaml)
+		assertNull(doc.yamlError)
+		assertNull(doc.jsonError)
+	}
+
+	@Test
+	def void testJsonExpandsMergeKeys() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			definitions:
+			  base: &base
+			    type: object
+			    description: base
+			  pet:
+			    <<: *base
+			    description: pet
+		''')
+		doc.onChange
+
+		val json = doc.asJson
+		assertEquals("object", json.at("/definitions/pet/type").asText)
+		assertEquals("pet", json.at("/definitions/pet/description").asText)
+		assertFalse(json.at("/definitions/pet").has("<<"))
+	}
+
+	@Test
+	def void testInvalidYamlHasNoJson() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: [
+		''')
+		doc.onChange
+
+		assertNotNull(doc.yamlError)
+		assertNull(doc.asJson)
+	}
+
+	@Test
+	def void testJsonContent() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			{
+			  "swagger": "2.0",
+			  "info": {
+			    "title": "Swagger Petstore",
+			    "version": "1.0.0"
+			  }
+			}
+		''')
+		doc.onChange
+
+		assertEquals("Swagger Petstore", doc.asJson.at("/info/title").asText)
+		assertEquals(3, doc.model.find("/info/title").start.line)
+		assertEquals(4, doc.model.find("/info/title").start.column)
+		assertNull(doc.yamlError)
+		assertNotNull(doc.yaml)
+	}
+
+	@Test
+	def void testLargeDocument() {
+		val doc = new SwaggerDocument
+		doc.largeDocumentSize = 0
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+			paths:
+			  /pets:
+			    get:
+			      responses:
+			        200:
+			          description: OK
+		''')
+		doc.onChange
+
+		assertTrue(doc.large)
+		assertNull(doc.asJson)
+		assertNull(doc.yaml)
+		assertNull(doc.yamlError)
+		// the model only contains the first levels of the document
+		assertNotNull(doc.model.find("/paths/~1pets/get"))
+		assertNull(doc.model.find("/paths/~1pets/get/responses"))
+		// other nodes are created when needed
+		val description = JsonPointer.compile("/paths/~1pets/get/responses/200/description")
+		assertEquals("OK", doc.getModel(doc.get.indexOf("OK")).find(description).asValue.value)
+		assertEquals(description, doc.getPath(8, 23))
+		assertEquals(doc.getLineOffset(8), doc.getRegion(description).offset)
+	}
+
+	@Test
+	def void testInvalidYamlHasModel() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: [
+			  version: 1.0.0
+		''')
+		doc.onChange
+
+		assertNotNull(doc.yamlError)
+		assertEquals(#[2], doc.model.errorLines.toList)
+		assertEquals("1.0.0", doc.model.find("/info/version").asValue.value)
+	}
+
+	@Test
+	def void testCodeAssistModelOnInvalidLine() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: 'Swagger
+			  version: 1.0.0
+		''')
+		val offset = doc.get.indexOf("'Swagger")
+		val model = doc.getModel(offset)
+
+		assertTrue(doc.model.errorLines.contains(2))
+		assertNull(doc.model.find("/info/title"))
+		assertTrue(model.find("/info/title").isValue)
+		assertEquals("1.0.0", model.find("/info/version").asValue.value)
+		assertEquals(JsonPointer.compile("/info/title"), model.getPath(2, 9))
+	}
+
+	@Test
+	def void testChangeInsideBlockUpdatesModelAndJson() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  version: 1.0.0
+			  title: Swagger Petstore
+			paths:
+			  /pets:
+			    get:
+			      operationId: listPets
+		''')
+		doc.onChange
+
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		doc.onChange
+
+		assertEquals("Swagger Pets", doc.model.find("/info/title").asValue.value)
+		assertEquals("Swagger Pets", doc.asJson.at("/info/title").asText)
+		assertEquals(7, doc.model.find("/paths/~1pets/get/operationId").start.line)
+		assertNotNull(doc.yaml)
+		assertSameAsFullParse(doc)
+	}
+
+	@Test
+	def void testChangeInsideBlockMovesFollowingNodes() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  version: 1.0.0
+			  title: Swagger Petstore
+			paths:
+			  /pets:
+			    get:
+			      operationId: listPets
+		''')
+		doc.onChange
+
+		doc.replace(doc.get.indexOf("  title"), 0, "  description: |\n    some\n    text\n")
+		doc.onChange
+
+		assertEquals("some\ntext\n", doc.model.find("/info/description").asValue.value)
+		assertEquals(6, doc.model.find("/info/title").start.line)
+		assertEquals(10, doc.model.find("/paths/~1pets/get/operationId").start.line)
+		assertEquals(6, doc.model.find("/paths/~1pets/get/operationId").start.column)
+		assertSameAsFullParse(doc)
+	}
+
+	@Test
+	def void testChangeInsideBlockKeepsPreviousModel() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+			paths:
+			  /pets:
+			    get:
+			      operationId: listPets
+		''')
+		doc.onChange
+		val previous = doc.model
+
+		doc.replace(doc.get.indexOf("  title"), 0, "  version: 1.0.0\n")
+		doc.onChange
+
+		val model = doc.model
+		assertNotSame(previous, model)
+		assertEquals(7, model.find("/paths/~1pets/get/operationId").start.line)
+		assertSame(model, model.find("/paths/~1pets/get/operationId").model)
+		assertSame(model.find("/paths/~1pets/get"), model.find("/paths/~1pets/get/operationId").parent)
+
+		assertEquals(6, previous.find("/paths/~1pets/get/operationId").start.line)
+		assertSame(previous, previous.find("/paths/~1pets/get/operationId").model)
+		assertNull(previous.find("/info/version"))
+		assertSameAsFullParse(doc)
+	}
+
+	@Test
+	def void testChangeOutsideBlockParsesDocument() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  version: 1.0.0
+			  title: [ Swagger,
+			    Petstore ]
+			x-alias: &title Swagger
+		''')
+		doc.onChange
+
+		doc.replace(doc.get.indexOf("Petstore"), 0, "The ")
+		doc.onChange
+		assertEquals("The Petstore", doc.asJson.at("/info/title/1").asText)
+		assertSameAsFullParse(doc)
+
+		doc.replace(doc.length, 0, "x-title: *title\n")
+		doc.onChange
+		assertEquals("Swagger", doc.asJson.at("/x-title").asText)
+		assertEquals(6, doc.model.find("/x-title").start.line)
+		assertSameAsFullParse(doc)
+	}
+
+	@Test
+	def void testInvalidChangeInsideBlock() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  version: 1.0.0
+			  title: Swagger Petstore
+		''')
+		doc.onChange
+
+		doc.replace(doc.get.indexOf("Swagger Petstore"), 0, "[ ")
+		doc.onChange
+
+		assertNotNull(doc.yamlError)
+		assertNull(doc.asJson)
+	}
+
+	@Test
+	def void testScheduledParseNotifiesListeners() {
+		val doc = new SwaggerDocument
+		val notified = newArrayList
+		doc.addParseListener([notified.add(it)])
+
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		doc.scheduleParse
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		doc.scheduleParse
+		Job.jobManager.join(doc, null)
+
+		assertEquals(1, notified.size)
+		assertEquals(doc.modificationStamp, doc.parsedModificationStamp)
+		assertEquals("Swagger Pets", doc.asJson.at("/info/title").asText)
+		assertEquals("Swagger Pets", doc.model.find("/info/title").asValue.value)
+	}
+
+	@Test
+	def void testCodeAssistModelIsUpToDate() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		doc.onChange
+		doc.replace(doc.get.indexOf("info"), 0, "x-tag: foo\n")
+
+		assertNotEquals(doc.modificationStamp, doc.parsedModificationStamp)
+		assertEquals(3, doc.getModel(doc.length).find("/info/title").start.line)
+		assertEquals(doc.modificationStamp, doc.parsedModificationStamp)
+	}
+
+	@Test
+	def void testSnapshotIsNotChangedByLaterParses() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		val snapshot = doc.snapshot
+		assertEquals(doc.modificationStamp, snapshot.version)
+		assertEquals(doc.get, snapshot.text)
+
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		val next = doc.snapshot
+
+		assertEquals(doc.modificationStamp, next.version)
+		assertEquals("Swagger Pets", next.json.at("/info/title").asText)
+		assertEquals("Swagger Pets", next.model.find("/info/title").asValue.value)
+
+		assertNotEquals(snapshot.version, next.version)
+		assertEquals("Swagger Petstore", snapshot.json.at("/info/title").asText)
+		assertEquals("Swagger Petstore", snapshot.model.find("/info/title").asValue.value)
+		assertTrue(snapshot.text.contains("Swagger Petstore"))
+	}
+
+	@Test
+	def void testSnapshotOfIncrementalParseHasYaml() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		doc.onChange
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		val snapshot = doc.snapshot
+
+		assertNull(snapshot.yamlError)
+		assertEquals(snapshot.json, new SwaggerDocument => [set(snapshot.text) onChange].asJson)
+		assertNotNull(snapshot.yaml)
+		assertSame(snapshot.yaml, snapshot.yaml)
+	}
+
+	@Test
+	def void testSnapshotIsNotParsedWhileParseIsScheduled() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		doc.onChange
+		val version = doc.parsedModificationStamp
+
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		doc.scheduleParse
+		assertEquals(version, doc.snapshot.version)
+
+		Job.jobManager.join(doc, null)
+		assertEquals(doc.modificationStamp, doc.snapshot.version)
+	}
+
+	@Test
+	def void testContentIsNotReadDuringModification() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+		''')
+		val read = new CountDownLatch(1)
+		val reader = new Thread[
+			doc.get
+			read.countDown
+		]
+		doc.addDocumentListener(new IDocumentListener {
+			override documentAboutToBeChanged(DocumentEvent event) {
+			}
+
+			override documentChanged(DocumentEvent event) {
+				reader.start
+				// the reader waits for the end of the modification
+				assertFalse(read.await(100, TimeUnit.MILLISECONDS))
+			}
+		})
+
+		doc.replace(0, 0, "# comment\n")
+		assertTrue(read.await(5, TimeUnit.SECONDS))
+	}
+
+	@Test
+	def void testSnapshotRequestedDuringModificationIsParsedLater() {
+		val doc = new SwaggerDocument
+		doc.set('''
+			swagger: "2.0"
+			info:
+			  title: Swagger Petstore
+		''')
+		doc.onChange
+		val version = doc.parsedModificationStamp
+		doc.addDocumentListener(new IDocumentListener {
+			override documentAboutToBeChanged(DocumentEvent event) {
+			}
+
+			override documentChanged(DocumentEvent event) {
+				assertEquals(version, doc.snapshot.version)
+			}
+		})
+
+		doc.replace(doc.get.indexOf("Petstore"), "Petstore".length, "Pets")
+		Job.jobManager.join(doc, null)
+
+		assertEquals(doc.modificationStamp, doc.snapshot.version)
+		assertEquals("Swagger Pets", doc.snapshot.json.at("/info/title").asText)
+	}
+
+	def private assertSameAsFullParse(SwaggerDocument doc) {
+		val expected = new SwaggerDocument
+		expected.set(doc.get)
+		expected.onChange
+
+		assertEquals(expected.asJson, doc.asJson)
+		assertEquals(expected.model.allNodes.map[pointer + " " + start + " " + end + " " + type?.pointer].toList,
+			doc.model.allNodes.map[pointer + " " + start + " " + end + " " + type?.pointer].toList)
+	}
+
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.editor
+
+import com.reprezen.swagedit.core.editor.ValidationScheduler
+import java.util.Collections
+import java.util.List
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.eclipse.core.runtime.OperationCanceledException
+import org.eclipse.core.runtime.jobs.Job
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ValidationSchedulerTest {
+
+	@Test
+	def void testRequestsDuringDelayAreCoalesced() {
+		val List<Boolean> runs = Collections.synchronizedList(newArrayList)
+		val scheduler = new ValidationScheduler("test", null, [ parseFileContents, monitor |
+			runs.add(parseFileContents)
+		])
+
+		scheduler.schedule(false)
+		scheduler.schedule(true)
+		scheduler.schedule(false)
+		Job.jobManager.join(scheduler, null)
+
+		assertEquals(#[true], runs)
+		assertEquals(2, scheduler.coalescedCount)
+		assertEquals(0, scheduler.canceledCount)
+	}
+
+	@Test
+	def void testRequestDuringValidationCancelsIt() {
+		val List<Boolean> runs = Collections.synchronizedList(newArrayList)
+		val started = new CountDownLatch(1)
+		val finished = new CountDownLatch(2)
+		val scheduler = new ValidationScheduler("test", null, [ parseFileContents, monitor |
+			try {
+				runs.add(parseFileContents)
+				if (runs.size == 1) {
+					started.countDown
+					while (!monitor.canceled) {
+						Thread.sleep(10)
+					}
+					throw new OperationCanceledException
+				}
+			} finally {
+				finished.countDown
+			}
+		])
+		scheduler.delay = 0
+
+		scheduler.schedule(true)
+		assertTrue(started.await(10, TimeUnit.SECONDS))
+		scheduler.schedule(false)
+		scheduler.schedule(false)
+		assertTrue(finished.await(10, TimeUnit.SECONDS))
+		Job.jobManager.join(scheduler, null)
+
+		// the canceled validation is run again once, and still parses the document
+		assertEquals(#[true, true], runs)
+		assertEquals(1, scheduler.canceledCount)
+		assertEquals(1, scheduler.coalescedCount)
+	}
+
+}
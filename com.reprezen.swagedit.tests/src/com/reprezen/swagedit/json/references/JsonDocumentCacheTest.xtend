@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.json.references
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory
+import com.reprezen.swagedit.core.json.references.JsonDocumentCache
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager
+import java.io.File
+import java.net.URI
+import java.nio.file.Files
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class JsonDocumentCacheTest {
+
+	val a = URI.create("file:/a.yaml")
+	val b = URI.create("file:/b.yaml")
+	val c = URI.create("file:/c.yaml")
+
+	@Test
+	def void testLeastRecentlyUsedDocumentsAreEvicted() {
+		val cache = new JsonDocumentCache(2, 100, 1)
+		val doc = JsonNodeFactory.instance.objectNode
+
+		cache.put(a, doc, 1, 1)
+		cache.put(b, doc, 1, 1)
+		assertSame(doc, cache.get(a, [1L]))
+		cache.put(c, doc, 1, 1)
+
+		assertNull(cache.get(b, [1L]))
+		assertSame(doc, cache.get(a, [1L]))
+		assertSame(doc, cache.get(c, [1L]))
+		assertEquals(2, cache.size)
+		assertEquals(3, cache.hitCount)
+		assertEquals(1, cache.missCount)
+		assertEquals(1, cache.evictionCount)
+	}
+
+	@Test
+	def void testDocumentsAreBoundedByWeight() {
+		val cache = new JsonDocumentCache(10, 10, 1)
+		val doc = JsonNodeFactory.instance.objectNode
+
+		cache.put(a, doc, 6, 1)
+		cache.put(b, doc, 6, 1)
+
+		assertNull(cache.get(a, [1L]))
+		assertSame(doc, cache.get(b, [1L]))
+		assertEquals(6, cache.weight)
+		assertEquals(1, cache.evictionCount)
+	}
+
+	@Test
+	def void testDocumentsOfChangedFilesAreDropped() {
+		val cache = new JsonDocumentCache
+		val doc = JsonNodeFactory.instance.objectNode
+
+		cache.put(a, doc, 1, 1)
+		cache.put(b, doc, 1, JsonDocumentCache.WATCHED)
+
+		assertNull(cache.get(a, [2L]))
+		assertSame(doc, cache.get(b, [fail("watched documents are not checked"); 0L]))
+		assertEquals(1, cache.size)
+
+		cache.invalidate(b)
+		assertEquals(0, cache.size)
+		assertEquals(0, cache.weight)
+	}
+
+	@Test
+	def void testManagerParsesFilesOnlyAfterChanges() {
+		val file = File.createTempFile("document", ".yaml")
+		file.deleteOnExit
+		Files.write(file.toPath, "a: 1".bytes)
+		file.lastModified = 10000
+
+		val manager = new JsonDocumentManager
+		val document = manager.getDocument(file.toURI)
+
+		assertEquals(1, document.get("a").asInt)
+		assertSame(document, manager.getDocument(new URI(file.toURI + "#/a")))
+		assertEquals(1, manager.cache.hitCount)
+
+		Files.write(file.toPath, "a: 2".bytes)
+		file.lastModified = 20000
+
+		assertEquals(2, manager.getDocument(file.toURI).get("a").asInt)
+		assertEquals(1, manager.cache.hitCount)
+		assertEquals(2, manager.cache.missCount)
+	}
+
+}
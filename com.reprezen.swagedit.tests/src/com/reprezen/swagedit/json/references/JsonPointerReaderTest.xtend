@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.json.references
+
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonPointer
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager
+import com.reprezen.swagedit.core.json.references.JsonPointerReader
+import java.io.File
+import java.net.URI
+import java.nio.file.Files
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class JsonPointerReaderTest {
+
+	val reader = new JsonPointerReader
+
+	@Test
+	def void testReadNodeAtPointer() {
+		val content = '''
+			{
+			  "skipped": { "a": [1, 2, { "b": 3 }] },
+			  "items": [ "x", { "y": [true] }, "z" ],
+			  "target": { "c": 4 }
+			}
+		'''
+
+		assertEquals(4, read(content, "/target/c").asInt)
+		assertTrue(read(content, "/items/1/y/0").asBoolean)
+		assertEquals(1, read(content, "/target").size)
+		assertEquals(content.replaceAll("\\s", ""), read(content, "").toString)
+	}
+
+	@Test
+	def void testReadMissingNode() {
+		val content = '''
+			{ "a": { "b": [1, 2] }, "c": 1 }
+		'''
+
+		assertTrue(read(content, "/d").missingNode)
+		assertTrue(read(content, "/a/b/2").missingNode)
+		assertTrue(read(content, "/a/b/x").missingNode)
+		assertTrue(read(content, "/c/d").missingNode)
+	}
+
+	@Test
+	def void testReadLastDuplicateMember() {
+		val content = '''
+			a:
+			  b: 1
+			c: 2
+			a:
+			  d: [3, 4]
+			  d: [5]
+		'''
+
+		val tree = new ObjectMapper(new YAMLFactory).readTree(content)
+		for (pointer : #["/a", "/a/b", "/a/d", "/a/d/0", "/a/d/1", "/c"]) {
+			val parser = new YAMLFactory().createParser(content)
+			assertEquals(tree.at(pointer), reader.read(parser, JsonPointer.compile(pointer)))
+		}
+	}
+
+	@Test
+	def void testReadSeveralPointers() {
+		val content = '''
+			a:
+			  b: 1
+			c: [2, { e: 3 }]
+			a:
+			  d: [4]
+		'''
+
+		val tree = new ObjectMapper(new YAMLFactory).readTree(content)
+		val pointers = #["", "/a", "/a/b", "/a/d/0", "/c/1/e", "/c/2", "/f"].map[JsonPointer.compile(it)]
+		val nodes = reader.read(new YAMLFactory().createParser(content), pointers)
+
+		assertEquals(pointers.size, nodes.size)
+		for (pointer : pointers) {
+			assertEquals(tree.at(pointer), nodes.get(pointer))
+		}
+	}
+
+	@Test
+	def void testManagerReadsNodesOfLargeFiles() {
+		val file = File.createTempFile("large", ".json")
+		file.deleteOnExit
+		Files.write(file.toPath, '''{ "a": { "b": 1 }, "c": [] }'''.toString.bytes)
+		file.lastModified = 10000
+
+		val manager = new JsonDocumentManager
+		val uri = file.toURI
+		assertNull(manager.getNode(uri, JsonPointer.compile("/a/b")))
+
+		manager.largeDocumentSize = 0
+		val node = manager.getNode(uri, JsonPointer.compile("/a"))
+		assertEquals(1, node.get("b").asInt)
+		assertSame(node, manager.getNode(new URI(uri + "#/x"), JsonPointer.compile("/a")))
+		assertTrue(manager.getNode(uri, JsonPointer.compile("/a/d")).missingNode)
+
+		Files.write(file.toPath, '''{ "a": { "b": 2 } }'''.toString.bytes)
+		file.lastModified = 20000
+
+		assertEquals(2, manager.getNode(uri, JsonPointer.compile("/a/b")).asInt)
+		assertEquals(2, manager.getNode(uri, JsonPointer.compile("/a")).get("b").asInt)
+	}
+
+	@Test
+	def void testManagerReadsNodesOfLargeFilesTogether() {
+		val file = File.createTempFile("large", ".json")
+		file.deleteOnExit
+		Files.write(file.toPath, '''{ "a": { "b": 1 }, "c": [2] }'''.toString.bytes)
+
+		val manager = new JsonDocumentManager
+		manager.largeDocumentSize = 0
+		val uri = file.toURI
+		val b = JsonPointer.compile("/a/b")
+		val c = JsonPointer.compile("/c/0")
+		val d = JsonPointer.compile("/d")
+
+		val nodes = manager.getNodes(uri, #[b, c, d])
+		assertEquals(1, nodes.get(b).asInt)
+		assertEquals(2, nodes.get(c).asInt)
+		assertTrue(nodes.get(d).missingNode)
+		assertSame(nodes.get(b), manager.getNode(uri, b))
+
+		// nodes are taken from the whole document once it is cached
+		val document = manager.getDocument(uri)
+		assertSame(document.get("a"), manager.getNode(uri, JsonPointer.compile("/a")))
+	}
+
+	def read(String content, String pointer) {
+		reader.read(new JsonFactory().createParser(content), JsonPointer.compile(pointer))
+	}
+
+}
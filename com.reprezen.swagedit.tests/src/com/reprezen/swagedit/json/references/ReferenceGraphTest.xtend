@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.json.references
+
+import com.reprezen.swagedit.core.json.references.ReferenceGraph
+import java.io.File
+import java.net.URI
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ReferenceGraphTest {
+
+	val common = URI.create("file:/common.yaml")
+	val schemas = URI.create("file:/schemas.yaml")
+	val api = URI.create("file:/api.yaml")
+	val other = URI.create("file:/other.yaml")
+
+	@Test
+	def void testDependentsAreSortedByDependencies() {
+		val graph = new ReferenceGraph
+		graph.setReferences(api, #[schemas, common])
+		graph.setReferences(schemas, #[common])
+		graph.setReferences(other, #[api])
+
+		assertEquals(#[schemas, api, other], graph.getDependents(#{common}))
+		assertEquals(#[api, other], graph.getDependents(#{schemas}))
+		assertEquals(#[], graph.getDependents(#{other}))
+	}
+
+	@Test
+	def void testReferencesAreReplaced() {
+		val graph = new ReferenceGraph
+		graph.setReferences(api, #[schemas, api])
+		assertEquals(#{schemas}, graph.getReferences(api))
+
+		graph.setReferences(api, #[common])
+		assertEquals(#[], graph.getDependents(#{schemas}))
+		assertEquals(#[api], graph.getDependents(#{common}))
+
+		graph.remove(api)
+		assertEquals(#[], graph.getDependents(#{common}))
+	}
+
+	@Test
+	def void testGraphIsSavedAndLoaded() {
+		val file = File.createTempFile("references", ".json")
+		file.deleteOnExit
+
+		val graph = new ReferenceGraph
+		graph.setReferences(api, #[schemas, common])
+		graph.setReferences(schemas, #[common])
+		graph.save(file)
+
+		val loaded = new ReferenceGraph
+		loaded.load(file)
+		assertEquals(#{schemas, common}, loaded.getReferences(api))
+		assertEquals(#[schemas, api], loaded.getDependents(#{common}))
+
+		loaded.load(new File(file.parentFile, "missing.json"))
+		assertEquals(#{}, loaded.getReferences(api))
+	}
+
+}
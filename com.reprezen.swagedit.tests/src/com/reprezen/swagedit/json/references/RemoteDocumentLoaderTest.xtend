@@ -0,0 +1,271 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.json.references
+
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager
+import com.reprezen.swagedit.core.json.references.RemoteDocumentLoader
+import java.io.BufferedReader
+import java.io.File
+import java.io.IOException
+import java.io.InputStreamReader
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.net.Socket
+import java.net.URI
+import java.net.URL
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.List
+import java.util.Map
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class RemoteDocumentLoaderTest {
+
+	var LocalServer server
+	var File directory
+	val loaders = <RemoteDocumentLoader>newArrayList
+
+	@Before
+	def void setUp() {
+		server = new LocalServer
+		server.content = "a: 1"
+		server.etag = '"1"'
+		directory = Files.createTempDirectory("remote").toFile
+	}
+
+	@After
+	def void tearDown() {
+		loaders.forEach[dispose]
+		server.close
+		directory.listFiles.forEach[delete]
+		directory.delete
+	}
+
+	@Test
+	def void testCopiesAreKeptForNextSessions() {
+		val url = server.url("/schemas.yaml")
+		val loader = createLoader
+
+		assertEquals("a: 1", new String(loader.load(url)))
+		assertEquals(1, server.requests.size)
+
+		val offline = createLoader
+		offline.offline = true
+
+		assertEquals("a: 1", new String(offline.load(url)))
+		assertEquals(loader.getTimestamp(url), offline.getTimestamp(url))
+		assertEquals(1, server.requests.size)
+	}
+
+	@Test
+	def void testCopiesAreRevalidatedWithConditionalRequests() {
+		val url = server.url("/schemas.yaml")
+		val changes = <URI>newArrayList
+		val loader = createLoader
+		loader.addListener[changes.add(it)]
+
+		loader.load(url)
+		val timestamp = loader.getTimestamp(url)
+		assertEquals("a: 1", new String(loader.revalidate(url).get(5, TimeUnit.SECONDS)))
+
+		assertEquals(2, server.requests.size)
+		assertNull(server.requests.get(0).get("if-none-match"))
+		assertEquals('"1"', server.requests.get(1).get("if-none-match"))
+		assertEquals(timestamp, loader.getTimestamp(url))
+		assertTrue(changes.empty)
+
+		server.content = "a: 2"
+		server.etag = '"2"'
+		assertEquals("a: 2", new String(loader.revalidate(url).get(5, TimeUnit.SECONDS)))
+
+		assertEquals(#[url.toURI], changes)
+		assertNotEquals(timestamp, loader.getTimestamp(url))
+		assertEquals("a: 2", new String(loader.load(url)))
+	}
+
+	@Test
+	def void testLoadDoesNotWaitForServerWhenCopyExists() {
+		val url = server.url("/schemas.yaml")
+		val loader = createLoader
+		loader.timeToLive = 0
+		loader.load(url)
+
+		server.blocked = new CountDownLatch(1)
+		server.content = "a: 2"
+		server.etag = '"2"'
+		try {
+			assertEquals("a: 1", new String(loader.load(url)))
+		} finally {
+			server.blocked.countDown
+		}
+
+		assertEquals("a: 2", new String(loader.revalidate(url).get(5, TimeUnit.SECONDS)))
+	}
+
+	@Test(expected=IOException)
+	def void testOfflineLoaderWithoutCopy() {
+		val loader = createLoader
+		loader.offline = true
+
+		try {
+			loader.load(server.url("/schemas.yaml"))
+		} finally {
+			assertTrue(server.requests.empty)
+		}
+	}
+
+	@Test
+	def void testManagerParsesRemoteDocumentsAfterChanges() {
+		val url = server.url("/schemas.yaml")
+		val loader = createLoader
+		val manager = new JsonDocumentManager
+		manager.remoteLoader = loader
+
+		assertEquals(1, manager.getDocument(url.toURI).get("a").asInt)
+		assertEquals(1, manager.getDocument(url.toURI).get("a").asInt)
+		assertEquals(1, server.requests.size)
+
+		server.content = "a: 2"
+		server.etag = '"2"'
+		loader.revalidate(url).get(5, TimeUnit.SECONDS)
+
+		assertEquals(2, manager.getDocument(url.toURI).get("a").asInt)
+		assertEquals(2, server.requests.size)
+	}
+
+	@Test
+	def void testLeastRecentlyUsedCopiesAreDeletedAboveMaximumSize() {
+		val loader = createLoader
+		server.content = "a: " + (1 .. 1000).map["x"].join
+		loader.load(server.url("/first.yaml"))
+		directory.listFiles.forEach[lastModified = System.currentTimeMillis - 60000]
+		loader.load(server.url("/second.yaml"))
+
+		loader.maximumSize = 3000
+		assertEquals(4, directory.listFiles.size)
+		loader.load(server.url("/third.yaml"))
+
+		val offline = createLoader
+		offline.offline = true
+		assertNotNull(offline.load(server.url("/third.yaml")))
+		assertNotNull(offline.load(server.url("/second.yaml")))
+		try {
+			offline.load(server.url("/first.yaml"))
+			fail("The copy should be deleted")
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	def void testCopiesAreDeletedAfterMaximumAgeOrWhenCleared() {
+		val loader = createLoader
+		loader.load(server.url("/old.yaml"))
+		loader.load(server.url("/recent.yaml"))
+		directory.listFiles.filter[name.endsWith(".json")].forEach[lastModified = System.currentTimeMillis - 60000]
+		createLoader.load(server.url("/recent.yaml"))
+
+		loader.maximumAge = 30000
+		assertEquals(2, directory.listFiles.size)
+
+		loader.clear
+		assertEquals(0, directory.listFiles.size)
+		loader.load(server.url("/recent.yaml"))
+		assertEquals(3, server.requests.size)
+	}
+
+	def createLoader() {
+		val loader = new RemoteDocumentLoader(directory)
+		loaders.add(loader)
+		loader
+	}
+
+}
+
+/**
+ * Stand-in HTTP server that answers each request with the same document.
+ */
+class LocalServer {
+
+	val socket = new ServerSocket(0, 50, InetAddress.loopbackAddress)
+	public val List<Map<String, String>> requests = new CopyOnWriteArrayList
+	public var String content
+	public var String etag
+	// responses wait for the latch if set
+	public var CountDownLatch blocked
+
+	new() {
+		val thread = new Thread[serve]
+		thread.daemon = true
+		thread.start
+	}
+
+	def url(String path) {
+		new URL("http://127.0.0.1:" + socket.localPort + path)
+	}
+
+	def close() {
+		socket.close
+	}
+
+	def private void serve() {
+		while (!socket.closed) {
+			try {
+				val client = socket.accept
+				try {
+					respond(client)
+				} finally {
+					client.close
+				}
+			} catch (IOException e) {
+				// closed
+			}
+		}
+	}
+
+	def private void respond(Socket client) {
+		val reader = new BufferedReader(new InputStreamReader(client.inputStream, StandardCharsets.US_ASCII))
+		reader.readLine
+
+		val headers = <String, String>newHashMap
+		var line = reader.readLine
+		while (line !== null && !line.empty) {
+			val index = line.indexOf(':')
+			headers.put(line.substring(0, index).trim.toLowerCase, line.substring(index + 1).trim)
+			line = reader.readLine
+		}
+		requests.add(headers)
+
+		if (blocked !== null) {
+			blocked.await(5, TimeUnit.SECONDS)
+		}
+
+		val body = content.getBytes(StandardCharsets.UTF_8)
+		val output = client.outputStream
+		if (etag !== null && etag == headers.get("if-none-match")) {
+			output.write(("HTTP/1.1 304 Not Modified\r\nETag: " + etag +
+				"\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII))
+		} else {
+			output.write(("HTTP/1.1 200 OK\r\nETag: " + etag + "\r\nContent-Length: " + body.length +
+				"\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII))
+			output.write(body)
+		}
+		output.flush
+	}
+
+}
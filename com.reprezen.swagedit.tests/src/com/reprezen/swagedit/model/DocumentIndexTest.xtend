@@ -0,0 +1,149 @@
+package com.reprezen.swagedit.model
+
+import com.reprezen.swagedit.core.model.DocumentIndex
+import com.reprezen.swagedit.core.model.Model
+import com.reprezen.swagedit.schema.SwaggerSchema
+import com.reprezen.swagedit.tests.utils.PointerHelpers
+import org.junit.Test
+import org.yaml.snakeyaml.error.YAMLException
+
+import static org.junit.Assert.*
+
+class DocumentIndexTest {
+
+	extension PointerHelpers = new PointerHelpers
+
+	val schema = new SwaggerSchema
+
+	val text = '''
+		swagger: '2.0'
+		info:
+		  version: 0.0.0
+		  title: Simple API
+		paths:
+		  /pets/{id}:
+		    get:
+		      description: |
+		        Returns a pet
+		        by its id
+		      parameters:
+		        - &id
+		          name: id
+		          in: path
+		          type: integer
+		      responses:
+		        200:
+		          description: OK
+		  /owners:
+		    get:
+		      parameters:
+		        - *id
+		      responses:
+		        200: {description: OK}
+	'''
+
+	@Test
+	def void testModelOfIndexSameAsModel() {
+		val index = DocumentIndex.build(text)
+		val expected = Model.parseYaml(schema, text)
+		val actual = index.getModel(schema, Integer.MAX_VALUE)
+
+		assertNull(index.error)
+		assertTrue(actual.partial)
+		assertEquals(expected.allNodes.map[pointer + " " + property + " " + start + " " + end + " " + type?.pointer].toList,
+			actual.allNodes.map[pointer + " " + property + " " + start + " " + end + " " + type?.pointer].toList)
+		assertEquals(expected.allNodes.filter[isValue].map[asValue.value].toList,
+			actual.allNodes.filter[isValue].map[asValue.value].toList)
+	}
+
+	@Test
+	def void testModelOfJsonIndexSameAsModel() {
+		val json = '''
+			{
+			  "swagger": "2.0",
+			  "info": { "version": "0.0.0", "title": "Simple API" },
+			  "x-values": [ 1, 1.5, true, null, "a/b" ]
+			}
+		'''
+		val index = DocumentIndex.build(json)
+		val expected = Model.parseYaml(schema, json)
+		val actual = index.getModel(schema, Integer.MAX_VALUE)
+
+		assertEquals(expected.allNodes.map[pointer + " " + start + " " + end + " " + type?.pointer].toList,
+			actual.allNodes.map[pointer + " " + start + " " + end + " " + type?.pointer].toList)
+		assertEquals(expected.allNodes.filter[isValue].map[asValue.value].toList,
+			actual.allNodes.filter[isValue].map[asValue.value].toList)
+	}
+
+	@Test
+	def void testModelOfDepth() {
+		val model = DocumentIndex.build(text).getModel(schema, 2)
+
+		assertNotNull(model.find("/info/title"))
+		assertNotNull(model.find("/paths/~1owners"))
+		assertNull(model.find("/paths/~1owners/get"))
+		assertEquals(2, model.find("/paths").size)
+	}
+
+	@Test
+	def void testModelOfRegion() {
+		val offset = text.indexOf("in: path")
+		val model = DocumentIndex.build(text).getModel(schema, offset, 0)
+
+		assertEquals("path", model.find("/paths/~1pets~1{id}/get/parameters/0/in").asValue.value)
+		assertEquals(13, model.find("/paths/~1pets~1{id}/get/parameters/0/in").start.line)
+		// the other properties of the object that contains the region are available
+		assertNotNull(model.find("/paths/~1pets~1{id}/get/parameters/0/name"))
+		assertNotNull(model.find("/paths/~1pets~1{id}/get/parameters/0/type"))
+		// other nodes are not created
+		assertNull(model.find("/paths/~1pets~1{id}/get/responses"))
+		assertNull(model.find("/paths/~1owners"))
+		assertNull(model.find("/info"))
+		assertEquals(Model.parseYaml(schema, text).find("/paths/~1pets~1{id}/get/parameters/0").type.pointer,
+			model.find("/paths/~1pets~1{id}/get/parameters/0").type.pointer)
+	}
+
+	@Test
+	def void testModelOfRegionWithAlias() {
+		val offset = text.indexOf("- *id")
+		val model = DocumentIndex.build(text).getModel(schema, offset, 5)
+
+		assertEquals("id", model.find("/paths/~1owners/get/parameters/0/name").asValue.value)
+	}
+
+	@Test
+	def void testGetOffset() {
+		val index = DocumentIndex.build(text)
+
+		assertEquals(0, index.getOffset("".ptr))
+		assertEquals(text.indexOf("title"), index.getOffset("/info/title".ptr))
+		assertEquals(text.indexOf("/owners"), index.getOffset("/paths/~1owners".ptr))
+		assertEquals(text.indexOf("name: id"), index.getOffset("/paths/~1pets~1{id}/get/parameters/0/name".ptr))
+		assertEquals(-1, index.getOffset("/paths/~1owners/post".ptr))
+		assertEquals(-1, index.getOffset("/paths/~1owners/get/parameters/1".ptr))
+	}
+
+	@Test
+	def void testIndexOfInvalidYaml() {
+		val invalid = '''
+			swagger: '2.0'
+			info:
+			  title: Simple API
+			paths: [
+		'''
+		val index = DocumentIndex.build(invalid)
+		val model = index.getModel(schema, Integer.MAX_VALUE)
+
+		assertTrue(index.error instanceof YAMLException)
+		assertEquals("Simple API", model.find("/info/title").asValue.value)
+	}
+
+	@Test
+	def void testIndexOfEmptyDocument() {
+		val index = DocumentIndex.build("# comment")
+
+		assertEquals(0, index.size)
+		assertNotNull(index.getModel(schema, 0, 0).root)
+	}
+
+}
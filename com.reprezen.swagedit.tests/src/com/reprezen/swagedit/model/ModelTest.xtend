@@ -1,5 +1,8 @@
 package com.reprezen.swagedit.model
 
+import com.reprezen.swagedit.core.model.JsonNodeReader
+import com.reprezen.swagedit.core.model.Location
+import com.reprezen.swagedit.core.model.YamlNodeReader
 import com.reprezen.swagedit.core.schema.JsonType
 import com.reprezen.swagedit.core.schema.ObjectTypeDefinition
 import com.reprezen.swagedit.core.schema.ReferenceTypeDefinition
@@ -131,4 +134,288 @@ class ModelTest {
 		assertEquals(schema.asJson.at("/definitions/parametersList/items".ptr), param1.asJson)
 	}
 
+	@Test
+	def void testParseJsonSameAsYaml() {
+		val text = '''
+			{
+			  "swagger": "2.0",
+			  "info": { "version": "0.0.0", "title": "Simple API" },
+			  "paths": {
+			    "/pets": {
+			      "get": {
+			        "parameters": [ { "name": "limit", "in": "query", "type": "integer", "maximum": 10000 } ],
+			        "responses": { "200": { "description": "OK" } }
+			      }
+			    }
+			  },
+			  "x-values": [ 1, 1.5, true, null, 12345678901 ]
+			}
+		'''
+
+		val reader = new JsonNodeReader
+		val json = Model.parseJson(schema, text, reader)
+		val yaml = Model.parseYaml(schema, YamlNodeReader.compose(text))
+
+		assertTrue(JsonNodeReader.isJson(text))
+		assertEquals(yaml.allNodes.map[pointer + " " + property + " " + start + " " + end + " " + type?.pointer].toList,
+			json.allNodes.map[pointer + " " + property + " " + start + " " + end + " " + type?.pointer].toList)
+		assertEquals(yaml.allNodes.filter[isValue].map[asValue.value].toList,
+			json.allNodes.filter[isValue].map[asValue.value].toList)
+		assertEquals(new YamlNodeReader().toJson(YamlNodeReader.compose(text)), reader.json)
+	}
+
+	@Test
+	def void testParseInvalidJson() {
+		val text = '''
+			{ "swagger": "2.0", info: { title: Simple API } }
+		'''
+
+		assertNull(Model.parseJson(schema, text, new JsonNodeReader))
+		assertEquals("Simple API", Model.parseYaml(schema, text).find("/info/title").asValue.value)
+	}
+
+	@Test
+	def void testRecoverYamlSkipsInvalidLines() {
+		val text = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: [ Simple
+			  description: An API
+			paths: {}
+		'''
+
+		assertNull(Model.parseYaml(schema, text))
+
+		val model = Model.recoverYaml(schema, text)
+		assertEquals(#[3], model.errorLines.toList)
+		assertNull(model.find("/info/title"))
+		assertEquals("0.0.0", model.find("/info/version").asValue.value)
+		assertEquals(4, model.find("/info/description").start.line)
+		assertEquals(5, model.find("/paths").start.line)
+		assertEquals(schema.asJson.at("/definitions/info".ptr), model.find("/info").type.asJson)
+	}
+
+	@Test
+	def void testRecoverYamlKeepsContentBeforeOffset() {
+		val text = '''
+			swagger: '2.0'
+			info:
+			  version: "0.0.0
+			  title: Simple API
+		'''
+
+		val model = Model.recoverYaml(schema, text, text.indexOf('"0.0.0'))
+		assertEquals(#[2], model.errorLines.toList)
+		assertTrue(model.find("/info/version").isValue)
+		assertNull(model.find("/info/version").asValue.value)
+		assertEquals("Simple API", model.find("/info/title").asValue.value)
+	}
+
+	@Test
+	def void testRecoverValidYaml() {
+		val text = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+		'''
+
+		val model = Model.recoverYaml(schema, text)
+		assertTrue(model.errorLines.empty)
+		assertEquals("0.0.0", model.find("/info/version").asValue.value)
+	}
+
+	@Test
+	def void testGetNodeWithAliases() {
+		val text = '''
+			swagger: '2.0'
+			parameters:
+			  id: &id
+			    name: id
+			    in: path
+			paths:
+			  /pets/{id}:
+			    parameters:
+			      - *id
+			    get:
+			      description: OK
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		assertEquals("/parameters/id/name".ptr, model.getPath(3, 6))
+		assertEquals("/paths/~1pets~1{id}/parameters".ptr, model.getPath(7, 6))
+		assertEquals("/paths/~1pets~1{id}/get/description".ptr, model.getPath(10, 20))
+		assertEquals("/paths/~1pets~1{id}/get".ptr, model.getPath(11, 6))
+	}
+
+	@Test
+	def void testGetNodeAfterAddingNode() {
+		val text = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		assertEquals("/info/version".ptr, model.getPath(2, 6))
+
+		val title = model.valueNode(model.find("/info"), "/info/title".ptr, "Simple API")
+		title.startLocation = new Location(3, 2)
+		title.endLocation = new Location(3, 19)
+		assertEquals("/info/title".ptr, model.getPath(3, 10))
+	}
+
+	@Test
+	def void testFindByType() {
+		val text = '''
+			swagger: '2.0'
+			paths:
+			  /pets:
+			    get:
+			      operationId: listPets
+			    post:
+			      operationId: createPet
+			  /owners:
+			    get:
+			      description: no id
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		val operation = "/definitions/operation".ptr
+		assertEquals(#["/paths/~1pets/get".ptr, "/paths/~1pets/post".ptr, "/paths/~1owners/get".ptr],
+			model.findByType(operation).map[pointer].toList)
+		assertTrue(model.findByType("/definitions/unknown".ptr).empty)
+
+		val owners = model.find("/paths/~1owners/get")
+		owners.type = model.find("/paths/~1owners").type
+		assertEquals(2, model.findByType(operation).size)
+	}
+
+	@Test
+	def void testTypesResolvedFromParentTypes() {
+		val text = '''
+			swagger: '2.0'
+			info:
+			  title: Simple API
+			  x-info:
+			    title: ext
+			paths:
+			  /pets:
+			    get:
+			      parameters:
+			        - name: id
+			          in: path
+			      unknown:
+			        description: none
+			'':
+			  title: empty
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		for (node : model.allNodes) {
+			assertEquals(node.pointerString, schema.getType(node)?.pointer, node.type?.pointer)
+		}
+		assertEquals(model.find("/paths/~1pets/get").type.pointer, model.find("/paths/~1pets/get/unknown/description").type.pointer)
+	}
+
+	@Test
+	def void testPointersOfNodes() {
+		val text = '''
+			swagger: '2.0'
+			paths:
+			  /pets/{id}:
+			    parameters:
+			      - name: id
+		'''
+
+		for (model : #[Model.parseYaml(schema, text), Model.parseYaml(schema, '{"paths": {"/pets/{id}": {"parameters": [{"name": "id"}]}}}')]) {
+			val node = model.find("/paths/~1pets~1{id}/parameters/0/name".ptr)
+			assertEquals("/paths/~1pets~1{id}/parameters/0/name", node.pointerString)
+			assertEquals("/paths/~1pets~1{id}/parameters/0/name".ptr, node.pointer)
+			assertSame(node.pointer, node.pointer)
+			assertEquals("name", node.property)
+			assertSame(node, model.find("/paths/~1pets~1{id}/parameters/0/name"))
+		}
+	}
+
+	@Test
+	def void testPropertiesOfObjects() {
+		val text = '''
+			swagger: '2.0'
+			definitions:
+			  Pet:
+			    properties:
+			      p0: {type: string}
+			      p1: {type: string}
+			      p2: {type: string}
+			      p3: {type: string}
+			      p4: {type: string}
+			      p5: {type: string}
+			      p6: {type: string}
+			      p7: {type: string}
+			      p8: {type: string}
+			      p9: {type: string}
+			      p1: {type: integer}
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		val properties = model.find("/definitions/Pet/properties").asObject
+
+		assertEquals((0 .. 9).map["p" + it].toList, properties.fieldNames.toList)
+		assertEquals(10, properties.elements.size)
+		assertEquals("integer", properties.get("p1").get("type").asValue.value)
+		assertEquals("string", properties.get("p9").get("type").asValue.value)
+		assertNull(properties.get("p10"))
+		assertEquals(11, properties.get("p7").start.line)
+		assertEquals(11, properties.get("p7").end.line)
+	}
+
+	@Test
+	def void testSymbolsOfModel() {
+		val text = '''
+			swagger: '2.0'
+			paths:
+			  /pets/{id}:
+			    get:
+			      operationId: getPet
+			      parameters:
+			        - $ref: '#/parameters/id'
+			    delete:
+			      operationId: deletePet
+			      parameters:
+			        - name: id
+			          in: path
+			        - name: force
+			          in: query
+			parameters:
+			  id:
+			    name: id
+			    in: path
+			securityDefinitions:
+			  auth:
+			    type: oauth2
+			    scopes:
+			      read: Read
+			      write: Write
+		'''
+
+		val model = Model.parseYaml(schema, text)
+		val symbols = model.symbols
+
+		assertSame(symbols, model.symbols)
+		assertEquals(#["getPet", "deletePet"], symbols.operationIds.toList)
+		assertSame(model.find("/paths/~1pets~1{id}/delete/operationId"), symbols.getOperationId("deletePet"))
+		assertNull(symbols.getOperationId("createPet"))
+
+		assertEquals(#["id"], symbols.getComponentNames("/parameters".ptr).toList)
+		assertSame(model.find("/securityDefinitions/auth"), symbols.getComponent("/securityDefinitions".ptr, "auth"))
+		assertEquals(#["read", "write"], symbols.getSecurityScopes("/securityDefinitions".ptr, "auth").toList)
+		assertTrue(symbols.getSecurityScopes("/securityDefinitions".ptr, "other").empty)
+
+		val parameters = symbols.getPathParameters("/paths/~1pets~1{id}".ptr, "id")
+		assertEquals("/parameters/id".ptr, parameters.get("get"))
+		assertEquals("/paths/~1pets~1{id}/delete/parameters/0".ptr, parameters.get("delete"))
+		assertEquals(#{"delete"}, symbols.getPathParameters("/paths/~1pets~1{id}".ptr, "force").keySet)
+	}
+
 }
@@ -17,17 +17,25 @@ import org.junit.runners.Suite.SuiteClasses;
 import com.reprezen.swagedit.assist.JsonReferenceProposalProviderTest;
 import com.reprezen.swagedit.assist.SwaggerContentAssistProcessorTest;
 import com.reprezen.swagedit.assist.SwaggerProposalProviderTest;
+import com.reprezen.swagedit.editor.DependencyRevalidatorTest;
 import com.reprezen.swagedit.editor.SwaggerDocumentTest;
+import com.reprezen.swagedit.editor.ValidationSchedulerTest;
 import com.reprezen.swagedit.editor.hyperlinks.DefinitionHyperlinkDetectorTest;
 import com.reprezen.swagedit.editor.hyperlinks.JsonReferenceHyperlinkDetectorTest;
 import com.reprezen.swagedit.editor.hyperlinks.PathParamHyperlinkDetectorTest;
 import com.reprezen.swagedit.editor.outline.AbstractNodeTest;
 import com.reprezen.swagedit.editor.outline.OutlineStyledLabelProviderTest;
+import com.reprezen.swagedit.json.references.JsonDocumentCacheTest;
+import com.reprezen.swagedit.json.references.JsonPointerReaderTest;
 import com.reprezen.swagedit.json.references.JsonReferenceFactoryTest;
+import com.reprezen.swagedit.json.references.ReferenceGraphTest;
+import com.reprezen.swagedit.json.references.RemoteDocumentLoaderTest;
+import com.reprezen.swagedit.model.DocumentIndexTest;
 import com.reprezen.swagedit.model.ModelTest;
 import com.reprezen.swagedit.schema.SwaggerSchemaTest;
 import com.reprezen.swagedit.templates.CodeTemplateContextTest;
 import com.reprezen.swagedit.validation.ErrorProcessorTest;
+import com.reprezen.swagedit.validation.MarkersTest;
 import com.reprezen.swagedit.validation.MultipleSwaggerErrorMessageTest;
 import com.reprezen.swagedit.validation.ReferenceValidatorTest;
 import com.reprezen.swagedit.validation.ValidationMessageTest;
@@ -38,17 +46,25 @@ import com.reprezen.swagedit.validation.ValidatorTest;
         JsonReferenceProposalProviderTest.class, //
         SwaggerContentAssistProcessorTest.class, //
         SwaggerProposalProviderTest.class, //
+        DependencyRevalidatorTest.class, //
         SwaggerDocumentTest.class, //
+        ValidationSchedulerTest.class, //
         DefinitionHyperlinkDetectorTest.class, //
         JsonReferenceHyperlinkDetectorTest.class, //
         PathParamHyperlinkDetectorTest.class, //
         AbstractNodeTest.class, //
         OutlineStyledLabelProviderTest.class, //
+        JsonDocumentCacheTest.class, //
+        JsonPointerReaderTest.class, //
         JsonReferenceFactoryTest.class, //
+        ReferenceGraphTest.class, //
+        RemoteDocumentLoaderTest.class, //
         ModelTest.class, //
+        DocumentIndexTest.class, //
         SwaggerSchemaTest.class, //
         CodeTemplateContextTest.class, //
         ErrorProcessorTest.class, //
+        MarkersTest.class, //
         MultipleSwaggerErrorMessageTest.class, //
         ReferenceValidatorTest.class, //
         ValidationMessageTest.class, //
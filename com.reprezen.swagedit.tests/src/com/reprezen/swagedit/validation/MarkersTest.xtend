@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 ModelSolv, Inc. and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     ModelSolv, Inc. - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package com.reprezen.swagedit.validation
+
+import com.reprezen.swagedit.core.validation.Markers
+import com.reprezen.swagedit.core.validation.SwaggerError
+import java.util.Map
+import org.eclipse.core.resources.IFile
+import org.eclipse.core.resources.IMarker
+import org.eclipse.core.resources.IResource
+import org.eclipse.core.resources.IWorkspace
+import org.eclipse.core.resources.IWorkspaceRunnable
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.jobs.ISchedulingRule
+import org.junit.Test
+
+import static org.mockito.Matchers.*
+import static org.mockito.Mockito.*
+
+class MarkersTest {
+
+	@Test
+	def void testUpdateMarkersOnlyChangesMarkersOfChangedErrors() {
+		val workspace = mock(IWorkspace)
+		val file = mock(IFile)
+		val kept = mockMarker(1, IMarker.SEVERITY_ERROR, "kept")
+		val stale = mockMarker(2, IMarker.SEVERITY_ERROR, "stale")
+		val created = mock(IMarker)
+		val IMarker[] existing = #[kept, stale]
+
+		when(file.workspace).thenReturn(workspace)
+		when(file.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE)).thenReturn(existing)
+		when(file.createMarker(IMarker.PROBLEM)).thenReturn(created)
+		doAnswer [
+			(arguments.get(0) as IWorkspaceRunnable).run(null)
+			return null
+		].when(workspace).run(any(IWorkspaceRunnable), any(ISchedulingRule), anyInt, any(IProgressMonitor))
+
+		Markers.updateMarkers(file, null, #{
+			new SwaggerError(1, IMarker.SEVERITY_ERROR, "kept"),
+			new SwaggerError(3, IMarker.SEVERITY_WARNING, "new")
+		})
+
+		// all changes are made in a single operation
+		verify(workspace).run(any(IWorkspaceRunnable), eq(file), anyInt, any(IProgressMonitor))
+		verify(kept, never).setAttributes(any(typeof(String[])), any(typeof(Object[])))
+		verify(file).createMarker(IMarker.PROBLEM)
+		verify(created).setAttributes(#[IMarker.SEVERITY, IMarker.MESSAGE, IMarker.LINE_NUMBER],
+			#[IMarker.SEVERITY_WARNING, "new", 3])
+		verify(workspace).deleteMarkers(#[stale])
+	}
+
+	def private mockMarker(int line, int severity, String message) {
+		val marker = mock(IMarker)
+		val Map<String, Object> attributes = newHashMap(
+			IMarker.SEVERITY -> severity,
+			IMarker.MESSAGE -> message,
+			IMarker.LINE_NUMBER -> line
+		)
+
+		when(marker.type).thenReturn(IMarker.PROBLEM)
+		when(marker.getAttribute(IMarker.LINE_NUMBER, -1)).thenReturn(line)
+		when(marker.getAttribute(IMarker.SEVERITY, -1)).thenReturn(severity)
+		when(marker.getAttribute(IMarker.MESSAGE, null as String)).thenReturn(message)
+		when(marker.attributes).thenReturn(attributes)
+		marker
+	}
+
+}
@@ -3,7 +3,11 @@ package com.reprezen.swagedit.validation
 import com.fasterxml.jackson.databind.JsonNode
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
+import com.reprezen.swagedit.core.json.references.JsonDocumentManager
+import com.reprezen.swagedit.core.json.references.JsonReferenceFactory
 import com.reprezen.swagedit.core.json.references.JsonReferenceValidator
+import com.reprezen.swagedit.core.json.references.ReferenceGraph
+import com.reprezen.swagedit.core.model.AbstractNode
 import com.reprezen.swagedit.core.validation.Messages
 import com.reprezen.swagedit.core.validation.SwaggerError
 import com.reprezen.swagedit.editor.SwaggerDocument
@@ -11,6 +15,9 @@ import com.reprezen.swagedit.mocks.Mocks
 import com.reprezen.swagedit.validation.SwaggerValidator.SwaggerSchemaValidator
 import java.net.URI
 import java.util.Map
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 import org.eclipse.core.resources.IMarker
 import org.junit.Test
 
@@ -417,6 +424,51 @@ class ReferenceValidatorTest {
 		assertEquals(Messages.warning_simple_reference, errors.get(0).message)
 	}
 
+	@Test
+	def void shouldLoadExternalDocumentsInParallel() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths: {}
+			definitions:
+			  A:
+			    $ref: 'a.yaml#/definitions/A'
+			  B:
+			    $ref: 'b.yaml#/definitions/B'
+		'''
+
+		// each load waits for the other one, both only return at once if they run at the same time
+		val loading = new CountDownLatch(2)
+		val parallel = new AtomicBoolean(true)
+		val manager = new JsonDocumentManager() {
+			override getDocument(URI uri) {
+				loading.countDown
+				if (!loading.await(5, TimeUnit.SECONDS)) {
+					parallel.set(false)
+				}
+				null
+			}
+		}
+		val factory = new JsonReferenceFactory() {
+			override create(AbstractNode node) {
+				val reference = super.create(node)
+				if (reference !== null) {
+					reference.documentManager = manager
+				}
+				reference
+			}
+		}
+
+		document.set(content)
+		val validator = new JsonReferenceValidator(new SwaggerSchemaValidator, factory)
+		validator.referenceGraph = new ReferenceGraph
+		validator.validate(new URI("file:/api.yaml"), document.snapshot)
+
+		assertTrue(parallel.get)
+	}
+
 	def asJson(String string) {
 		new ObjectMapper(new YAMLFactory).readTree(string)
 	}
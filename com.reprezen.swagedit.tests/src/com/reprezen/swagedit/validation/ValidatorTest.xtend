@@ -10,12 +10,23 @@
  *******************************************************************************/
 package com.reprezen.swagedit.validation
 
+import com.reprezen.swagedit.core.editor.JsonDocument
+import com.reprezen.swagedit.core.model.AbstractNode
+import com.reprezen.swagedit.core.providers.ValidationProvider
+import com.reprezen.swagedit.core.utils.ExtensionUtils
+import com.reprezen.swagedit.core.validation.JsonSchemaValidator
 import com.reprezen.swagedit.core.validation.Messages
 import com.reprezen.swagedit.core.validation.SwaggerError
 import com.reprezen.swagedit.editor.SwaggerDocument
+import com.reprezen.swagedit.preferences.SwaggerPreferenceConstants
+import com.reprezen.swagedit.schema.SwaggerSchema
+import com.reprezen.swagedit.validation.SwaggerValidator.SwaggerSchemaValidator
 import java.io.IOException
 import java.net.URI
+import java.util.concurrent.atomic.AtomicInteger
 import org.eclipse.core.resources.IMarker
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.OperationCanceledException
 import org.junit.Test
 
 import static org.hamcrest.CoreMatchers.*
@@ -810,4 +821,209 @@ class ValidatorTest {
 		assertEquals(1, errors.size())
 		assertTrue(errors.map[message].forall[it.equals(Messages.error_invalid_reference_type)])
 	}
+
+	@Test
+	def void testSchemaValidatorFollowsSchemaChanges() {
+		val schema = new SwaggerSchema
+		val schemaValidator = new JsonSchemaValidator(schema, newHashMap)
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths: {}
+			securityDefinitions:
+			  $ref: 'security.yaml'
+		'''
+
+		document.set(content)
+		assertEquals(1, schemaValidator.validate(document).size)
+
+		schema.allowJsonRefInContext(SwaggerPreferenceConstants.VALIDATION_REF_SECURITY_DEFINITIONS_OBJECT, true)
+		assertEquals(0, schemaValidator.validate(document).size)
+
+		schema.allowJsonRefInContext(SwaggerPreferenceConstants.VALIDATION_REF_SECURITY_DEFINITIONS_OBJECT, false)
+		assertEquals(1, schemaValidator.validate(document).size)
+	}
+
+	@Test
+	def void testValidationAfterChangeMovesErrorsOfUnchangedParts() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths:
+			«FOR i : 1 .. 20»
+			  /p«i»:
+			    get:
+			      «IF i != 10»
+			      responses:
+			        '200':
+			          description: OK
+			      «ELSE»
+			      description: no responses
+			      «ENDIF»
+			«ENDFOR»
+			definitions:
+			«FOR i : 1 .. 20»
+			  D«i»:
+			    type: «IF i == 10»array«ELSE»object«ENDIF»
+			«ENDFOR»
+		'''
+
+		document.set(content)
+		val errors = validator.validate(document, null as URI)
+		assertEquals(2, errors.size())
+
+		document.set(content.replace("paths:", "host: example.com\npaths:"))
+		val moved = validator.validate(document, null as URI)
+		assertEquals(errors.map[line + 1].toSet, moved.map[line].toSet)
+		assertEquals(new SwaggerValidator(null).validate(document, null as URI), moved)
+	}
+
+	@Test
+	def void testValidationOfIncrementalParseDoesNotComposeYaml() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths:
+			  /foo:
+			    get:
+			      responses: 1
+		'''
+
+		document.set(content)
+		document.onChange
+		document.replace(content.indexOf("Simple"), "Simple".length, "Other")
+		document.onChange
+
+		val snapshot = document.snapshot
+		val errors = validator.validate(document, snapshot, null as URI)
+
+		assertFalse(snapshot.composed)
+		assertEquals(#[8], errors.map[line].toList)
+	}
+
+	@Test
+	def void testValidationOfJsonDoesNotComposeYaml() {
+		val content = '''
+			{
+			  "swagger": "2.0",
+			  "info": { "version": "0.0.0", "title": "Simple API", "title": "Other API" },
+			  "paths": {
+			    "/foo": {
+			      "get": { "responses": 1 }
+			    }
+			  }
+			}
+		'''
+
+		document.set(content)
+		val snapshot = document.snapshot
+		val errors = validator.validate(document, snapshot, null as URI)
+
+		assertFalse(snapshot.composed)
+		assertEquals(2, errors.size())
+		assertThat(errors,
+			hasItems(
+				new SwaggerError(3, IMarker.SEVERITY_WARNING, String.format(Messages.error_duplicate_keys, "title"))
+			))
+		assertEquals(#[3, 6], errors.map[line].sort.toList)
+	}
+
+	@Test
+	def void testValidationStopsWhenMonitorIsCanceled() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths: {}
+		'''
+
+		document.set(content)
+		val monitor = new NullProgressMonitor
+		monitor.setCanceled(true)
+		try {
+			validator.validate(document, document.snapshot, null as URI, monitor)
+			fail("Validation should be canceled")
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertEquals(0, validator.validate(document, null as URI).size())
+	}
+
+	@Test
+	def void testValidatorsShareSchemaValidatorAndProviders() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths:
+			  /p:
+			    get: {}
+		'''
+
+		val schemaValidator = new SwaggerSchemaValidator
+		val first = new SwaggerValidator(schemaValidator, null)
+		val second = new SwaggerValidator(schemaValidator, null)
+		assertSame(first.schemaValidator, second.schemaValidator)
+		assertSame(ExtensionUtils.validationProviders, ExtensionUtils.validationProviders)
+
+		document.set(content)
+		assertEquals(validator.validate(document, null as URI), first.validate(document, null as URI))
+		assertEquals(validator.validate(document, null as URI), second.validate(document, null as URI))
+	}
+
+	@Test
+	def void testProvidersOnlyValidateNodesOfTheirTypes() {
+		val content = '''
+			swagger: '2.0'
+			info:
+			  version: 0.0.0
+			  title: Simple API
+			paths:
+			  /a:
+			    get:
+			      responses:
+			        '200':
+			          description: OK
+			    post:
+			      responses:
+			        '200':
+			          description: OK
+		'''
+
+		val validated = <String>newArrayList
+		val active = new AtomicInteger
+		val provider = new ValidationProvider {
+			override validate(JsonDocument document, URI baseURI, AbstractNode node) {
+				validated.add(node.pointerString)
+				emptySet
+			}
+
+			override isActive(JsonDocument document) {
+				active.incrementAndGet
+				true
+			}
+
+			override getTypePointers() {
+				#{"/definitions/operation"}
+			}
+		}
+		val typedValidator = new SwaggerValidator(null) {
+			override protected getValidationProviders() {
+				#{provider}
+			}
+		}
+
+		document.set(content)
+		assertEquals(0, typedValidator.validate(document, null as URI).size())
+		assertEquals(#["/paths/~1a/get", "/paths/~1a/post"], validated)
+		assertEquals(1, active.get)
+	}
 }
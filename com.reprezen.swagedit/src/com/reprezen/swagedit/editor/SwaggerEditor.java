@@ -25,6 +25,7 @@ import com.reprezen.swagedit.Activator;
 import com.reprezen.swagedit.core.editor.JsonEditor;
 import com.reprezen.swagedit.core.validation.Validator;
 import com.reprezen.swagedit.validation.SwaggerValidator;
+import com.reprezen.swagedit.validation.SwaggerValidator.SwaggerSchemaValidator;
 
 /**
  * SwagEdit editor.
@@ -48,6 +49,9 @@ public class SwaggerEditor extends JsonEditor {
         }
     };
 
+    // the schema validator is shared by all editors, it follows the changes made to the schema by the preferences
+    private static SwaggerSchemaValidator schemaValidator;
+
     private SwaggerValidator validator;
 
     public SwaggerEditor() {
@@ -79,9 +83,16 @@ public class SwaggerEditor extends JsonEditor {
     @Override
     protected Validator createValidator() {
         if (validator == null) {
-            validator = new SwaggerValidator(getPreferenceStore());
+            validator = new SwaggerValidator(getSchemaValidator(), getPreferenceStore());
         }
 
         return validator;
     }
+
+    private static synchronized SwaggerSchemaValidator getSchemaValidator() {
+        if (schemaValidator == null) {
+            schemaValidator = new SwaggerSchemaValidator();
+        }
+        return schemaValidator;
+    }
 }
\ No newline at end of file
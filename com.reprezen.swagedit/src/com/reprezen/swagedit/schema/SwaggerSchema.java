@@ -83,10 +83,12 @@ public class SwaggerSchema extends CompositeSchema {
         if (allow) {
             if (!alreadyHasJsonReference) {
                 definition.add(refToJsonReferenceNode.deepCopy());
+                contentChanged();
             }
         } else { // disallow
             if (alreadyHasJsonReference) {
                 definition.remove(indexOfJsonReference);
+                contentChanged();
             }
         }
     }
@@ -100,6 +102,7 @@ public class SwaggerSchema extends CompositeSchema {
         } else {
             definition.remove("properties");
         }
+        contentChanged();
     }
 
 }
@@ -23,12 +23,23 @@ import com.reprezen.swagedit.schema.SwaggerSchema;
 
 public class SwaggerValidator extends Validator {
 
+    private JsonReferenceValidator referenceValidator;
+    private JsonSchemaValidator schemaValidator;
+
     public SwaggerValidator(IPreferenceStore preferenceStore) {
         super(preferenceStore);
     }
 
-    private JsonReferenceValidator referenceValidator;
-    private JsonSchemaValidator schemaValidator;
+    /**
+     * Creates a validator that uses the given schema validator, which can be shared with other validators.
+     * 
+     * @param schemaValidator
+     * @param preferenceStore
+     */
+    public SwaggerValidator(JsonSchemaValidator schemaValidator, IPreferenceStore preferenceStore) {
+        super(preferenceStore);
+        this.schemaValidator = schemaValidator;
+    }
 
     @Override
     public JsonReferenceValidator getReferenceValidator() {
@@ -52,7 +63,7 @@ public class SwaggerValidator extends Validator {
                 Activator.getDefault().getSchema() : new SwaggerSchema();
 
         public SwaggerSchemaValidator() {
-            super(schema.asJson(), new HashMap<>());
+            super(schema, new HashMap<>());
         }
     }
 }